@@ -0,0 +1,188 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+import com.google.common.eventbus.Subscribe;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import environment.ApplicationRunner;
+import gui.video.EventTracker;
+import util.Variables;
+import util.event.GameOverEvent;
+import util.event.WorldProcessedEvent;
+
+/**
+ * Headless counterpart of {@link gui.video.BatchMAS}. Runs a number of independent simulations of one
+ * implementation/environment pair in parallel, without any GUI, and writes the history of every run
+ * to the same JSON output format as the batch GUI.
+ *
+ * Usage: BatchApplication implementation environment [nbRuns] [outputFile] [nbThreads] [maxCycles]
+ */
+public class BatchApplication {
+
+    private static final int DEFAULT_NB_RUNS = 10;
+    private static final String DEFAULT_OUTPUT_FILE = Variables.OUTPUT_PATH + "outputBatch.json";
+
+    private final String implementation;
+    private final String environment;
+    private final int maxCycles;
+
+
+    public BatchApplication(String implementation, String environment, int maxCycles) {
+        this.implementation = implementation;
+        this.environment = environment;
+        this.maxCycles = maxCycles;
+    }
+
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+
+        final Level LOG_LEVEL = Level.SEVERE;
+        Logger rootLogger = LogManager.getLogManager().getLogger("");
+        rootLogger.setLevel(LOG_LEVEL);
+        Arrays.stream(rootLogger.getHandlers()).forEach(h -> h.setLevel(LOG_LEVEL));
+
+        if (args.length < 2) {
+            System.err.println("Usage: BatchApplication implementation environment [nbRuns] [outputFile] [nbThreads] [maxCycles]");
+            System.exit(1);
+        }
+
+        String implementation = args[0];
+        String environment = args[1];
+        int nbRuns = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NB_RUNS;
+        String outputFile = args.length > 3 ? args[3] : DEFAULT_OUTPUT_FILE;
+        int nbThreads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        int maxCycles = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+
+        System.out.println("****** Starting batch run ******");
+        System.out.println("Environment:\t " + environment);
+        System.out.println("Implementation:\t " + implementation);
+        System.out.printf("Runs:\t\t %d (%d in parallel)%n", nbRuns, nbThreads);
+
+        long start = System.currentTimeMillis();
+        BatchApplication batch = new BatchApplication(implementation, environment, maxCycles);
+        JSONArray results = batch.executeRuns(nbRuns, nbThreads);
+
+        try (FileWriter writer = new FileWriter(outputFile)) {
+            results.write(writer, 0, 0);
+        } catch (IOException e) {
+            System.err.println("Could not write to output file " + outputFile);
+            System.exit(1);
+        }
+
+        System.out.printf("Wall time:\t %.1fs%n", (System.currentTimeMillis() - start) / 1000.0);
+        System.out.println("****** Ending batch run ******");
+
+        // Agent threads of finished runs are not daemons, make sure the JVM does not linger on them
+        System.exit(0);
+    }
+
+
+    /**
+     * Execute the given number of runs, at most nbThreads at the same time.
+     *
+     * @param nbRuns    The number of independent runs to execute.
+     * @param nbThreads The number of runs that may execute simultaneously.
+     * @return The histories of all runs, in the order of their run number.
+     */
+    public JSONArray executeRuns(int nbRuns, int nbThreads) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, nbThreads));
+        List<Future<JSONObject>> futures = new ArrayList<>();
+
+        for (int i = 1; i <= nbRuns; i++) {
+            final int runNb = i;
+            futures.add(executor.submit(() -> this.executeRun(runNb)));
+        }
+
+        JSONArray results = new JSONArray();
+        try {
+            for (var future : futures) {
+                results.put(future.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Batch run failed.", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+
+    /**
+     * Build a fresh simulation, run it until the game is over (or until the cycle limit is reached)
+     * and return its history.
+     *
+     * @param runNb The number of this run (only used for reporting).
+     * @return The history of the run, cfr. {@link EventTracker#getHistoryJSON()}.
+     */
+    private JSONObject executeRun(int runNb) throws InterruptedException {
+        ApplicationRunner applicationRunner = new ApplicationRunner();
+        applicationRunner.setImplementation(this.implementation);
+        applicationRunner.setEnvFile(this.environment);
+        applicationRunner.make(false);
+        applicationRunner.setSpeed(0);
+
+        EventTracker eventTracker = new EventTracker(t -> {}, applicationRunner);
+        RunMonitor monitor = new RunMonitor(applicationRunner, this.maxCycles);
+        applicationRunner.getEventBus().register(monitor);
+
+        applicationRunner.prepareActiveItems();
+        applicationRunner.play();
+        monitor.awaitEnd();
+
+        JSONObject history = eventTracker.getHistoryJSON();
+        applicationRunner.finish();
+
+        System.out.printf("Run %d finished: %d cycles, energy spent %d%n", runNb,
+            history.getJSONObject("Meta").getInt("TotalCycles"), eventTracker.getEnergySpent());
+        return history;
+    }
+
+
+    /**
+     * Listens on the event bus of a single run and signals the end of that run.
+     */
+    private static class RunMonitor {
+
+        private final ApplicationRunner applicationRunner;
+        private final int maxCycles;
+        private final CountDownLatch ended = new CountDownLatch(1);
+        private int nbCycles = 0;
+
+        RunMonitor(ApplicationRunner applicationRunner, int maxCycles) {
+            this.applicationRunner = applicationRunner;
+            this.maxCycles = maxCycles;
+        }
+
+        @Subscribe
+        private void handleGameOverEvent(GameOverEvent e) {
+            ended.countDown();
+        }
+
+        @Subscribe
+        private void handleWorldProcessedEvent(WorldProcessedEvent e) {
+            nbCycles++;
+            if (maxCycles > 0 && nbCycles >= maxCycles) {
+                applicationRunner.stop();
+                ended.countDown();
+            }
+        }
+
+        void awaitEnd() throws InterruptedException {
+            ended.await();
+        }
+    }
+}
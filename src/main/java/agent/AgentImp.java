@@ -12,12 +12,16 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 
 import agent.behavior.Behavior;
 import agent.behavior.BehaviorState;
+import agent.utils.DistanceFieldCache;
+import agent.utils.ClusterGraph;
+import agent.utils.SpatialMemory;
 import environment.*;
 import environment.world.agent.Agent;
 import environment.world.agent.AgentRep;
@@ -74,10 +78,28 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
     /**
      * The memory of an agent has the form of a key mapped to a memory fragment (represented as String)
      * e.g.  "target" -> "3, 4"
+     * The representations the agent has seen are not kept in this map but in its spatial memory, which can still be
+     * accessed through the same keys.
      */
     private Map<String, String> memory;
+    private final SpatialMemory spatialMemory;
     private static final int MAX_MEMORY_FRAGMENTS = 10;
 
+    /**
+     * Whether the destinations and obstacles this agent discovers are reported to the distance fields shared by the
+     * agents of the environment (only needed if agents find their way to destinations through these fields), and
+     * those fields (looked up when this agent first needs them).
+     */
+    private final boolean reportsToDistanceFields;
+    private DistanceFieldCache distanceFieldCache;
+
+    /**
+     * Whether this agent searches its paths hierarchically, and the abstraction of the cells it has discovered it
+     * does so with (created when this agent first searches a path).
+     */
+    private final boolean searchesHierarchically;
+    private ClusterGraph clusterGraph;
+
     private final Logger logger = Logger.getLogger(AgentImp.class.getName());
 
 
@@ -99,6 +121,9 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
         //synchronize=false;
         this.outgoingMails = new MailBuffer();
         memory = new HashMap<>();
+        spatialMemory = new SpatialMemory();
+        reportsToDistanceFields = EngineSettings.getDeliveryRouting() == EngineSettings.DeliveryRouting.FIELDS;
+        searchesHierarchically = EngineSettings.getPathFindingMode() == EngineSettings.PathFindingMode.HIERARCHICAL;
 
 
         this.committedAction = false;
@@ -498,7 +523,7 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      * Get the coordinates of this agent.
      */
     @Override
-    public Coordinate getCoordinates() { return new Coordinate(this.getX(), this.getY()); }
+    public Coordinate getCoordinates() { return Coordinate.of(this.getX(), this.getY()); }
 
 
     /**
@@ -884,7 +909,11 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
     public void addMemoryFragment(String key, String data) {
         if (key != null && !key.equals("") && data != null
                 && !data.equals("")) { // && getNbMemoryFragments() < getMaxNbMemoryFragments()
-            memory.put(key, data);
+            if (SpatialMemory.isMemoryKey(key)) {
+                spatialMemory.replace(key, Coordinate.string2Coordinates(data));
+            } else {
+                memory.put(key, data);
+            }
         }
     }
 
@@ -901,6 +930,10 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
         if (data == null || data.equals("")){
             return;
         }
+        if (SpatialMemory.isMemoryKey(key)) {
+            spatialMemory.append(key, Coordinate.string2Coordinates(data));
+            return;
+        }
 
         String oldData = this.getMemoryFragment(key);
         if (oldData != null){
@@ -949,26 +982,12 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
         if (cell == null)
             return;
 
-        String key = rep2MemoryKey(cell);
-        if (key == null)
-            return;
-
-        Coordinate cellCoordinates = new Coordinate(cell.getX(), cell.getY());
-        String data;
-        // If a representation with the same key has already been saved in memory
-        if (this.getMemoryFragmentKeys().contains(key)) {
-            data = this.getMemoryFragment(key); // get the string stored at this key
-            // Look through all coordinates stored at this key
-            for (Coordinate coordinate : Coordinate.string2Coordinates(data)) {
-                // If the coordinate we want to add are already present,
-                // we don't need to add it again
-                if (coordinate.equals(cellCoordinates)) {
-                    return;
-                }
-            }
+        if (spatialMemory.memorize(cell) && reportsToDistanceFields) {
+            getDistanceFieldCache().report(cell);
+        }
+        if (clusterGraph != null) {
+            clusterGraph.observe(cell);
         }
-
-        this.append2Memory(key, cellCoordinates.toString());
     }
 
 
@@ -981,7 +1000,6 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
 
         int vw = perception.getWidth();
         int vh = perception.getHeight();
-
         for (int i = 0; i < vw; i++) {
             for (int j = 0; j < vh; j++) {
                 // Look at each cell in the perception area
@@ -1013,9 +1031,8 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
 
                 // If the cell exists and does not contain any packet (anymore)
                 if (cell != null && !cell.containsPacket()) {
-                    Coordinate cellCoordinates = new Coordinate(cell.getX(), cell.getY());
                     // Remove the potential representation of the packet that the agent has in memory
-                    this.removeFromMemory(cellCoordinates, PacketRep.class.toString());
+                    spatialMemory.forget(SpatialMemory.Kind.PACKET, null, cell.getX(), cell.getY());
                 }
             }
         }
@@ -1028,7 +1045,11 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      */
     @Override
     public void removeMemoryFragment(String key) {
-        memory.remove(key);
+        if (SpatialMemory.isMemoryKey(key)) {
+            spatialMemory.remove(key);
+        } else {
+            memory.remove(key);
+        }
     }
 
 
@@ -1052,8 +1073,11 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      */
     @Override
     public void removeFromMemory(Coordinate cellCoordinates, String subkey) {
+        spatialMemory.removeFromMemoryKeysContaining(cellCoordinates, subkey);
         for(String key: this.getMemoryFragmentKeysContaining(subkey)){
-            this.removeCoordinatesFromMemoryByKey(cellCoordinates, key);
+            if (!SpatialMemory.isMemoryKey(key)) {
+                this.removeCoordinatesFromMemoryByKey(cellCoordinates, key);
+            }
         }
     }
 
@@ -1065,24 +1089,24 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      * @param key                The key at which is currently stored the coordinates to remove.
      */
     private void removeCoordinatesFromMemoryByKey(Coordinate cellCoordinates, String key){
-        String newData = "";
+        StringBuilder newData = new StringBuilder();
         // If a representation of the same key has already been saved in memory
-        if (this.getMemoryFragmentKeys().contains(key)) {
+        if (this.containsMemoryFragment(key)) {
             String data = this.getMemoryFragment(key); // Get the string stored at this key
             // Look through all coordinates stored at this key
             for (Coordinate coordinates : Coordinate.string2Coordinates(data)){
                 // We only copy as a string the coordinates that should not be removed
                 if (! coordinates.equals(cellCoordinates)){
-                    newData += coordinates.toString();
+                    newData.append(coordinates);
                 }
             }
             this.removeMemoryFragment(key); // Remove the memory fragment we have to modified
         }
 
         // If there is still some data to save at the given key after removing the given coordinates
-        if (!newData.equals("")) {
+        if (newData.length() > 0) {
             // Save the destination coordinates to memory
-            this.addMemoryFragment(key, newData);
+            this.addMemoryFragment(key, newData.toString());
         }
     }
 
@@ -1093,15 +1117,32 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      */
     @Override
     public String getMemoryFragment(String key) {
+        if (SpatialMemory.isMemoryKey(key)) {
+            return this.spatialMemory.getMemoryFragment(key);
+        }
         return this.memory.get(key);
     }
 
+    /**
+     * Check whether a memory fragment with given key is stored in this agent's memory.
+     * @param key  The key of the memory fragment to look for.
+     */
+    @Override
+    public boolean containsMemoryFragment(String key) {
+        if (this.memory.containsKey(key)) {
+            return true;
+        }
+        return SpatialMemory.isMemoryKey(key) && this.spatialMemory.hasMemoryFragment(key);
+    }
+
     /**
      * Get all the keys of stored memory fragments in this agent's memory.
      */
     @Override
     public Set<String> getMemoryFragmentKeys() {
-        return this.memory.keySet();
+        Set<String> keys = this.spatialMemory.getMemoryKeys();
+        keys.addAll(this.memory.keySet());
+        return keys;
     }
 
     /**
@@ -1147,8 +1188,8 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      * @return          A set of cell perceptions build out from their fragments stored in memory
      */
     public Set<CellPerception> memoryKey2Cells(String key){
-        String memoryFragment = this.getMemoryFragment(key);
-        List<Coordinate> coordinatesList = Coordinate.string2Coordinates(memoryFragment);
+        List<Coordinate> coordinatesList = SpatialMemory.isMemoryKey(key) ? this.spatialMemory.recall(key)
+            : Coordinate.string2Coordinates(this.getMemoryFragment(key));
 
         String[] representationAndColor = AgentState.memoryKey2Rep(key);
         String representation = representationAndColor[0];
@@ -1180,7 +1221,7 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
      */
     @Override
     public int getNbMemoryFragments() {
-        return this.memory.size();
+        return this.memory.size() + this.spatialMemory.getNbMemoryKeys();
     }
 
     /**
@@ -1191,6 +1232,65 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
         return AgentImp.MAX_MEMORY_FRAGMENTS;
     }
 
+    /**
+     * Get the coordinates at which this agent has memorized a representation of the given kind and color, the most
+     * recently memorized first.
+     */
+    @Override
+    public List<Coordinate> getMemorizedCoordinates(SpatialMemory.Kind kind, @Nullable Color color) {
+        return this.spatialMemory.recall(kind, color == null ? null : MyColor.getName(color));
+    }
+
+    /**
+     * Check whether this agent has memorized a representation of the given kind and color.
+     */
+    @Override
+    public boolean hasMemorized(SpatialMemory.Kind kind, @Nullable Color color) {
+        return this.spatialMemory.knows(kind, color == null ? null : MyColor.getName(color));
+    }
+
+    /**
+     * Forget the representation of the given kind (of any color) at the given coordinates, if memorized.
+     */
+    @Override
+    public void forget(SpatialMemory.Kind kind, Coordinate cellCoordinates) {
+        this.spatialMemory.forget(kind, null, cellCoordinates.getX(), cellCoordinates.getY());
+    }
+
+    /**
+     * Get the distances to the nearest destination of the given color, as far as the agents of the environment have
+     * discovered them.
+     */
+    @Override
+    @Nullable
+    public DistanceFieldCache.DistanceField getDistanceField(Color color) {
+        return getDistanceFieldCache().getField(MyColor.getName(color));
+    }
+
+    private DistanceFieldCache getDistanceFieldCache() {
+        if (distanceFieldCache == null) {
+            distanceFieldCache = DistanceFieldCache.of(getEnvironment());
+        }
+        return distanceFieldCache;
+    }
+
+    /**
+     * Get the abstraction of the cells this agent has discovered for hierarchical path finding. The first time, the
+     * graph is created from the cells this agent has memorized up to then.
+     */
+    @Override
+    @Nullable
+    public ClusterGraph getClusterGraph() {
+        if (searchesHierarchically && clusterGraph == null) {
+            clusterGraph = new ClusterGraph(getEnvironment().getWidth(), getEnvironment().getHeight(),
+                EngineSettings.getClusterSize(), false);
+            for (CellPerception cell : memory2Cells()) {
+                clusterGraph.observe(cell);
+            }
+        }
+        return clusterGraph;
+    }
+
 
 
 
@@ -1249,6 +1349,8 @@ abstract public class AgentImp extends ActiveImp implements AgentState, AgentCom
         super.finish();
         memory.clear();
         memory = null;
+        spatialMemory.clear();
+        clusterGraph = null;
     }
 
 
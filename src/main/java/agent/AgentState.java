@@ -1,11 +1,16 @@
 package agent;
 
 import java.awt.Color;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import javax.annotation.Nullable;
 
 import agent.behavior.Behavior;
 import agent.behavior.BehaviorState;
+import agent.utils.DistanceFieldCache;
+import agent.utils.ClusterGraph;
+import agent.utils.SpatialMemory;
 import environment.CellPerception;
 import environment.Coordinate;
 import environment.Perception;
@@ -276,6 +281,13 @@ public interface AgentState {
      */
     String getMemoryFragment(String key);
 
+    /**
+     * Check whether a memory fragment with given key is stored in this agent's memory. This is what
+     * {@code getMemoryFragmentKeys().contains(key)} tells, without collecting the keys.
+     * @param key  The key of the memory fragment to look for.
+     */
+    boolean containsMemoryFragment(String key);
+
     /**
      * Get all the keys of stored memory fragments in this agent's memory.
      */
@@ -318,6 +330,54 @@ public interface AgentState {
      */
     int getMaxNbMemoryFragments();
 
+    /**
+     * Get the coordinates at which this agent has memorized a representation of the given kind and color, the most
+     * recently memorized first.
+     *
+     * @param kind      The kind of representations.
+     * @param color     The color of the representations, or null for representations of any color.
+     *
+     * @return          The coordinates of the memorized representations.
+     */
+    List<Coordinate> getMemorizedCoordinates(SpatialMemory.Kind kind, @Nullable Color color);
+
+    /**
+     * Check whether this agent has memorized a representation of the given kind and color.
+     *
+     * @param kind      The kind of representations.
+     * @param color     The color of the representations, or null for representations of any color.
+     */
+    boolean hasMemorized(SpatialMemory.Kind kind, @Nullable Color color);
+
+    /**
+     * Forget the representation of the given kind (of any color) at the given coordinates, if memorized.
+     *
+     * @param kind              The kind of representation.
+     * @param cellCoordinates   The coordinates of the representation to forget.
+     */
+    void forget(SpatialMemory.Kind kind, Coordinate cellCoordinates);
+
+    /**
+     * Get the distances to the nearest destination of the given color, as far as the agents of the environment have
+     * discovered the destinations and the obstacles around them (cfr. {@link DistanceFieldCache}).
+     *
+     * @param color     The color of the destinations.
+     *
+     * @return          The distance field, or null if no destination of the given color has been discovered.
+     */
+    @Nullable
+    DistanceFieldCache.DistanceField getDistanceField(Color color);
+
+    /**
+     * Get the abstraction of the cells this agent has discovered for hierarchical path finding, which is updated with
+     * every cell this agent memorizes (cfr. {@link #addRep2Memory(CellPerception)}) once it has been asked for.
+     *
+     * @return          The graph, or null if agents do not search their paths hierarchically
+     *                  (cfr. the engine settings).
+     */
+    @Nullable
+    ClusterGraph getClusterGraph();
+
 
 
     /**
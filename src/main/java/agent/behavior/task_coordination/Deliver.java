@@ -4,14 +4,15 @@ import agent.AgentAction;
 import agent.AgentCommunication;
 import agent.AgentState;
 import agent.behavior.Behavior;
+import agent.utils.DistanceFieldCache;
 import agent.utils.MovementManager;
 import agent.utils.PathFinder;
+import agent.utils.SpatialMemory;
 import agent.utils.VirtualEnvironment;
 import environment.CellPerception;
 import environment.Coordinate;
-import environment.world.destination.DestinationRep;
+import environment.EngineSettings;
 import environment.world.packet.Packet;
-import util.MyColor;
 
 import java.awt.*;
 import java.util.HashSet;
@@ -83,24 +84,35 @@ public class Deliver extends Behavior {
         ///////////// Criterion 2: Let's follow the closest path to a destination that matches /////////////
         ///////////// the packet color.                                                        /////////////
 
+        // If the agents share distance fields to the destinations, step down the field of the packet color
+        if (EngineSettings.getDeliveryRouting() == EngineSettings.DeliveryRouting.FIELDS) {
+            DistanceFieldCache.DistanceField field = agentState.getDistanceField(packetColor);
+            Coordinate nextCoordinates = field == null ? null
+                    : field.getNextStep(agentState.getX(), agentState.getY(), new MovementManager());
+            if (nextCoordinates != null) {
+                // Sort the moves to best match the direction to the next cell. If that cell is taken by another
+                // agent, the agent goes around it.
+                movementManager.sort(nextCoordinates.diff(agentState.getCoordinates()));
+                moveOrSkip(agentState, agentAction, movementManager);
+                return;
+            }
+        }
+
         // Run A* to find an optimal path to the closest destination of the right color if no path has been computed yet
-        if (!agentState.getMemoryFragmentKeys().contains("ShortestPath2Destination")){
+        if (!agentState.containsMemoryFragment("ShortestPath2Destination")){
             // Convert all stored cell information to a list of cells
             Set<CellPerception> cells = agentState.memory2Cells();
             // Create a fictive environment with these cells and the object that manages moves
             VirtualEnvironment virtualEnvironment = new VirtualEnvironment(cells, movementManager);
             // Create a PathFinder object that can search the shortest paths to specific destinations in the fictive
             // environment
-            PathFinder pathFinder = new PathFinder(virtualEnvironment);
+            PathFinder pathFinder = new PathFinder(virtualEnvironment, agentState.getClusterGraph());
 
             // Current cell the agent stands on
             CellPerception agentCell = agentState.getPerception().getCellPerceptionOnRelPos(0, 0);
             // Find the potential destinations stored in memory where the packet could be delivered
-            String rep = DestinationRep.class.toString();
-            String color = MyColor.getName(packet.getColor());
-            String memoryKey = AgentState.rep2MemoryKey(rep, color);
-            String memoryFragment = agentState.getMemoryFragment(memoryKey);
-            List<Coordinate> coordinatesList = Coordinate.string2Coordinates(memoryFragment);
+            List<Coordinate> coordinatesList =
+                    agentState.getMemorizedCoordinates(SpatialMemory.Kind.DESTINATION, packet.getColor());
             // Get the fictive cells from the fictive environment of the destination we know
             Set<CellPerception[]> destinationCells = new HashSet<>();
             for(Coordinate destinationCoordinates: coordinatesList){
@@ -117,7 +129,7 @@ public class Deliver extends Behavior {
 
 
         // If now a path to the closest destination exists in memory
-        if(agentState.getMemoryFragmentKeys().contains("ShortestPath2Destination")) {
+        if(agentState.containsMemoryFragment("ShortestPath2Destination")) {
             ///////////// Sort the moves by following the closest destination path /////////////
 
             // Retrieve the current path the agent has to follow to get to his destination
@@ -138,7 +150,15 @@ public class Deliver extends Behavior {
 
 
         ///////////// Let's move the agent /////////////
+        moveOrSkip(agentState, agentAction, movementManager);
+    }
+
 
+    /**
+     * Step to the first cell the agent can walk to, trying the moves in the order they were sorted, or skip the turn
+     * if there is none.
+     */
+    private void moveOrSkip(AgentState agentState, AgentAction agentAction, MovementManager movementManager) {
         // Retrieve the available moves in the order they were sorted
         List<Coordinate> moves = movementManager.getMoves();
 
@@ -6,13 +6,11 @@ import agent.AgentState;
 import agent.behavior.Behavior;
 import agent.utils.MovementManager;
 import agent.utils.PathFinder;
+import agent.utils.SpatialMemory;
 import agent.utils.VirtualEnvironment;
 import environment.CellPerception;
 import environment.Coordinate;
-import environment.world.destination.DestinationRep;
 import environment.world.packet.Packet;
-import environment.world.packet.PacketRep;
-import util.MyColor;
 
 import java.awt.*;
 import java.util.List;
@@ -42,7 +40,7 @@ public class Gather extends Behavior {
         ///////////// from the gathering place                                                   /////////////
 
         // if the agent knows a path to a gathering place
-        if(agentState.getMemoryFragmentKeys().contains("ShortestPath2Gather")) {
+        if(agentState.containsMemoryFragment("ShortestPath2Gather")) {
             List<Coordinate> path2Gather = Coordinate.string2Coordinates(agentState.getMemoryFragment("ShortestPath2Gather"));
             Coordinate gatheringCoordinates = path2Gather.get(path2Gather.size() - 1);
             Coordinate agentCoordinates = agentState.getCoordinates();
@@ -102,23 +100,22 @@ public class Gather extends Behavior {
 
         // If a path to the closest packet does not exist in memory
         // Run A* to find an optimal path to the closest destination of the right color if no path has been computed yet
-        if (!agentState.getMemoryFragmentKeys().contains("ShortestPath2Gather")){
+        if (!agentState.containsMemoryFragment("ShortestPath2Gather")){
             // Convert all stored cell information to a list of cells
             Set<CellPerception> cells = agentState.memory2Cells();
             // Create a fictive environment with these cells and the object that manages moves
             VirtualEnvironment virtualEnvironment = new VirtualEnvironment(cells, movementManager);
             // Create a PathFinder object that can search the shortest paths to specific destinations in the fictive
             // environment
-            PathFinder pathFinder = new PathFinder(virtualEnvironment);
+            PathFinder pathFinder = new PathFinder(virtualEnvironment, agentState.getClusterGraph());
 
             // Current cell the agent stands on
             CellPerception agentCell = agentState.getPerception().getCellPerceptionOnRelPos(0, 0);
 
-            // Retrieve the memory key where packets of the same color as the agent are stored
-            String key = AgentState.rep2MemoryKey(PacketRep.class.toString(), MyColor.getName(agentState.getColor().orElse(Color.BLACK)));
-            String memoryFragment = agentState.getMemoryFragment(key);
-            if (memoryFragment != null) {
-                List<Coordinate> packetCoordinatesList = Coordinate.string2Coordinates(memoryFragment);
+            // Retrieve the locations where packets of the same color as the agent are stored
+            List<Coordinate> packetCoordinatesList = agentState.getMemorizedCoordinates(SpatialMemory.Kind.PACKET,
+                    agentState.getColor().orElse(Color.BLACK));
+            if (!packetCoordinatesList.isEmpty()) {
 
                 // The gathering coordinates correspond to the average position of all known packets of the same colors
                 Coordinate gatheringCoordinates = new Coordinate(0, 0);
@@ -142,7 +139,7 @@ public class Gather extends Behavior {
         }
 
         // If still no path to a gathering place exists
-        if (!agentState.getMemoryFragmentKeys().contains("ShortestPath2Gather")){
+        if (!agentState.containsMemoryFragment("ShortestPath2Gather")){
             // Let's put down the packet anywhere at random
             Coordinate agentCoordinates = agentState.getCoordinates();
             MovementManager movementManager2 = new MovementManager();
@@ -159,7 +156,7 @@ public class Gather extends Behavior {
         }
 
         // If now a path to the gathering place exists in memory
-        if (agentState.getMemoryFragmentKeys().contains("ShortestPath2Gather")){
+        if (agentState.containsMemoryFragment("ShortestPath2Gather")){
             ///////////// Sort the moves by following the shortest path to the gathering place /////////////
 
             // Retrieve the current path the agent has to follow to get to the gathering place
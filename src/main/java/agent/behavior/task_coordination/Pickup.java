@@ -55,13 +55,13 @@ public class Pickup extends Behavior {
                 String destinationKey = AgentState.rep2MemoryKey(DestinationRep.class.toString(), packetColorName);
 
                 // If the agent knows a destination that can accept the current packet (i.e. same color)
-                if (agentState.getMemoryFragmentKeys().contains(destinationKey)) {
+                if (agentState.containsMemoryFragment(destinationKey)) {
                     // if the agent knows a path to a destination or gathering place for a packet
-                    if (agentState.getMemoryFragmentKeys().contains("ShortestPath2Destination")
-                            || agentState.getMemoryFragmentKeys().contains("ShortestPath2Gather")) {
+                    if (agentState.containsMemoryFragment("ShortestPath2Destination")
+                            || agentState.containsMemoryFragment("ShortestPath2Gather")) {
                         boolean canPickup = true;
                         // if the agent knows a path to a gathering place (rather than a destination) for a packet
-                        if (agentState.getMemoryFragmentKeys().contains("ShortestPath2Gather")) {
+                        if (agentState.containsMemoryFragment("ShortestPath2Gather")) {
                             // we check if the packet is already close enough to the gathering place, in which case the
                             // agent does not need to transport it closer
                             List<Coordinate> shortestPath2Gather = Coordinate.string2Coordinates(agentState.getMemoryFragment("ShortestPath2Gather"));
@@ -120,7 +120,7 @@ public class Pickup extends Behavior {
 
         // Run A* to find one of the shortest paths to the closest packet of which a destination is known if no path has
         // been computed yet.
-        if (!agentState.getMemoryFragmentKeys().contains("ShortestPath2Packet")){
+        if (!agentState.containsMemoryFragment("ShortestPath2Packet")){
             ///////////// Criterion 2: Let's target the closest packet that the agent has memorized /////////////
             ///////////// and its known destination (there may be more than one)                    /////////////
             ///////////// Find the shortest path to the get to one of the known packets and then    /////////////
@@ -143,7 +143,7 @@ public class Pickup extends Behavior {
                 String packetColor = AgentState.memoryKey2Rep(packetKey)[1];
                 String destinationKey = AgentState.rep2MemoryKey(DestinationRep.class.toString(), packetColor);
                 // If the agent knows a destination that can accept the current packet (i.e. same color)
-                if (agentState.getMemoryFragmentKeys().contains(destinationKey)) {
+                if (agentState.containsMemoryFragment(destinationKey)) {
                     // we will only keep the coordinates of the packets whose destination is known by the agent
                     String memoryFragment = agentState.getMemoryFragment(packetKey);
                     List<Coordinate> coordinatesList = Coordinate.string2Coordinates(memoryFragment);
@@ -176,7 +176,7 @@ public class Pickup extends Behavior {
             VirtualEnvironment virtualEnvironment = new VirtualEnvironment(cells, new MovementManager());// movementManager);
             // Create a PathFinder object that can search the shortest paths linking specified ordered destinations
             // in the fictive environment
-            PathFinder pathFinder = new PathFinder(virtualEnvironment);
+            PathFinder pathFinder = new PathFinder(virtualEnvironment, agentState.getClusterGraph());
 
             // Current cell the agent stands on
             CellPerception agentCell = agentState.getPerception().getCellPerceptionOnRelPos(0, 0);
@@ -221,7 +221,7 @@ public class Pickup extends Behavior {
 
 
         // if the agent still does not have a path to follow to a packet
-        if (!agentState.getMemoryFragmentKeys().contains("ShortestPath2Packet")){
+        if (!agentState.containsMemoryFragment("ShortestPath2Packet")){
 
             ///////////// Criterion 3: Let's target the closest packet that the agent has memorized /////////////
             ///////////// Find the shortest path at the same time to get to one of the known        /////////////
@@ -242,7 +242,7 @@ public class Pickup extends Behavior {
                 String packetColor = AgentState.memoryKey2Rep(packetKey)[1];
                 String destinationKey = AgentState.rep2MemoryKey(DestinationRep.class.toString(), packetColor);
                 // If the agent knows a destination that can accept the current packet (i.e. same color)
-                if (agentState.getMemoryFragmentKeys().contains(destinationKey)) {
+                if (agentState.containsMemoryFragment(destinationKey)) {
                     String memoryFragment = agentState.getMemoryFragment(packetKey);
                     List<Coordinate> newPacketCoordinatesList = Coordinate.string2Coordinates(memoryFragment);
                     packetCoordinatesList = Stream.concat(packetCoordinatesList.stream(), newPacketCoordinatesList.stream())
@@ -258,7 +258,7 @@ public class Pickup extends Behavior {
             VirtualEnvironment virtualEnvironment = new VirtualEnvironment(cells, new MovementManager());//movementManager);
             // Create a PathFinder object that can search the shortest paths linking specified ordered destinations
             // in the fictive environment
-            PathFinder pathFinder = new PathFinder(virtualEnvironment);
+            PathFinder pathFinder = new PathFinder(virtualEnvironment, agentState.getClusterGraph());
 
             // Current cell the agent stands on
             CellPerception agentCell = agentState.getPerception().getCellPerceptionOnRelPos(0, 0);
@@ -306,7 +306,7 @@ public class Pickup extends Behavior {
         }
 
         // If now a path to the closest packet exists in memory
-        if (agentState.getMemoryFragmentKeys().contains("ShortestPath2Packet")){
+        if (agentState.containsMemoryFragment("ShortestPath2Packet")){
             ///////////// Sort the moves by following the closest packet path /////////////
 
             // Retrieve the current path the agent has to follow to get to the closest packet
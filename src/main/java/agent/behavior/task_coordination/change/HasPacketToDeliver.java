@@ -10,7 +10,7 @@ public class HasPacketToDeliver extends BehaviorChange {
     public void updateChange() {
         AgentState agentState = this.getAgentState();
         this.hasPacketToDeliver = agentState.hasCarry()
-                && agentState.getMemoryFragmentKeys().contains("ShortestPath2Destination");
+                && agentState.containsMemoryFragment("ShortestPath2Destination");
     }
 
     @Override
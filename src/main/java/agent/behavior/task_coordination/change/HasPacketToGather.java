@@ -10,7 +10,7 @@ public class HasPacketToGather extends BehaviorChange {
     public void updateChange() {
         AgentState agentState = this.getAgentState();
         this.hasPacketToGather = agentState.hasCarry()
-                && agentState.getMemoryFragmentKeys().contains("ShortestPath2Gather");
+                && agentState.containsMemoryFragment("ShortestPath2Gather");
     }
 
     @Override
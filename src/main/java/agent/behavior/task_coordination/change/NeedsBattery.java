@@ -8,7 +8,6 @@ import environment.EnergyValues;
 import environment.world.gradient.GradientRep;
 
 import java.util.Random;
-import java.util.Set;
 
 public class NeedsBattery extends BehaviorChange {
     private boolean needsBattery = false;
@@ -20,8 +19,8 @@ public class NeedsBattery extends BehaviorChange {
         CellPerception agentCell = agentState.getPerception().getCellPerceptionOnRelPos(0, 0);
         GradientRep gradientRep = agentCell.getGradientRepresentation().orElse(null);
         if (gradientRep != null) {
-            Set<String> memoryKeys = agentState.getMemoryFragmentKeys();
-            if (memoryKeys.contains("ShortestPath2Packet") && memoryKeys.contains("ShortestPath2Destination")) {
+            if (agentState.containsMemoryFragment("ShortestPath2Packet")
+                    && agentState.containsMemoryFragment("ShortestPath2Destination")) {
                 int length_path_2_packet = Coordinate.string2Coordinates(agentState.getMemoryFragment("ShortestPath2Packet")).size();
                 int length_path_2_destination = Coordinate.string2Coordinates(agentState.getMemoryFragment("ShortestPath2Destination")).size();
                 this.needsBattery = agentState.getBatteryState() <= EnergyValues.BATTERY_SAFE_MIN
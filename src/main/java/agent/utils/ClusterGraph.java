@@ -0,0 +1,506 @@
+package agent.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import environment.CellPerception;
+import environment.Coordinate;
+
+/**
+ * An abstraction of a grid of walkable and blocked cells for hierarchical path finding (HPA*), so that a search over
+ * a long distance does not have to expand every cell on the way.
+ *
+ * The grid is divided in square clusters. Where two clusters side by side both have walkable cells along their
+ * common border, the border is crossed at an entrance: one in the middle of every stretch of such cells, or one at
+ * each end of a long stretch. The entrances of a cluster are the nodes of an abstract graph, connected to the
+ * entrances of the same cluster by the length of the shortest path between them within the cluster, and to the
+ * entrance they face on the other side of a border by a single move. A query searches this small graph from the
+ * entrances around its start to the entrances around its goal, and returns the clusters the abstract path goes
+ * through, within which the actual path can then be searched (cfr. {@link PathFinder}).
+ *
+ * Cells can change at any time (cfr. {@link #setWalkable(int, int, boolean)}): the clusters they are in are only
+ * marked, and brought up to date at the next query. A change to a cell on the border of a cluster also changes the
+ * entrances of the clusters on the other side of that border.
+ */
+public class ClusterGraph {
+
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    /**
+     * The length from which a stretch of open border gets an entrance at both ends rather than one in the middle.
+     */
+    private static final int LONG_ENTRANCE = 6;
+
+    private final int width;
+    private final int height;
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clustersY;
+    private final BitSet walkable;
+    private final int[] moveX;
+    private final int[] moveY;
+
+    // The clusters of which a cell changed since their distances were computed, and of which a cell on their border
+    // changed since their entrances were
+    private final boolean[] changedCells;
+    private final boolean[] changedBorders;
+    private final List<Integer> changedClusters;
+
+    // For every cluster, the pairs of cells by which its east and south borders are crossed: a cell of the cluster
+    // followed by the cell on the other side
+    private final int[][] eastCrossings;
+    private final int[][] southCrossings;
+
+    // For every cluster, its entrances, the cells on the other side of a border every entrance leads to, and the
+    // distances between the entrances within the cluster (row by row)
+    private final int[][] entrances;
+    private final int[][][] partners;
+    private final int[][] distances;
+
+    // Scratch space of the searches within a cluster
+    private final int[] localDistances;
+    private final int[] queue;
+
+
+    /**
+     * Initialize a new graph for a grid of the given dimensions.
+     *
+     * @param clusterSize       The number of cells along the side of a cluster.
+     * @param walkableByDefault Whether the cells are walkable until they are set otherwise.
+     */
+    public ClusterGraph(int width, int height, int clusterSize, boolean walkableByDefault) {
+        this.width = width;
+        this.height = height;
+        this.clusterSize = Math.max(2, clusterSize);
+        this.clustersX = (width + this.clusterSize - 1) / this.clusterSize;
+        this.clustersY = (height + this.clusterSize - 1) / this.clusterSize;
+        this.walkable = new BitSet(width * height);
+        walkable.set(0, width * height, walkableByDefault);
+        var moves = new MovementManager().getMoves();
+        this.moveX = moves.stream().mapToInt(Coordinate::getX).toArray();
+        this.moveY = moves.stream().mapToInt(Coordinate::getY).toArray();
+
+        int nbClusters = clustersX * clustersY;
+        this.changedCells = new boolean[nbClusters];
+        this.changedBorders = new boolean[nbClusters];
+        this.changedClusters = new ArrayList<>();
+        this.eastCrossings = new int[nbClusters][0];
+        this.southCrossings = new int[nbClusters][0];
+        this.entrances = new int[nbClusters][0];
+        this.partners = new int[nbClusters][0][];
+        this.distances = new int[nbClusters][0];
+        this.localDistances = new int[this.clusterSize * this.clusterSize];
+        this.queue = new int[this.clusterSize * this.clusterSize];
+        for (int cluster = 0; cluster < nbClusters; cluster++) {
+            markChanged(cluster, true);
+        }
+    }
+
+
+    /**
+     * Update the given cell as perceived or remembered by an agent: it is walkable unless it holds a wall or a
+     * destination. Packets are left out, as they are moved around all the time; a search refining a path through
+     * the clusters of this graph takes them into account.
+     */
+    public void observe(CellPerception cell) {
+        setWalkable(cell.getX(), cell.getY(), !cell.containsWall() && !cell.containsAnyDestination());
+    }
+
+    /**
+     * Set whether the given cell is walkable.
+     */
+    public synchronized void setWalkable(int x, int y, boolean isWalkable) {
+        if (!isInside(x, y) || walkable.get(indexOf(x, y)) == isWalkable) {
+            return;
+        }
+        walkable.set(indexOf(x, y), isWalkable);
+        int localX = x % clusterSize;
+        int localY = y % clusterSize;
+        boolean onBorder = localX == 0 || localY == 0 || localX == clusterSize - 1 || localY == clusterSize - 1;
+        markChanged(clusterOf(x, y), onBorder);
+    }
+
+    /**
+     * Check whether the given cell is walkable.
+     */
+    public synchronized boolean isWalkable(int x, int y) {
+        return isInside(x, y) && walkable.get(indexOf(x, y));
+    }
+
+    /**
+     * Return the number of cells along the side of a cluster.
+     */
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Return the number of clusters of this graph.
+     */
+    public int getNbClusters() {
+        return clustersX * clustersY;
+    }
+
+    /**
+     * Return the cluster the given cell is in, or -1 if the cell is outside the grid.
+     */
+    public int clusterOf(int x, int y) {
+        return isInside(x, y) ? (x / clusterSize) * clustersY + y / clusterSize : -1;
+    }
+
+    /**
+     * Return the number of entrances of all clusters together.
+     */
+    public synchronized int getNbEntrances() {
+        refresh();
+        return Arrays.stream(entrances).mapToInt(cellsOf -> cellsOf.length).sum();
+    }
+
+    /**
+     * Search the abstract graph for a path from one cell to another, and return the clusters it goes through.
+     * The cell the path goes to does not have to be walkable itself (e.g. a destination): it only has to be next to
+     * a walkable cell.
+     *
+     * @return The clusters of the abstract path, including those of both cells, or null if no path was found.
+     */
+    @Nullable
+    public synchronized int[] getCorridor(int fromX, int fromY, int toX, int toY) {
+        if (!isInside(fromX, fromY) || !isInside(toX, toY)) {
+            return null;
+        }
+        refresh();
+        int startCluster = clusterOf(fromX, fromY);
+        int goalCluster = clusterOf(toX, toY);
+        int[] startCosts = costsToEntrances(startCluster, indexOf(fromX, fromY));
+        int[] goalCosts = costsToEntrances(goalCluster, indexOf(toX, toY));
+        // The search from the goal leaves its distance to every cell of its cluster in the scratch space
+        int direct = startCluster == goalCluster ? localDistances[localIndexOf(indexOf(fromX, fromY))] : INFINITY;
+        AbstractSearch search = new AbstractSearch(toX, toY, goalCluster, goalCosts);
+        return search.run(startCluster, startCosts, direct);
+    }
+
+
+    private void markChanged(int cluster, boolean border) {
+        if (!changedCells[cluster]) {
+            changedCells[cluster] = true;
+            changedClusters.add(cluster);
+        }
+        changedBorders[cluster] |= border;
+    }
+
+    /**
+     * Bring the crossings, entrances and distances of the changed clusters up to date.
+     */
+    private void refresh() {
+        int nbChanged = changedClusters.size();
+        for (int i = 0; i < nbChanged; i++) {
+            int cluster = changedClusters.get(i);
+            if (!changedBorders[cluster]) {
+                continue;
+            }
+            int clusterX = cluster / clustersY, clusterY = cluster % clustersY;
+            eastCrossings[cluster] = crossings(clusterX, clusterY, true);
+            southCrossings[cluster] = crossings(clusterX, clusterY, false);
+            if (clusterX > 0) {
+                eastCrossings[cluster - clustersY] = crossings(clusterX - 1, clusterY, true);
+            }
+            if (clusterY > 0) {
+                southCrossings[cluster - 1] = crossings(clusterX, clusterY - 1, false);
+            }
+            // The entrances of the clusters around change with the crossings of their common borders
+            markNeighbour(clusterX - 1, clusterY);
+            markNeighbour(clusterX + 1, clusterY);
+            markNeighbour(clusterX, clusterY - 1);
+            markNeighbour(clusterX, clusterY + 1);
+        }
+        for (int cluster : changedClusters) {
+            computeEntrances(cluster);
+            computeDistances(cluster);
+            changedCells[cluster] = false;
+            changedBorders[cluster] = false;
+        }
+        changedClusters.clear();
+    }
+
+    private void markNeighbour(int clusterX, int clusterY) {
+        if (clusterX >= 0 && clusterY >= 0 && clusterX < clustersX && clusterY < clustersY) {
+            markChanged(clusterX * clustersY + clusterY, false);
+        }
+    }
+
+    /**
+     * Return the crossings of the east or south border of the given cluster: for every stretch of the border along
+     * which the cells on both sides are walkable, the pair of cells in its middle, or the pairs at both its ends if it
+     * is long.
+     */
+    private int[] crossings(int clusterX, int clusterY, boolean east) {
+        int insideX = east ? (clusterX + 1) * clusterSize - 1 : clusterX * clusterSize;
+        int insideY = east ? clusterY * clusterSize : (clusterY + 1) * clusterSize - 1;
+        int length = east ? Math.min(clusterSize, height - insideY) : Math.min(clusterSize, width - insideX);
+        int stepX = east ? 0 : 1, stepY = east ? 1 : 0;
+        int acrossX = east ? 1 : 0, acrossY = east ? 0 : 1;
+        if (!isInside(insideX + acrossX, insideY + acrossY)) {
+            return new int[0];
+        }
+
+        int[] result = new int[0];
+        int stretchStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int x = insideX + i * stepX, y = insideY + i * stepY;
+            boolean open = i < length && walkable.get(indexOf(x, y)) && walkable.get(indexOf(x + acrossX, y + acrossY));
+            if (open && stretchStart < 0) {
+                stretchStart = i;
+            } else if (!open && stretchStart >= 0) {
+                int stretchEnd = i - 1;
+                int[] ends = stretchEnd - stretchStart + 1 < LONG_ENTRANCE
+                    ? new int[] {(stretchStart + stretchEnd) / 2} : new int[] {stretchStart, stretchEnd};
+                for (int end : ends) {
+                    int cellX = insideX + end * stepX, cellY = insideY + end * stepY;
+                    result = Arrays.copyOf(result, result.length + 2);
+                    result[result.length - 2] = indexOf(cellX, cellY);
+                    result[result.length - 1] = indexOf(cellX + acrossX, cellY + acrossY);
+                }
+                stretchStart = -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collect the entrances of the given cluster from the crossings of its four borders.
+     */
+    private void computeEntrances(int cluster) {
+        int clusterX = cluster / clustersY, clusterY = cluster % clustersY;
+        List<Integer> cells = new ArrayList<>();
+        List<List<Integer>> across = new ArrayList<>();
+        addCrossings(cells, across, eastCrossings[cluster], 0);
+        addCrossings(cells, across, southCrossings[cluster], 0);
+        if (clusterX > 0) {
+            addCrossings(cells, across, eastCrossings[cluster - clustersY], 1);
+        }
+        if (clusterY > 0) {
+            addCrossings(cells, across, southCrossings[cluster - 1], 1);
+        }
+        entrances[cluster] = cells.stream().mapToInt(Integer::intValue).toArray();
+        partners[cluster] = across.stream().map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+            .toArray(int[][]::new);
+    }
+
+    /**
+     * Add the cells of the given crossings on the given side (0 for the first cell of every pair, 1 for the second)
+     * as entrances, leading to the cell on the other side.
+     */
+    private void addCrossings(List<Integer> cells, List<List<Integer>> across, int[] crossings, int side) {
+        for (int i = 0; i < crossings.length; i += 2) {
+            int cell = crossings[i + side];
+            int position = cells.indexOf(cell);
+            if (position < 0) {
+                cells.add(cell);
+                across.add(new ArrayList<>());
+                position = cells.size() - 1;
+            }
+            across.get(position).add(crossings[i + 1 - side]);
+        }
+    }
+
+    /**
+     * Compute the distances between the entrances of the given cluster, moving within the cluster only.
+     */
+    private void computeDistances(int cluster) {
+        int[] cells = entrances[cluster];
+        int[] result = new int[cells.length * cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            int[] costs = costsToEntrances(cluster, cells[i]);
+            System.arraycopy(costs, 0, result, i * cells.length, cells.length);
+        }
+        distances[cluster] = result;
+    }
+
+    /**
+     * Search breadth first from the given cell through the walkable cells of the given cluster, and return the
+     * distances to its entrances. The given cell itself is left even if it is not walkable.
+     * The distances to all cells of the cluster are left in the scratch space.
+     */
+    private int[] costsToEntrances(int cluster, int source) {
+        int originX = (cluster / clustersY) * clusterSize;
+        int originY = (cluster % clustersY) * clusterSize;
+        int endX = Math.min(width, originX + clusterSize);
+        int endY = Math.min(height, originY + clusterSize);
+
+        Arrays.fill(localDistances, INFINITY);
+        localDistances[localIndexOf(source)] = 0;
+        queue[0] = source;
+        int head = 0, tail = 1;
+        while (head < tail) {
+            int cell = queue[head++];
+            int distance = localDistances[localIndexOf(cell)] + 1;
+            int x = cell / height, y = cell % height;
+            for (int m = 0; m < moveX.length; m++) {
+                int nextX = x + moveX[m], nextY = y + moveY[m];
+                if (nextX < originX || nextY < originY || nextX >= endX || nextY >= endY) {
+                    continue;
+                }
+                int next = indexOf(nextX, nextY);
+                if (walkable.get(next) && localDistances[localIndexOf(next)] == INFINITY) {
+                    localDistances[localIndexOf(next)] = distance;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        int[] cells = entrances[cluster];
+        int[] result = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            result[i] = localDistances[localIndexOf(cells[i])];
+        }
+        return result;
+    }
+
+    /**
+     * Return the position of the given entrance among the entrances of the given cluster. A cluster has only a few
+     * entrances, so they are not worth an index over all cells.
+     */
+    private int positionOf(int cluster, int entrance) {
+        int[] cells = entrances[cluster];
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == entrance) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int localIndexOf(int cell) {
+        return (cell / height % clusterSize) * clusterSize + cell % height % clusterSize;
+    }
+
+    private boolean isInside(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    private int indexOf(int x, int y) {
+        return x * height + y;
+    }
+
+
+    /**
+     * An A* search over the entrances of the clusters towards one goal cell. Node 0 is the goal itself; the other
+     * nodes are entrances, which are given an id when they are first reached.
+     */
+    private class AbstractSearch {
+
+        private static final int GOAL = 0;
+
+        private final int goalX;
+        private final int goalY;
+        private final int goalCluster;
+        private final int[] goalCosts;
+        private final IndexedHeap open = new IndexedHeap();
+        private final NodeIndex index = new NodeIndex();
+
+        private int[] cellOf = new int[64];
+        private int[] cost = new int[64];
+        private int[] parent = new int[64];
+        private boolean[] closed = new boolean[64];
+        private int nbNodes = 0;
+
+        AbstractSearch(int goalX, int goalY, int goalCluster, int[] goalCosts) {
+            this.goalX = goalX;
+            this.goalY = goalY;
+            this.goalCluster = goalCluster;
+            this.goalCosts = goalCosts;
+            addNode(-1);
+        }
+
+        @Nullable
+        int[] run(int startCluster, int[] startCosts, int direct) {
+            if (direct != INFINITY) {
+                relax(-1, GOAL, direct);
+            }
+            for (int i = 0; i < startCosts.length; i++) {
+                if (startCosts[i] != INFINITY) {
+                    relax(-1, nodeOf(entrances[startCluster][i]), startCosts[i]);
+                }
+            }
+
+            while (!open.isEmpty()) {
+                int node = open.poll();
+                if (node == GOAL) {
+                    return corridor(startCluster);
+                }
+                closed[node] = true;
+
+                int cell = cellOf[node];
+                int cluster = clusterOf(cell / height, cell % height);
+                int[] cells = entrances[cluster];
+                int position = positionOf(cluster, cell);
+                for (int j = 0; j < cells.length; j++) {
+                    int distance = distances[cluster][position * cells.length + j];
+                    if (j != position && distance != INFINITY) {
+                        relax(node, nodeOf(cells[j]), cost[node] + distance);
+                    }
+                }
+                for (int partner : partners[cluster][position]) {
+                    relax(node, nodeOf(partner), cost[node] + 1);
+                }
+                if (cluster == goalCluster && goalCosts[position] != INFINITY) {
+                    relax(node, GOAL, cost[node] + goalCosts[position]);
+                }
+            }
+            return null;
+        }
+
+        private void relax(int from, int node, int newCost) {
+            if (closed[node] || newCost >= cost[node]) {
+                return;
+            }
+            cost[node] = newCost;
+            parent[node] = from;
+            int estimate = node == GOAL ? 0
+                : Math.max(Math.abs(cellOf[node] / height - goalX), Math.abs(cellOf[node] % height - goalY));
+            open.insertOrDecrease(node, ((long) (newCost + estimate) << 32) | (Integer.MAX_VALUE - newCost));
+        }
+
+        private int nodeOf(int cell) {
+            int node = index.get(0, cell);
+            return node < 0 ? addNode(cell) : node;
+        }
+
+        private int addNode(int cell) {
+            if (nbNodes == cellOf.length) {
+                int length = nbNodes * 2;
+                cellOf = Arrays.copyOf(cellOf, length);
+                cost = Arrays.copyOf(cost, length);
+                parent = Arrays.copyOf(parent, length);
+                closed = Arrays.copyOf(closed, length);
+            }
+            int node = nbNodes++;
+            cellOf[node] = cell;
+            cost[node] = INFINITY;
+            parent[node] = -1;
+            if (cell >= 0) {
+                index.put(0, cell, node);
+            }
+            return node;
+        }
+
+        private int[] corridor(int startCluster) {
+            List<Integer> clusters = new ArrayList<>();
+            clusters.add(startCluster);
+            if (goalCluster != startCluster) {
+                clusters.add(goalCluster);
+            }
+            for (int node = parent[GOAL]; node >= 0; node = parent[node]) {
+                int cluster = clusterOf(cellOf[node] / height, cellOf[node] % height);
+                if (!clusters.contains(cluster)) {
+                    clusters.add(cluster);
+                }
+            }
+            return clusters.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
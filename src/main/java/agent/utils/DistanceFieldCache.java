@@ -0,0 +1,462 @@
+package agent.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.IntConsumer;
+
+import javax.annotation.Nullable;
+
+import environment.CellPerception;
+import environment.Coordinate;
+import environment.Environment;
+import environment.world.conveyor.ConveyorRep;
+import environment.world.destination.DestinationRep;
+import environment.world.energystation.EnergyStationRep;
+import environment.world.generator.PacketGeneratorRep;
+import util.MyColor;
+
+/**
+ * The distances from every cell of an environment to the nearest destination of every color, shared by all agents of
+ * that environment.
+ *
+ * Agents report the static cells they discover: destinations, and obstacles that never move (walls, energy stations,
+ * conveyors and packet generators; a destination is an obstacle as well). All other cells, including the ones nobody
+ * has seen yet, are assumed to be walkable. For every color, a {@link DistanceField} is computed by a breadth-first
+ * search from all reported destinations of that color at once. A field is immutable, so agents can read it without
+ * locking; it is replaced when a new obstacle or destination has been reported since it was computed, by repairing it
+ * for the reported cells only.
+ *
+ * The distances are stored in tiles of 16 by 16 cells, and a cell is numbered by its tile first. A repaired field
+ * shares the tiles it leaves alone with the field it was repaired from, so a repair only copies the tiles around the
+ * reported cells.
+ *
+ * A cache is only created for an environment when an agent first asks for it (cfr. {@link #of(Environment)}).
+ */
+public class DistanceFieldCache {
+
+    /**
+     * The distance of the cells from which no destination can be reached.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final int SIDE_BITS = 4;
+    private static final int SIDE_MASK = (1 << SIDE_BITS) - 1;
+    private static final int TILE_BITS = 2 * SIDE_BITS;
+    private static final int TILE_MASK = (1 << TILE_BITS) - 1;
+
+    /**
+     * The caches of the environments agents have asked for one, which go when their environment does.
+     */
+    private static final Map<Environment, DistanceFieldCache> caches = new WeakHashMap<>();
+
+    private final int width;
+    private final int height;
+    private final int tilesPerRow;
+    private final int nbCells;
+    private final int[] moveX;
+    private final int[] moveY;
+
+    /**
+     * The reported obstacles, both as a grid and in the order in which they were reported.
+     */
+    private final boolean[] obstacles;
+    private final List<Integer> obstacleLog;
+
+    /**
+     * For every color, the cells of the reported destinations in the order in which they were reported.
+     */
+    private final Map<String, List<Integer>> destinations;
+
+    /**
+     * For every color, the latest field computed for it.
+     */
+    private final Map<String, DistanceField> fields;
+
+    // Scratch space of the repairs, allocated by the first one, in which a cell is marked by setting it to the
+    // current epoch
+    private int[] affected;
+    private int[] decided;
+    private int epoch = 0;
+
+
+    /**
+     * Initialize a new cache for an environment of the given dimensions, in which no cells have been reported yet.
+     */
+    public DistanceFieldCache(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tilesPerRow = (width + SIDE_MASK) >> SIDE_BITS;
+        this.nbCells = tilesPerRow * ((height + SIDE_MASK) >> SIDE_BITS) << TILE_BITS;
+        var moves = new MovementManager().getMoves();
+        this.moveX = moves.stream().mapToInt(Coordinate::getX).toArray();
+        this.moveY = moves.stream().mapToInt(Coordinate::getY).toArray();
+        this.obstacles = new boolean[nbCells];
+        // The tiles along the edges may stick out of the environment: the cells they cover there are never passable
+        for (int x = 0; x < tilesPerRow << SIDE_BITS; x++) {
+            for (int y = 0; y < nbCells / tilesPerRow >> SIDE_BITS; y++) {
+                if (!isInside(x, y)) {
+                    obstacles[indexOf(x, y)] = true;
+                }
+            }
+        }
+        this.obstacleLog = new ArrayList<>();
+        this.destinations = new HashMap<>();
+        this.fields = new HashMap<>();
+    }
+
+    /**
+     * Return the cache shared by the agents of the given environment, creating it the first time it is asked for.
+     */
+    public static DistanceFieldCache of(Environment environment) {
+        synchronized (caches) {
+            return caches.computeIfAbsent(environment, e -> new DistanceFieldCache(e.getWidth(), e.getHeight()));
+        }
+    }
+
+
+    /**
+     * Report what is on the given cell, if it is a destination or another obstacle that never moves.
+     */
+    public void report(CellPerception cell) {
+        DestinationRep destination = cell.getRepOfType(DestinationRep.class);
+        if (destination != null) {
+            reportDestination(MyColor.getName(destination.getColor()), cell.getX(), cell.getY());
+        } else if (cell.containsWall() || cell.getRepOfType(EnergyStationRep.class) != null
+                || cell.getRepOfType(ConveyorRep.class) != null || cell.getRepOfType(PacketGeneratorRep.class) != null) {
+            reportObstacle(cell.getX(), cell.getY());
+        }
+    }
+
+    /**
+     * Report an obstacle that never moves at the given coordinates.
+     */
+    public synchronized void reportObstacle(int x, int y) {
+        if (!isInside(x, y) || obstacles[indexOf(x, y)]) {
+            return;
+        }
+        obstacles[indexOf(x, y)] = true;
+        obstacleLog.add(indexOf(x, y));
+    }
+
+    /**
+     * Report a destination of the given color at the given coordinates.
+     *
+     * @param color The name of the color of the destination (cfr. {@link MyColor#getName}).
+     */
+    public synchronized void reportDestination(String color, int x, int y) {
+        if (!isInside(x, y)) {
+            return;
+        }
+        List<Integer> cells = destinations.computeIfAbsent(color, c -> new ArrayList<>());
+        if (!cells.contains(indexOf(x, y))) {
+            cells.add(indexOf(x, y));
+        }
+        reportObstacle(x, y);
+    }
+
+    /**
+     * Return the distances to the nearest destination of the given color, given everything that has been reported up
+     * to now.
+     *
+     * @param color The name of the color of the destinations (cfr. {@link MyColor#getName}).
+     * @return The distance field, or null if no destination of the given color has been reported.
+     */
+    @Nullable
+    public synchronized DistanceField getField(String color) {
+        List<Integer> sources = destinations.get(color);
+        if (sources == null) {
+            return null;
+        }
+        DistanceField field = fields.get(color);
+        if (field == null) {
+            field = compute(sources);
+        } else if (field.obstacleVersion < obstacleLog.size() || field.sourceVersion < sources.size()) {
+            field = repair(field, sources);
+        } else {
+            return field;
+        }
+        fields.put(color, field);
+        return field;
+    }
+
+
+    /**
+     * Compute the field of the given destinations from scratch.
+     */
+    private DistanceField compute(List<Integer> sources) {
+        Tiles distances = new Tiles(nbCells >> TILE_BITS);
+        int[] queue = new int[nbCells];
+        int tail = 0;
+        for (int source : sources) {
+            distances.set(source, 0);
+            queue[tail++] = source;
+        }
+        spread(distances, queue, 0, tail);
+        return new DistanceField(distances.tiles, obstacleLog.size(), sources.size());
+    }
+
+    /**
+     * Bring the given field up to date with the obstacles and destinations reported since it was computed.
+     *
+     * New obstacles can only make cells further away. The cells of which the distance may have grown are the ones
+     * that were reached through a new obstacle: they are visited in order of their old distance, and a cell that
+     * still has a neighbour one step closer to a destination which is not affected keeps its distance. The affected
+     * cells then get the distance through their closest unaffected neighbour, which is propagated among them.
+     * New destinations can only bring cells closer, which is propagated from them as in a full search.
+     * The field itself is left alone: the tiles that change are copied.
+     */
+    private DistanceField repair(DistanceField field, List<Integer> sources) {
+        Tiles distances = new Tiles(field.tiles);
+        if (affected == null) {
+            affected = new int[nbCells];
+            decided = new int[nbCells];
+        }
+        epoch++;
+
+        IndexedHeap candidates = new IndexedHeap();
+        for (int i = field.obstacleVersion; i < obstacleLog.size(); i++) {
+            int obstacle = obstacleLog.get(i);
+            int distance = distances.get(obstacle);
+            if (distance == UNREACHABLE || distance == 0) {
+                continue;
+            }
+            distances.set(obstacle, UNREACHABLE);
+            decided[obstacle] = epoch;
+            forEachNeighbour(obstacle, (neighbour) -> {
+                if (distances.get(neighbour) == distance + 1 && !obstacles[neighbour]) {
+                    candidates.insertOrDecrease(neighbour, distance + 1);
+                }
+            });
+        }
+        List<Integer> affectedCells = new ArrayList<>();
+        while (!candidates.isEmpty()) {
+            int cell = candidates.poll();
+            decided[cell] = epoch;
+            if (isSupported(cell, distances)) {
+                continue;
+            }
+            affected[cell] = epoch;
+            affectedCells.add(cell);
+            int distance = distances.get(cell);
+            forEachNeighbour(cell, (neighbour) -> {
+                if (distances.get(neighbour) == distance + 1 && !obstacles[neighbour] && decided[neighbour] != epoch) {
+                    candidates.insertOrDecrease(neighbour, distance + 1);
+                }
+            });
+        }
+
+        IndexedHeap open = new IndexedHeap();
+        for (int cell : affectedCells) {
+            int best = UNREACHABLE;
+            for (int m = 0; m < moveX.length; m++) {
+                int neighbour = neighbourOf(cell, m);
+                if (neighbour >= 0 && affected[neighbour] != epoch && isPassable(neighbour, distances)
+                        && distances.get(neighbour) != UNREACHABLE) {
+                    best = Math.min(best, distances.get(neighbour) + 1);
+                }
+            }
+            distances.set(cell, best);
+            if (best != UNREACHABLE) {
+                open.insertOrDecrease(cell, best);
+            }
+        }
+        while (!open.isEmpty()) {
+            int cell = open.poll();
+            int distance = distances.get(cell) + 1;
+            forEachNeighbour(cell, (neighbour) -> {
+                if (affected[neighbour] == epoch && distances.get(neighbour) > distance) {
+                    distances.set(neighbour, distance);
+                    open.insertOrDecrease(neighbour, distance);
+                }
+            });
+        }
+
+        if (field.sourceVersion < sources.size()) {
+            int[] queue = new int[nbCells];
+            int tail = 0;
+            for (int i = field.sourceVersion; i < sources.size(); i++) {
+                distances.set(sources.get(i), 0);
+                queue[tail++] = sources.get(i);
+            }
+            spread(distances, queue, 0, tail);
+        }
+        return new DistanceField(distances.tiles, obstacleLog.size(), sources.size());
+    }
+
+    /**
+     * Check whether the given cell has a neighbour one step closer to a destination, which is not affected by the
+     * new obstacles.
+     */
+    private boolean isSupported(int cell, Tiles distances) {
+        for (int m = 0; m < moveX.length; m++) {
+            int neighbour = neighbourOf(cell, m);
+            if (neighbour >= 0 && distances.get(neighbour) == distances.get(cell) - 1 && affected[neighbour] != epoch
+                    && isPassable(neighbour, distances)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lower the distances of the cells around the queued ones, breadth first.
+     */
+    private void spread(Tiles distances, int[] queue, int head, int tail) {
+        while (head < tail) {
+            int cell = queue[head++];
+            int distance = distances.get(cell) + 1;
+            for (int m = 0; m < moveX.length; m++) {
+                int neighbour = neighbourOf(cell, m);
+                if (neighbour >= 0 && !obstacles[neighbour] && distances.get(neighbour) > distance) {
+                    distances.set(neighbour, distance);
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether a path can go through the given cell: it is not an obstacle, or it is a destination the path
+     * starts from.
+     */
+    private boolean isPassable(int cell, Tiles distances) {
+        return !obstacles[cell] || distances.get(cell) == 0;
+    }
+
+    private void forEachNeighbour(int cell, IntConsumer action) {
+        for (int m = 0; m < moveX.length; m++) {
+            int neighbour = neighbourOf(cell, m);
+            if (neighbour >= 0) {
+                action.accept(neighbour);
+            }
+        }
+    }
+
+    private int neighbourOf(int cell, int move) {
+        int tileX = (cell & SIDE_MASK) + moveX[move];
+        int tileY = ((cell >>> SIDE_BITS) & SIDE_MASK) + moveY[move];
+        if ((tileX | tileY) >>> SIDE_BITS == 0) {
+            // In the same tile, where the cells beyond the edges of the environment are obstacles
+            return cell + (moveY[move] << SIDE_BITS) + moveX[move];
+        }
+        int tile = cell >>> TILE_BITS;
+        int x = ((tile % tilesPerRow) << SIDE_BITS | (cell & SIDE_MASK)) + moveX[move];
+        int y = ((tile / tilesPerRow) << SIDE_BITS | ((cell >>> SIDE_BITS) & SIDE_MASK)) + moveY[move];
+        return isInside(x, y) ? indexOf(x, y) : -1;
+    }
+
+    private boolean isInside(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    private int indexOf(int x, int y) {
+        int tile = (y >> SIDE_BITS) * tilesPerRow + (x >> SIDE_BITS);
+        return tile << TILE_BITS | (y & SIDE_MASK) << SIDE_BITS | (x & SIDE_MASK);
+    }
+
+
+    /**
+     * The distances of a field while it is computed or repaired. The tiles taken over from the field that is being
+     * repaired are shared with it, and copied the first time a distance in them changes.
+     */
+    private static class Tiles {
+
+        private final int[][] tiles;
+        private final boolean[] owned;
+
+        /**
+         * Initialize the distances of a new field, in which no cell can reach a destination yet.
+         */
+        Tiles(int nbTiles) {
+            this.tiles = new int[nbTiles][1 << TILE_BITS];
+            this.owned = new boolean[nbTiles];
+            for (int[] tile : tiles) {
+                Arrays.fill(tile, UNREACHABLE);
+            }
+            Arrays.fill(owned, true);
+        }
+
+        /**
+         * Initialize distances that start out as the given ones, without copying them.
+         */
+        Tiles(int[][] shared) {
+            this.tiles = shared.clone();
+            this.owned = new boolean[shared.length];
+        }
+
+        int get(int cell) {
+            return tiles[cell >>> TILE_BITS][cell & TILE_MASK];
+        }
+
+        void set(int cell, int distance) {
+            int tile = cell >>> TILE_BITS;
+            if (tiles[tile][cell & TILE_MASK] == distance) {
+                return;
+            }
+            if (!owned[tile]) {
+                tiles[tile] = tiles[tile].clone();
+                owned[tile] = true;
+            }
+            tiles[tile][cell & TILE_MASK] = distance;
+        }
+    }
+
+
+    /**
+     * The distances from every cell to the nearest destination of one color, as known at some point in time.
+     */
+    public class DistanceField {
+
+        private final int[][] tiles;
+        private final int obstacleVersion;
+        private final int sourceVersion;
+
+        private DistanceField(int[][] tiles, int obstacleVersion, int sourceVersion) {
+            this.tiles = tiles;
+            this.obstacleVersion = obstacleVersion;
+            this.sourceVersion = sourceVersion;
+        }
+
+        /**
+         * Return the number of obstacles that had been reported when this field was computed.
+         */
+        public int getVersion() {
+            return obstacleVersion;
+        }
+
+        /**
+         * Return the number of moves needed to get from the given cell onto the nearest destination, or
+         * {@link #UNREACHABLE} if no destination can be reached from it.
+         */
+        public int getDistance(int x, int y) {
+            if (!isInside(x, y)) {
+                return UNREACHABLE;
+            }
+            int cell = indexOf(x, y);
+            return tiles[cell >>> TILE_BITS][cell & TILE_MASK];
+        }
+
+        /**
+         * Return the neighbour of the given cell that is closest to a destination, trying the moves in the order of
+         * the given movement manager, or null if no destination can be reached from the given cell.
+         * A destination itself is never returned: an agent next to it can put its packet down instead.
+         */
+        @Nullable
+        public Coordinate getNextStep(int x, int y, MovementManager movementManager) {
+            Coordinate result = null;
+            int best = getDistance(x, y);
+            for (Coordinate move : movementManager.getMoves()) {
+                int distance = getDistance(x + move.getX(), y + move.getY());
+                if (distance < best && distance > 0) {
+                    result = Coordinate.of(x + move.getX(), y + move.getY());
+                    best = distance;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package agent.utils;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import environment.CellPerception;
+import environment.Coordinate;
+
+/**
+ * An A* search over the grid of cells of a virtual environment, in which cells are identified by their index in the
+ * grid rather than by objects.
+ *
+ * The search does not only look for a path to a cell, but for a path through a number of stages: every stage has
+ * goal cells, and stepping onto a goal cell brings the searcher to a next stage, until a final stage is reached
+ * (cfr. {@link Stages}). A node of the search is a cell in a stage, and is given an int id when it is first reached.
+ * The cost and estimate of every node, and the node it was reached from, are kept in primitive arrays indexed by
+ * that id, and the nodes still to expand are kept in an {@link IndexedHeap}, so a node is never queued twice.
+ *
+ * Every move costs 1. Cells that are not known or not walkable cannot be stepped onto, except if they are a goal
+ * of the current stage. A goal that is not walkable (e.g. a cell with a packet) is not stood on when it is reached:
+ * the searcher continues the next stage from the cell it came from.
+ */
+public class GridAStar {
+
+    /**
+     * The stages through which a path is searched.
+     */
+    public interface Stages {
+
+        /**
+         * Return the stage in which the search starts.
+         */
+        int getFirstStage();
+
+        /**
+         * Check whether the given stage is final, i.e. whether the search is over once it is reached.
+         */
+        boolean isFinal(int stage);
+
+        /**
+         * Return the stage that is reached by stepping onto the given cell in the given stage, or -1 if the cell is
+         * not a goal of that stage.
+         */
+        int getNextStage(int stage, int x, int y);
+
+        /**
+         * Return an estimate of the number of moves needed to reach a final stage from the given cell in the given
+         * stage, which may not be higher than the actual number of moves.
+         */
+        int estimate(int stage, int x, int y);
+    }
+
+    /**
+     * The cells a search may step onto, on top of being known and walkable (e.g. the clusters of a path found in a
+     * {@link ClusterGraph}).
+     */
+    public interface Region {
+
+        /**
+         * Check whether the cell with the given coordinates is part of this region.
+         */
+        boolean contains(int x, int y);
+    }
+
+    /**
+     * A path found by the search.
+     *
+     * @param cells  The cells stepped onto (packed, cfr. {@link Coordinate#pack(int, int)}), in order.
+     * @param stages The stage the searcher is in after every step.
+     */
+    public record Route(long[] cells, int[] stages) {}
+
+
+    private static final byte UNKNOWN = 0;
+    private static final byte BLOCKED = 1;
+    private static final byte WALKABLE = 2;
+
+    private final VirtualEnvironment virtualEnvironment;
+    private final int[] moveX;
+    private final int[] moveY;
+
+    private int minX, minY, width, height;
+    private byte[] grid;
+
+
+    /**
+     * Initialize a new search over the cells of the given virtual environment, which moves in the order of the moves
+     * of its movement manager.
+     */
+    public GridAStar(VirtualEnvironment virtualEnvironment) {
+        this.virtualEnvironment = virtualEnvironment;
+        var moves = virtualEnvironment.getMovementManager().getMoves();
+        this.moveX = moves.stream().mapToInt(Coordinate::getX).toArray();
+        this.moveY = moves.stream().mapToInt(Coordinate::getY).toArray();
+        if (virtualEnvironment.isEmpty()) {
+            buildGrid(0, 0, 0, 0);
+        } else {
+            buildGrid(virtualEnvironment.getMinX(), virtualEnvironment.getMinY(),
+                virtualEnvironment.getMaxX(), virtualEnvironment.getMaxY());
+        }
+    }
+
+
+    /**
+     * Return whether the cell with the given coordinates is known and walkable.
+     */
+    public boolean isWalkable(int x, int y) {
+        return stateOf(x, y) == WALKABLE;
+    }
+
+    /**
+     * Return whether the cell with the given coordinates is known.
+     */
+    public boolean isKnown(int x, int y) {
+        return stateOf(x, y) != UNKNOWN;
+    }
+
+    /**
+     * Search a shortest path from the given cell through the given stages.
+     *
+     * @return The shortest path, or null if no final stage can be reached.
+     */
+    @Nullable
+    public Route search(int startX, int startY, Stages stages) {
+        return search(startX, startY, stages, null);
+    }
+
+    /**
+     * Search a shortest path from the given cell through the given stages, stepping only onto cells of the given
+     * region.
+     *
+     * @param region The region to stay in, or null to search all known cells.
+     * @return The shortest path within the region, or null if no final stage can be reached within it.
+     */
+    @Nullable
+    public Route search(int startX, int startY, Stages stages, @Nullable Region region) {
+        if (startX < minX || startY < minY || startX >= minX + width || startY >= minY + height) {
+            buildGrid(Math.min(minX, startX), Math.min(minY, startY),
+                Math.max(minX + width - 1, startX), Math.max(minY + height - 1, startY));
+        }
+        return new Search(stages, region).run(startX, startY);
+    }
+
+    private void buildGrid(int fromX, int fromY, int toX, int toY) {
+        minX = fromX;
+        minY = fromY;
+        width = toX - fromX + 1;
+        height = toY - fromY + 1;
+        grid = new byte[width * height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                CellPerception cell = virtualEnvironment.getCell(minX + x, minY + y);
+                grid[x * height + y] = cell == null ? UNKNOWN : cell.isWalkable() ? WALKABLE : BLOCKED;
+            }
+        }
+    }
+
+    private byte stateOf(int x, int y) {
+        if (x < minX || y < minY || x >= minX + width || y >= minY + height) {
+            return UNKNOWN;
+        }
+        return grid[(x - minX) * height + (y - minY)];
+    }
+
+
+    /**
+     * The state of one search.
+     */
+    private class Search {
+
+        private final Stages stages;
+        @Nullable
+        private final Region region;
+        private final IndexedHeap open;
+        private final NodeIndex index;
+
+        // For every node: its stage and cell, its cost, estimate and whether it has been expanded, the node it was
+        // reached from and the cell that was stepped onto to reach it
+        private int[] stageOf = new int[256];
+        private int[] cellOf = new int[256];
+        private int[] cost = new int[256];
+        private int[] estimate = new int[256];
+        private boolean[] closed = new boolean[256];
+        private int[] parent = new int[256];
+        private int[] steppedOn = new int[256];
+        private int nbNodes = 0;
+
+        Search(Stages stages, @Nullable Region region) {
+            this.stages = stages;
+            this.region = region;
+            this.open = new IndexedHeap();
+            this.index = new NodeIndex();
+        }
+
+        @Nullable
+        Route run(int startX, int startY) {
+            int start = (startX - minX) * height + (startY - minY);
+            int firstStage = stages.getFirstStage();
+            // If the search starts on a goal, that goal has been reached already
+            int nextStage = stages.getNextStage(firstStage, startX, startY);
+            relax(-1, nextStage < 0 ? firstStage : nextStage, start, -1);
+
+            while (!open.isEmpty()) {
+                int node = open.poll();
+                if (stages.isFinal(stageOf[node])) {
+                    return route(node);
+                }
+                closed[node] = true;
+
+                int stage = stageOf[node];
+                int x = cellOf[node] / height;
+                int y = cellOf[node] % height;
+                for (int m = 0; m < moveX.length; m++) {
+                    int nextX = x + moveX[m];
+                    int nextY = y + moveY[m];
+                    if (nextX < 0 || nextY < 0 || nextX >= width || nextY >= height
+                            || (region != null && !region.contains(minX + nextX, minY + nextY))) {
+                        continue;
+                    }
+                    int next = nextX * height + nextY;
+                    byte state = grid[next];
+                    int goalStage = stages.getNextStage(stage, minX + nextX, minY + nextY);
+                    if (goalStage < 0) {
+                        if (state == WALKABLE) {
+                            relax(node, stage, next, next);
+                        }
+                    } else if (state != UNKNOWN) {
+                        // A goal that cannot be stood on is left again towards the cell it was reached from
+                        relax(node, goalStage, state == WALKABLE ? next : cellOf[node], next);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Reach the given cell in the given stage from the given node, by stepping onto the given cell.
+         */
+        private void relax(int from, int stage, int cell, int stepped) {
+            int node = index.get(stage, cell);
+            if (node < 0) {
+                node = addNode(stage, cell);
+            } else if (closed[node]) {
+                return;
+            }
+            int newCost = from < 0 ? 0 : cost[from] + 1;
+            if (newCost < cost[node]) {
+                cost[node] = newCost;
+                parent[node] = from;
+                steppedOn[node] = stepped;
+                // Among nodes with the same estimated total, expand the ones furthest along first
+                long total = newCost + estimate[node];
+                open.insertOrDecrease(node, (total << 32) | (Integer.MAX_VALUE - newCost));
+            }
+        }
+
+        private int addNode(int stage, int cell) {
+            if (nbNodes == stageOf.length) {
+                int length = nbNodes * 2;
+                stageOf = Arrays.copyOf(stageOf, length);
+                cellOf = Arrays.copyOf(cellOf, length);
+                cost = Arrays.copyOf(cost, length);
+                estimate = Arrays.copyOf(estimate, length);
+                closed = Arrays.copyOf(closed, length);
+                parent = Arrays.copyOf(parent, length);
+                steppedOn = Arrays.copyOf(steppedOn, length);
+            }
+            int node = nbNodes++;
+            stageOf[node] = stage;
+            cellOf[node] = cell;
+            cost[node] = Integer.MAX_VALUE;
+            estimate[node] = stages.estimate(stage, minX + cell / height, minY + cell % height);
+            index.put(stage, cell, node);
+            return node;
+        }
+
+        private Route route(int node) {
+            int length = 0;
+            for (int n = node; parent[n] >= 0; n = parent[n]) {
+                length++;
+            }
+            long[] cells = new long[length];
+            int[] stagesAfter = new int[length];
+            for (int n = node, i = length - 1; parent[n] >= 0; n = parent[n], i--) {
+                cells[i] = Coordinate.pack(minX + steppedOn[n] / height, minY + steppedOn[n] % height);
+                stagesAfter[i] = stageOf[n];
+            }
+            return new Route(cells, stagesAfter);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package agent.utils;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of nodes, identified by non-negative ints, ordered by a long key. The heap knows where every node
+ * is, so the key of a node can be decreased without searching the heap for it.
+ */
+class IndexedHeap {
+
+    private int[] nodes;
+    private long[] keys;
+    private int size;
+
+    /**
+     * For every node, its position in the heap, or -1 if it is not in the heap.
+     */
+    private int[] positions;
+
+
+    /**
+     * Initialize a new, empty heap.
+     */
+    IndexedHeap() {
+        this.nodes = new int[64];
+        this.keys = new long[64];
+        this.size = 0;
+        this.positions = new int[64];
+        Arrays.fill(positions, -1);
+    }
+
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Add the given node with the given key, or lower its key if it is already in the heap with a higher key.
+     */
+    void insertOrDecrease(int node, long key) {
+        if (node >= positions.length) {
+            int oldLength = positions.length;
+            positions = Arrays.copyOf(positions, Math.max(node + 1, oldLength * 2));
+            Arrays.fill(positions, oldLength, positions.length, -1);
+        }
+        int position = positions[node];
+        if (position < 0) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            position = size++;
+        } else if (keys[position] <= key) {
+            return;
+        }
+        siftUp(position, node, key);
+    }
+
+    /**
+     * Remove the node with the lowest key from the heap and return it.
+     *
+     * @pre !isEmpty()
+     */
+    int poll() {
+        int result = nodes[0];
+        positions[result] = -1;
+        size--;
+        if (size > 0) {
+            siftDown(0, nodes[size], keys[size]);
+        }
+        return result;
+    }
+
+    private void siftUp(int position, int node, long key) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            place(position, nodes[parent], keys[parent]);
+            position = parent;
+        }
+        place(position, node, key);
+    }
+
+    private void siftDown(int position, int node, long key) {
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            place(position, nodes[child], keys[child]);
+            position = child;
+        }
+        place(position, node, key);
+    }
+
+    private void place(int position, int node, long key) {
+        nodes[position] = node;
+        keys[position] = key;
+        positions[node] = position;
+    }
+}
@@ -0,0 +1,160 @@
+package agent.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import environment.CellPerception;
+import environment.Coordinate;
+import environment.CoordinateMap;
+
+/**
+ * The itineraries an agent can choose from, each being a list of cells to go to in order (e.g. a packet and then a
+ * destination for it), as the stages of a {@link GridAStar} search.
+ * The itineraries are merged into a tree on their common beginnings: every stage is a node of that tree, its goals
+ * are the next cells of the itineraries that pass through it, and a stage in which an itinerary ends is final.
+ */
+class Itineraries implements GridAStar.Stages {
+
+    /**
+     * For every stage, the stage reached by stepping onto each of its goals.
+     */
+    private final List<CoordinateMap<Integer>> nextStages = new ArrayList<>();
+
+    /**
+     * For every stage, its goals as x, y and next stage, one after the other.
+     */
+    private final List<int[]> goals = new ArrayList<>();
+
+    private final List<Boolean> finalStages = new ArrayList<>();
+
+    /**
+     * For every stage, an estimate of the number of moves needed to go from the goal that leads to it to the end of
+     * an itinerary.
+     */
+    private final int[] tails;
+
+
+    /**
+     * Initialize the stages of the given itineraries. Itineraries containing an unknown cell are left out.
+     *
+     * @param search The search in which the itineraries will be used, which knows which cells are walkable.
+     */
+    Itineraries(Set<CellPerception[]> itineraries, GridAStar search) {
+        addStage();
+        for (CellPerception[] itinerary : itineraries) {
+            if (itinerary.length == 0 || Arrays.asList(itinerary).contains(null)) {
+                continue;
+            }
+            int stage = 0;
+            for (CellPerception cell : itinerary) {
+                if (isFinal(stage)) {
+                    // The itinerary passes through the end of another one, which is reached first
+                    break;
+                }
+                int nextStage = getNextStage(stage, cell.getX(), cell.getY());
+                if (nextStage < 0) {
+                    nextStage = addStage();
+                    nextStages.get(stage).put(cell.getX(), cell.getY(), nextStage);
+                    int[] stageGoals = goals.get(stage);
+                    int[] newGoals = Arrays.copyOf(stageGoals, stageGoals.length + 3);
+                    newGoals[stageGoals.length] = cell.getX();
+                    newGoals[stageGoals.length + 1] = cell.getY();
+                    newGoals[stageGoals.length + 2] = nextStage;
+                    goals.set(stage, newGoals);
+                }
+                stage = nextStage;
+            }
+            finalStages.set(stage, true);
+        }
+
+        // Stages are only added after the stage they follow, so the tails can be computed from the last to the first
+        tails = new int[nextStages.size()];
+        for (int stage = nextStages.size() - 1; stage >= 0; stage--) {
+            int[] stageGoals = goals.get(stage);
+            for (int i = 0; i < stageGoals.length; i += 3) {
+                int x = stageGoals[i], y = stageGoals[i + 1], nextStage = stageGoals[i + 2];
+                // A goal that cannot be stood on is left again towards an adjacent cell, which may be a move closer
+                tails[nextStage] = isFinal(nextStage) ? 0
+                    : Math.max(0, estimate(nextStage, x, y) - (search.isWalkable(x, y) ? 0 : 1));
+            }
+        }
+    }
+
+
+    private int addStage() {
+        nextStages.add(new CoordinateMap<>(4));
+        goals.add(new int[0]);
+        finalStages.add(false);
+        return nextStages.size() - 1;
+    }
+
+    /**
+     * Check whether there is at least one itinerary to follow.
+     */
+    boolean isEmpty() {
+        return goals.get(0).length == 0 && !isFinal(0);
+    }
+
+    /**
+     * Split the given route into the paths to every cell of the itinerary it follows. Every path ends with the cell
+     * of the itinerary it leads to, and the last path is empty.
+     *
+     * @param startX The x-coordinate of the cell the route starts from.
+     * @param startY The y-coordinate of the cell the route starts from.
+     */
+    List<List<Coordinate>> toPaths(GridAStar.Route route, int startX, int startY) {
+        List<List<Coordinate>> paths = new ArrayList<>();
+        paths.add(new ArrayList<>());
+        int stage = getFirstStage();
+        if (getNextStage(stage, startX, startY) >= 0) {
+            // The route starts on the first cell of the itinerary
+            stage = getNextStage(stage, startX, startY);
+            paths.add(new ArrayList<>());
+        }
+        for (int i = 0; i < route.cells().length; i++) {
+            paths.get(paths.size() - 1).add(Coordinate.unpack(route.cells()[i]));
+            if (route.stages()[i] != stage) {
+                stage = route.stages()[i];
+                paths.add(new ArrayList<>());
+            }
+        }
+        return paths;
+    }
+
+
+    @Override
+    public int getFirstStage() {
+        return 0;
+    }
+
+    @Override
+    public boolean isFinal(int stage) {
+        return finalStages.get(stage);
+    }
+
+    @Override
+    public int getNextStage(int stage, int x, int y) {
+        Integer result = nextStages.get(stage).get(x, y);
+        return result == null ? -1 : result;
+    }
+
+    /**
+     * Return the smallest number of moves needed to reach the end of an itinerary from the given cell in the given
+     * stage if no cell were in the way: the distance to a goal of the stage plus the tail of the stage it leads to.
+     */
+    @Override
+    public int estimate(int stage, int x, int y) {
+        int[] stageGoals = goals.get(stage);
+        if (isFinal(stage) || stageGoals.length == 0) {
+            return 0;
+        }
+        int result = Integer.MAX_VALUE;
+        for (int i = 0; i < stageGoals.length; i += 3) {
+            int distance = Math.max(Math.abs(stageGoals[i] - x), Math.abs(stageGoals[i + 1] - y));
+            result = Math.min(result, distance + tails[stageGoals[i + 2]]);
+        }
+        return result;
+    }
+}
@@ -10,10 +10,10 @@ import java.util.stream.Collectors;
 
 public class MovementManager {
     List<Coordinate> moves = new ArrayList<>(List.of(
-            new Coordinate(1, 1), new Coordinate(1, -1),
-            new Coordinate(-1, -1), new Coordinate(-1, 1),
-            new Coordinate(1, 0), new Coordinate(0, 1),
-            new Coordinate(-1, 0), new Coordinate(0, -1)
+            Coordinate.of(1, 1), Coordinate.of(1, -1),
+            Coordinate.of(-1, -1), Coordinate.of(-1, 1),
+            Coordinate.of(1, 0), Coordinate.of(0, 1),
+            Coordinate.of(-1, 0), Coordinate.of(0, -1)
     ));
 
     public List<Coordinate> getMoves(){
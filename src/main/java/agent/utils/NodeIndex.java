@@ -0,0 +1,67 @@
+package agent.utils;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table from the stage and cell of a search node to its id, for searches that only create
+ * nodes for the cells they reach.
+ */
+class NodeIndex {
+
+    private long[] keys = new long[512];
+    private int[] ids = new int[512];
+    private int size = 0;
+
+    NodeIndex() {
+        Arrays.fill(keys, -1L);
+    }
+
+    /**
+     * Return the id of the node of the given stage and cell, or -1 if there is none.
+     */
+    int get(int stage, int cell) {
+        long key = ((long) stage << 32) | cell;
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; keys[slot] != -1L; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return ids[slot];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Set the id of the node of the given stage and cell, which has none yet.
+     */
+    void put(int stage, int cell, int id) {
+        if (2 * (size + 1) > keys.length) {
+            long[] oldKeys = keys;
+            int[] oldIds = ids;
+            keys = new long[oldKeys.length * 2];
+            ids = new int[oldKeys.length * 2];
+            Arrays.fill(keys, -1L);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1L) {
+                    insert(oldKeys[i], oldIds[i]);
+                }
+            }
+        }
+        insert(((long) stage << 32) | cell, id);
+        size++;
+    }
+
+    private void insert(long key, int id) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != -1L) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        ids[slot] = id;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
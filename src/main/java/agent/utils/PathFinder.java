@@ -2,14 +2,26 @@ package agent.utils;
 
 import environment.CellPerception;
 import environment.Coordinate;
+import environment.EngineSettings;
+
+import javax.annotation.Nullable;
 
 import java.util.*;
 
 /**
  * A class to find optimal paths in a virtual environment (implements A*)
+ *
+ * Depending on the engine settings (cfr. {@link EngineSettings#getPathFindingMode()}), the search is either done by a
+ * {@link GridAStar} over the grid of known cells, or over {@link VirtualState}s. In hierarchical mode, the grid search
+ * first looks for its paths within the clusters that the abstract paths of a {@link ClusterGraph} go through, which
+ * may make them slightly longer than the shortest ones, and only searches all known cells if that fails.
  */
 public class PathFinder {
     VirtualEnvironment virtualEnvironment; // the fictive environment in which we will compute the optimal path
+    private final EngineSettings.PathFindingMode mode; // the way in which the optimal path is searched
+    private GridAStar gridSearch; // the search over the grid of known cells, created when first needed
+    @Nullable
+    private final ClusterGraph clusterGraph; // the abstraction of the known cells, only used in hierarchical mode
 
 
     /**
@@ -18,7 +30,21 @@ public class PathFinder {
      * @param virtualEnvironment    the fictive environment in which we will compute the optimal path
      */
     public PathFinder(VirtualEnvironment virtualEnvironment) {
+        this(virtualEnvironment, null);
+    }
+
+    /**
+     * Initialize a new solver that finds paths in a virtual environment, through the clusters of the given graph
+     * over long distances in hierarchical mode
+     *
+     * @param virtualEnvironment    the fictive environment in which we will compute the optimal path
+     * @param clusterGraph          an abstraction of the cells of the virtual environment, or null to search all
+     *                              known cells
+     */
+    public PathFinder(VirtualEnvironment virtualEnvironment, @Nullable ClusterGraph clusterGraph) {
         this.virtualEnvironment = virtualEnvironment;
+        this.mode = EngineSettings.getPathFindingMode();
+        this.clusterGraph = mode == EngineSettings.PathFindingMode.HIERARCHICAL ? clusterGraph : null;
     }
 
     /**
@@ -80,6 +106,94 @@ public class PathFinder {
      * @return      the list of coordinates pairs composing the optimal path to the closest destination
      */
     public List<List<Coordinate>> astar(CellPerception startingCell, Set<CellPerception[]> destinationCells){
+        if (mode == EngineSettings.PathFindingMode.STATES) {
+            return astarOnStates(startingCell, destinationCells);
+        }
+        return astarOnGrid(startingCell, destinationCells);
+    }
+
+    /**
+     * Run A* over the grid of known cells, following all lists of destination cells at once
+     * (cfr. {@link #astar(CellPerception, Set)})
+     */
+    private List<List<Coordinate>> astarOnGrid(CellPerception startingCell, Set<CellPerception[]> destinationCells){
+        if (gridSearch == null) {
+            gridSearch = new GridAStar(virtualEnvironment);
+        }
+        Itineraries itineraries = new Itineraries(destinationCells, gridSearch);
+        if (itineraries.isEmpty()) {
+            return new ArrayList<>(); // no path can be found without destinations
+        }
+        GridAStar.Route route = null;
+        if (clusterGraph != null) {
+            boolean[] corridor = corridorOf(startingCell, destinationCells);
+            route = gridSearch.search(startingCell.getX(), startingCell.getY(), itineraries,
+                (x, y) -> clusterGraph.clusterOf(x, y) >= 0 && corridor[clusterGraph.clusterOf(x, y)]);
+        }
+        if (route == null) {
+            route = gridSearch.search(startingCell.getX(), startingCell.getY(), itineraries);
+        }
+        if (route == null) {
+            return new ArrayList<>(); // no path was found
+        }
+        return itineraries.toPaths(route, startingCell.getX(), startingCell.getY());
+    }
+
+    /**
+     * Return for every cluster of the cluster graph whether the itineraries may go through it: the clusters of the
+     * abstract paths of the legs between their cells, and the clusters around both ends of the legs that are too
+     * short to be worth an abstract search
+     */
+    private boolean[] corridorOf(CellPerception startingCell, Set<CellPerception[]> destinationCells){
+        boolean[] corridor = new boolean[clusterGraph.getNbClusters()];
+        Set<List<Long>> legs = new HashSet<>();
+        for(CellPerception[] destinationCellList: destinationCells){
+            CellPerception from = startingCell;
+            for(CellPerception to: destinationCellList) {
+                if (to == null) {
+                    break;
+                }
+                List<Long> leg = List.of(Coordinate.pack(from.getX(), from.getY()), Coordinate.pack(to.getX(), to.getY()));
+                if (legs.add(leg)) {
+                    addLeg(corridor, from.getX(), from.getY(), to.getX(), to.getY());
+                }
+                from = to;
+            }
+        }
+        return corridor;
+    }
+
+    private void addLeg(boolean[] corridor, int fromX, int fromY, int toX, int toY){
+        int size = clusterGraph.getClusterSize();
+        int[] clusters = null;
+        if (Math.max(Math.abs(toX - fromX), Math.abs(toY - fromY)) > 2 * size) {
+            clusters = clusterGraph.getCorridor(fromX, fromY, toX, toY);
+        }
+        if (clusters != null) {
+            for (int cluster : clusters) {
+                corridor[cluster] = true;
+            }
+            return;
+        }
+        for (int dx = -size; dx <= size; dx += size) {
+            for (int dy = -size; dy <= size; dy += size) {
+                addCluster(corridor, fromX + dx, fromY + dy);
+                addCluster(corridor, toX + dx, toY + dy);
+            }
+        }
+    }
+
+    private void addCluster(boolean[] corridor, int x, int y){
+        int cluster = clusterGraph.clusterOf(x, y);
+        if (cluster >= 0) {
+            corridor[cluster] = true;
+        }
+    }
+
+    /**
+     * Run A* over virtual states of the agent (cfr. {@link #astar(CellPerception, Set)})
+     */
+    private List<List<Coordinate>> astarOnStates(CellPerception startingCell, Set<CellPerception[]> destinationCells){
         // Starting virtual state
         VirtualState state = new VirtualState(startingCell, destinationCells);
         // the set of already visited cells (avoid cycles when browsing the cells)
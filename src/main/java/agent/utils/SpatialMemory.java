@@ -0,0 +1,352 @@
+package agent.utils;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import environment.CellPerception;
+import environment.Coordinate;
+import environment.CoordinateSet;
+import environment.world.destination.DestinationRep;
+import environment.world.packet.PacketRep;
+import environment.world.wall.WallRep;
+import util.MyColor;
+
+/**
+ * The memory an agent has of where it has seen which representations.
+ * For every kind of representation (and every color, for the kinds that have one) the coordinates at which it has
+ * been seen are kept in a {@link CoordinateSet}, so that memorizing the cells an agent sees every cycle does not
+ * require to parse or build any strings.
+ *
+ * Every set of coordinates is also known under the memory key the agent used before to store it as a string
+ * (cfr. {@link agent.AgentState#rep2MemoryKey(String, String)}), e.g. "class environment.world.packet.PacketRep_red",
+ * and can still be read and written as such a string, with the most recently memorized coordinates first.
+ */
+public class SpatialMemory {
+
+    /**
+     * The kinds of representations an agent memorizes.
+     */
+    public enum Kind {
+        EMPTY("EmptyRep", false),
+        WALL(WallRep.class.toString(), false),
+        PACKET(PacketRep.class.toString(), true),
+        DESTINATION(DestinationRep.class.toString(), true);
+
+        private final String name;
+        private final boolean colored;
+
+        Kind(String name, boolean colored) {
+            this.name = name;
+            this.colored = colored;
+        }
+
+        /**
+         * Return the name of this kind as used in memory keys.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Check whether the representations of this kind are memorized per color.
+         */
+        public boolean isColored() {
+            return colored;
+        }
+    }
+
+    private final Map<Kind, Map<String, Fragment>> fragments;
+
+
+    /**
+     * Initialize a new, empty spatial memory.
+     */
+    public SpatialMemory() {
+        this.fragments = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            fragments.put(kind, new HashMap<>());
+        }
+    }
+
+
+    /**
+     * Memorize the representation on the given cell. Only one representation is memorized per cell: a destination
+     * if there is one, otherwise a packet, otherwise a wall. A cell without any of these is memorized as empty.
+     *
+     * @return True if the representation was not memorized at the coordinates of the cell yet.
+     */
+    public boolean memorize(CellPerception cell) {
+        if (cell.containsAnyDestination()) {
+            return memorize(Kind.DESTINATION, MyColor.getName(cell.getRepOfType(DestinationRep.class).getColor()),
+                cell.getX(), cell.getY());
+        } else if (cell.containsPacket()) {
+            return memorize(Kind.PACKET, MyColor.getName(cell.getRepOfType(PacketRep.class).getColor()),
+                cell.getX(), cell.getY());
+        } else if (cell.containsWall()) {
+            return memorize(Kind.WALL, null, cell.getX(), cell.getY());
+        } else {
+            return memorize(Kind.EMPTY, null, cell.getX(), cell.getY());
+        }
+    }
+
+    /**
+     * Memorize a representation of the given kind and color at the given coordinates.
+     *
+     * @param color The name of the color of the representation (cfr. {@link MyColor#getName}), ignored for kinds
+     *              without a color.
+     * @return True if the representation was not memorized at the given coordinates yet.
+     */
+    public boolean memorize(Kind kind, @Nullable String color, int x, int y) {
+        return getOrCreateFragment(kind, color).coordinates.add(x, y);
+    }
+
+    /**
+     * Forget the representation of the given kind and color at the given coordinates, if memorized.
+     *
+     * @param color The name of the color of the representation, or null to forget a representation of any color.
+     */
+    public void forget(Kind kind, @Nullable String color, int x, int y) {
+        if (color == null || !kind.isColored()) {
+            for (Fragment fragment : fragments.get(kind).values()) {
+                fragment.coordinates.remove(x, y);
+            }
+        } else {
+            Fragment fragment = fragments.get(kind).get(color);
+            if (fragment != null) {
+                fragment.coordinates.remove(x, y);
+            }
+        }
+    }
+
+    /**
+     * Return the coordinates at which a representation of the given kind and color is memorized, the most recently
+     * memorized first.
+     *
+     * @param color The name of the color of the representations, or null for representations of any color.
+     */
+    public List<Coordinate> recall(Kind kind, @Nullable String color) {
+        List<Coordinate> result = new ArrayList<>();
+        if (color == null || !kind.isColored()) {
+            for (Fragment fragment : fragments.get(kind).values()) {
+                addNewestFirst(fragment.coordinates, result);
+            }
+        } else {
+            Fragment fragment = fragments.get(kind).get(color);
+            if (fragment != null) {
+                addNewestFirst(fragment.coordinates, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check whether a representation of the given kind and color is memorized at any coordinates.
+     *
+     * @param color The name of the color of the representations, or null for representations of any color.
+     */
+    public boolean knows(Kind kind, @Nullable String color) {
+        if (color == null || !kind.isColored()) {
+            return fragments.get(kind).values().stream().anyMatch(fragment -> !fragment.coordinates.isEmpty());
+        }
+        Fragment fragment = fragments.get(kind).get(color);
+        return fragment != null && !fragment.coordinates.isEmpty();
+    }
+
+    /**
+     * Forget everything.
+     */
+    public void clear() {
+        for (Map<String, Fragment> fragmentsOfKind : fragments.values()) {
+            fragmentsOfKind.clear();
+        }
+    }
+
+
+
+    // Memory keys
+
+    /**
+     * Check whether the given memory key is the key of a set of coordinates of this memory, rather than of some other
+     * memory fragment of the agent.
+     */
+    public static boolean isMemoryKey(String key) {
+        return parseKind(key) != null;
+    }
+
+    /**
+     * Return the keys of all non-empty sets of coordinates of this memory.
+     */
+    public Set<String> getMemoryKeys() {
+        Set<String> keys = new HashSet<>();
+        for (Map<String, Fragment> fragmentsOfKind : fragments.values()) {
+            for (Fragment fragment : fragmentsOfKind.values()) {
+                if (!fragment.coordinates.isEmpty()) {
+                    keys.add(fragment.key);
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Return the number of non-empty sets of coordinates of this memory.
+     */
+    public int getNbMemoryKeys() {
+        int result = 0;
+        for (Map<String, Fragment> fragmentsOfKind : fragments.values()) {
+            for (Fragment fragment : fragmentsOfKind.values()) {
+                if (!fragment.coordinates.isEmpty()) {
+                    result++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check whether any coordinates are stored at the given memory key.
+     *
+     * @pre isMemoryKey(key)
+     */
+    public boolean hasMemoryFragment(String key) {
+        Fragment fragment = getFragment(key);
+        return fragment != null && !fragment.coordinates.isEmpty();
+    }
+
+    /**
+     * Return the coordinates stored at the given memory key, the most recently memorized first.
+     *
+     * @pre isMemoryKey(key)
+     */
+    public List<Coordinate> recall(String key) {
+        Fragment fragment = getFragment(key);
+        List<Coordinate> result = new ArrayList<>();
+        if (fragment != null) {
+            addNewestFirst(fragment.coordinates, result);
+        }
+        return result;
+    }
+
+    /**
+     * Return the coordinates stored at the given memory key as a string, e.g. "(3,4)(5,6)", the most recently
+     * memorized first.
+     *
+     * @pre isMemoryKey(key)
+     * @return The coordinates as a string, or null if there are none.
+     */
+    @Nullable
+    public String getMemoryFragment(String key) {
+        Fragment fragment = getFragment(key);
+        if (fragment == null || fragment.coordinates.isEmpty()) {
+            return null;
+        }
+        return Coordinate.coordinates2String(recall(key));
+    }
+
+    /**
+     * Store the given coordinates at the given memory key, on top of the ones already stored there. The first of the
+     * given coordinates is considered to be the most recently memorized one.
+     *
+     * @pre isMemoryKey(key)
+     */
+    public void append(String key, List<Coordinate> coordinates) {
+        Fragment fragment = getOrCreateFragment(key);
+        for (int i = coordinates.size() - 1; i >= 0; i--) {
+            fragment.coordinates.add(coordinates.get(i).getX(), coordinates.get(i).getY());
+        }
+    }
+
+    /**
+     * Replace the coordinates stored at the given memory key by the given ones.
+     *
+     * @pre isMemoryKey(key)
+     */
+    public void replace(String key, List<Coordinate> coordinates) {
+        remove(key);
+        append(key, coordinates);
+    }
+
+    /**
+     * Forget all coordinates stored at the given memory key.
+     *
+     * @pre isMemoryKey(key)
+     */
+    public void remove(String key) {
+        Fragment fragment = getFragment(key);
+        if (fragment != null) {
+            fragment.coordinates.clear();
+        }
+    }
+
+    /**
+     * Forget the given coordinates at every memory key containing the given substring.
+     */
+    public void removeFromMemoryKeysContaining(Coordinate coordinates, String subkey) {
+        for (Map<String, Fragment> fragmentsOfKind : fragments.values()) {
+            for (Fragment fragment : fragmentsOfKind.values()) {
+                if (fragment.key.contains(subkey)) {
+                    fragment.coordinates.remove(coordinates.getX(), coordinates.getY());
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private Fragment getFragment(String key) {
+        Kind kind = parseKind(key);
+        return fragments.get(kind).get(kind.isColored() ? key.substring(kind.getName().length() + 1) : null);
+    }
+
+    private Fragment getOrCreateFragment(String key) {
+        Kind kind = parseKind(key);
+        return getOrCreateFragment(kind, kind.isColored() ? key.substring(kind.getName().length() + 1) : null);
+    }
+
+    private Fragment getOrCreateFragment(Kind kind, @Nullable String color) {
+        String fragmentColor = kind.isColored() ? color : null;
+        return fragments.get(kind).computeIfAbsent(fragmentColor, c -> new Fragment(
+            c == null ? kind.getName() : kind.getName() + "_" + c, new CoordinateSet()));
+    }
+
+    /**
+     * Add the coordinates of the given set to the given list, the most recently added first.
+     */
+    private static void addNewestFirst(CoordinateSet coordinates, List<Coordinate> result) {
+        for (int i = coordinates.size() - 1; i >= 0; i--) {
+            result.add(coordinates.get(i));
+        }
+    }
+
+    /**
+     * Return the kind of representation of which the coordinates are stored at the given memory key, or null if the
+     * key is not one of this memory.
+     */
+    @Nullable
+    private static Kind parseKind(String key) {
+        for (Kind kind : Kind.values()) {
+            if (key.startsWith(kind.getName())) {
+                if (kind.isColored() ? key.length() > kind.getName().length() + 1
+                        && key.charAt(kind.getName().length()) == '_'
+                        && key.indexOf('_', kind.getName().length() + 1) < 0
+                    : key.length() == kind.getName().length()) {
+                    return kind;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * The coordinates at which representations of one kind and color are memorized, with the key under which they
+     * are known.
+     */
+    private record Fragment(String key, CoordinateSet coordinates) {}
+}
@@ -2,6 +2,7 @@ package agent.utils;
 
 import environment.CellPerception;
 import environment.Coordinate;
+import environment.CoordinateMap;
 
 import java.util.*;
 
@@ -10,10 +11,11 @@ import java.util.*;
  * will not affect the real environment.
  */
 public class VirtualEnvironment {
-    private Map<Coordinate, CellPerception> coordinates2Cells; // the cells for each coordinate of the environment
+    private CoordinateMap<CellPerception> coordinates2Cells; // the cells for each coordinate of the environment
     private MovementManager movementManager; // the movement manager that provides the moves an agent could
                                              // make independently of its environment (independently of the existence
                                              // of walls or other representations)
+    private int minX, minY, maxX, maxY; // the bounds of the known cells
 
     /**
      * Initialize a new virtual environment
@@ -24,9 +26,15 @@ public class VirtualEnvironment {
      */
     public VirtualEnvironment(Set<CellPerception> cells, MovementManager movementManager){
         // Create a mapping between each coordinates of the environment and its corresponding CellPerception
-        coordinates2Cells = new HashMap<>();
+        coordinates2Cells = new CoordinateMap<>(cells.size());
+        minX = minY = Integer.MAX_VALUE;
+        maxX = maxY = Integer.MIN_VALUE;
         for (CellPerception cell: cells) {
-            coordinates2Cells.put(cell.getCoordinates(), cell);
+            coordinates2Cells.put(cell.getX(), cell.getY(), cell);
+            minX = Math.min(minX, cell.getX());
+            minY = Math.min(minY, cell.getY());
+            maxX = Math.max(maxX, cell.getX());
+            maxY = Math.max(maxY, cell.getY());
         }
         this.movementManager = movementManager;
     }
@@ -40,6 +48,55 @@ public class VirtualEnvironment {
         return cell;
     }
 
+    /**
+     * Get the cell at given coordinates, or null if it is not known
+     */
+    public CellPerception getCell(int x, int y){
+        return coordinates2Cells.get(x, y);
+    }
+
+    /**
+     * Whether any cell is known in this environment
+     */
+    public boolean isEmpty(){
+        return coordinates2Cells.isEmpty();
+    }
+
+    /**
+     * The smallest x-coordinate of the known cells
+     */
+    public int getMinX(){
+        return minX;
+    }
+
+    /**
+     * The smallest y-coordinate of the known cells
+     */
+    public int getMinY(){
+        return minY;
+    }
+
+    /**
+     * The largest x-coordinate of the known cells
+     */
+    public int getMaxX(){
+        return maxX;
+    }
+
+    /**
+     * The largest y-coordinate of the known cells
+     */
+    public int getMaxY(){
+        return maxY;
+    }
+
+    /**
+     * Get the movement manager that provides the moves an agent could make in this environment
+     */
+    public MovementManager getMovementManager(){
+        return movementManager;
+    }
+
     /**
      * Get the next available fictive state where an agent could go to
      *
@@ -55,13 +112,13 @@ public class VirtualEnvironment {
             currentState = state.getPreviousState();
         }
         // The coordinates of the agent in the current fictive state
-        Coordinate currentCoordinates = currentState.getCurrentCell().getCoordinates();
+        CellPerception currentCell = currentState.getCurrentCell();
 
         // For each move the agent could make
         for(var move: movementManager.getMoves()){
-            // Compute the next coordinates, cell and state the agent will move to
-            Coordinate nextCoordinates = currentCoordinates.add(move);
-            CellPerception nextCell = this.getCell(nextCoordinates);
+            // Compute the next cell and state the agent will move to
+            CellPerception nextCell = coordinates2Cells.get(currentCell.getX() + move.getX(),
+                                                            currentCell.getY() + move.getY());
             if (nextCell != null) {
                 VirtualState nextState = new VirtualState(state, nextCell);
                 // If the cell is walkable or is an intermediate/final destination
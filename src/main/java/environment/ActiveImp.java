@@ -8,6 +8,7 @@ import java.util.stream.Collectors;
 import support.Outcome;
 import synchronizer.Synchronization;
 import util.Mutex;
+import util.Suspender;
 
 /**
  * This class provides the basics of threading methods for active objects and
@@ -16,13 +17,15 @@ import util.Mutex;
 abstract public class ActiveImp implements Serializable, Runnable {
 
 
-    private boolean suspendRequested, firstCycle;
+    private boolean firstCycle;
     protected boolean running, initialRun, perceiving, talking, doing;
-    private final Object dummy = new Object();
+    private final Suspender suspender;
     protected Environment environment;
     private Synchronization synchronizer;
     protected Perception perception;
     protected int nbTurn;
+    private volatile int step;
+    private volatile int nbActions;
     private int syncTime;
     private ActiveItemID[] syncSet;
     protected List<ActiveItemID> synchroCandidates;
@@ -38,7 +41,7 @@ abstract public class ActiveImp implements Serializable, Runnable {
         this.running = false;
         this.initialRun = true;
         this.firstCycle = true;
-        this.suspendRequested = false;
+        this.suspender = new Suspender(false);
         this.perceiving = false;
         this.talking = true;
         this.doing = false;
@@ -54,9 +57,17 @@ abstract public class ActiveImp implements Serializable, Runnable {
      */
     public void awake() {
         nbTurn = 0;
-        Thread t = new Thread(this);
         running = true;
-        t.start();
+        EngineThreads.start(this);
+    }
+
+    /**
+     * Starts this ActiveImp's execution without a thread of its own. Its phases are then
+     * executed one at a time by the lockstep scheduler through {@link #executeStep()}.
+     */
+    void awakeWithoutThread() {
+        nbTurn = 0;
+        running = true;
     }
 
     /**
@@ -79,32 +90,21 @@ abstract public class ActiveImp implements Serializable, Runnable {
      * this AgentImp instance is pending, and, if so, suspend this thread.
      */
     protected void checkSuspended() {
-        try {
-            synchronized (dummy) {
-                while (suspendRequested) {
-                    dummy.wait();
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        suspender.checkSuspended();
     }
 
     /**
      * Request the suspension of the thread associated with this AgentImp.
      */
     protected void requestSuspend() {
-        suspendRequested = true;
+        suspender.requestSuspend();
     }
 
     /**
      * Request to wake up the thread associated with this AgentImp, if it is suspended.
      */
     protected void requestResume() {
-        suspendRequested = false;
-        synchronized (dummy) {
-            dummy.notify();
-        }
+        suspender.requestResume();
     }
 
     // INTERFACE TO RUNNING THREAD
@@ -130,15 +130,40 @@ abstract public class ActiveImp implements Serializable, Runnable {
         cleanup();
     }
 
+    /**
+     * Execute a single phase of the action cycle on the calling thread. This corresponds to one
+     * iteration of the loop in {@link #run()}, without suspending afterwards.
+     */
+    void executeStep() {
+        if (initialRun) {
+            perceive();
+            initialRun = false;
+        }
+        if (checkSynchronize()) {
+            synchronize();
+        }
+        executeCurrentPhase();
+    }
+
+    /**
+     * Check whether this ActiveImp has been started and not yet finished.
+     */
+    boolean isRunning() {
+        return running;
+    }
+
     /**
      * Ask a perception from Environment and retrieve information for
      * synchronisation from the View
      */
     protected void perceive() {
         nbTurn++;
-        setPerception(getEnvironment().getPerception(getActiveItemID()));
+        setPerception(getEnvironment().perceive(getActiveItemID()));
         //synchroCandidates = getVisibleActiveItems();
-        synchroCandidates = getAllActiveItemIDs();
+        if (synchroCandidates == null) {
+            // The set of active items does not change during a simulation
+            synchroCandidates = getAllActiveItemIDs();
+        }
         setSyncTime(getEnvironment().getTime());
     }
 
@@ -152,6 +177,9 @@ abstract public class ActiveImp implements Serializable, Runnable {
 
 
     protected void executeCurrentPhase() {
+        while (running && !getSynchronizer().awaitTurn(getActiveItemID(), nbActions)) {
+            this.logger.fine(String.format("ActiveImp %d waits for the others to catch up", getActiveItemID().getID()));
+        }
         getLock().acquireLock();
         execCurrentPhase();
         //getLock().releaseLock();
@@ -176,16 +204,25 @@ abstract public class ActiveImp implements Serializable, Runnable {
     }
 
     void activateNewPhase(boolean environmentPermissionForNextPhase) {
-        if (environmentPermissionNeededForNextPhase()) {
-            if (environmentPermissionForNextPhase) {
-                setNextPhase();
+        if (!environmentPermissionNeededForNextPhase() || environmentPermissionForNextPhase) {
+            if (doing) {
+                nbActions++;
             }
-        } else {
             setNextPhase();
+            step++;
         }
         requestResume();
     }
 
+    /**
+     * Return the number of phases this ActiveImp has moved on from since it started. Since all ActiveImps start in the
+     * same phase and go through the phases in the same order, ActiveImps with the same step are in the same phase of
+     * the same cycle.
+     */
+    int getStep() {
+        return step;
+    }
+
     abstract protected boolean environmentPermissionNeededForNextPhase();
 
     /**
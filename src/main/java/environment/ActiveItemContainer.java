@@ -1,6 +1,7 @@
 package environment;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -85,7 +86,12 @@ public class ActiveItemContainer {
      *Starts all AgentImps and ActiveObjectImps.
      */
     public void startAllActiveImps() {
-        this.getActiveObjects().forEach(ActiveImp::awake);
+        var scheduler = getEnvironment().getLockstepScheduler();
+        if (scheduler != null) {
+            scheduler.start(getActiveImps());
+        } else {
+            this.getActiveObjects().forEach(ActiveImp::awake);
+        }
     }
 
     /**
@@ -166,6 +172,13 @@ public class ActiveItemContainer {
         return Stream.concat(agents.values().stream(), otherActiveItems.values().stream());
     }
 
+    /**
+     * Returns all AgentImps and ActiveObjectImps, sorted by their ID.
+     */
+    List<ActiveImp> getActiveImps() {
+        return getActiveObjects().sorted(Comparator.comparing(ActiveImp::getActiveItemID)).toList();
+    }
+
     /**
      * Returns the agent or object with given ID
      *
@@ -174,8 +187,8 @@ public class ActiveItemContainer {
      *         null if no such Agent of ActiveObject found
      */
     protected ActiveImp getActiveImp(ActiveItemID ID) {
-        return getActiveObjects().filter(o -> o.getActiveItemID() == ID)
-                .findFirst().orElse(null);
+        ActiveImp agentImp = agents.get(ID);
+        return agentImp != null ? agentImp : otherActiveItems.get(ID);
     }
 
 
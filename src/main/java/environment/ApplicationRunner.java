@@ -8,6 +8,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 import com.google.common.eventbus.EventBus;
@@ -21,6 +23,7 @@ import environment.world.generator.PacketGenerator;
 import environment.world.packet.Packet;
 import environment.world.wall.Wall;
 import synchronizer.CentralSynchronization;
+import synchronizer.ProximitySynchronization;
 import synchronizer.Synchronization;
 import util.AsciiReader;
 import util.Variables;
@@ -35,6 +38,7 @@ public class ApplicationRunner {
 
 
     private final String DEFAULT_SYNCMODE = "Central synchronization";
+    private final String PROXIMITY_SYNCMODE = "Proximity synchronization";
     private final int DEFAULT_WORLD_WIDTH = 16;
     private final int DEFAULT_WORLD_HEIGHT = 16;
     private final int DEFAULT_NB_AGENTS = 4;
@@ -44,7 +48,8 @@ public class ApplicationRunner {
 
     private String implementation;
     private String envFile;
-    private String syncMode = DEFAULT_SYNCMODE;
+    private String syncMode = EngineSettings.getSyncMode() == EngineSettings.SyncMode.PROXIMITY
+        ? PROXIMITY_SYNCMODE : DEFAULT_SYNCMODE;
     private int nbPacketKinds;
     private int nbPacketsPerKind;
     private int nbAgents;
@@ -54,7 +59,8 @@ public class ApplicationRunner {
     private Environment env = null;
     private ActiveItemContainer ais = null;
 
-    private final Object dummy = new Object();
+    private final ReentrantLock pauseLock = new ReentrantLock();
+    private final Condition resumed = pauseLock.newCondition();
     private int steps = 0;
     private boolean pause = true;
     private boolean stepMode = false;
@@ -96,9 +102,14 @@ public class ApplicationRunner {
         return custom;
     }
 
-    public synchronized void checkSuspended() {
-        if (steps > 0) {
-            steps--;
+    public void checkSuspended() {
+        pauseLock.lock();
+        try {
+            if (steps > 0) {
+                steps--;
+            }
+        } finally {
+            pauseLock.unlock();
         }
 
         try {
@@ -108,13 +119,15 @@ public class ApplicationRunner {
                 Thread.sleep(playSpeed);
             }
         } catch (InterruptedException ignored) {}
+        pauseLock.lock();
         try {
-            synchronized (dummy) {
-                while (paused() || (stepMode && steps <= 0)) {
-                    dummy.wait();
-                }
+            while (paused() || (stepMode && steps <= 0)) {
+                resumed.await();
             }
-        } catch (InterruptedException ignored) {}
+        } catch (InterruptedException ignored) {
+        } finally {
+            pauseLock.unlock();
+        }
     }
 
     //--------------------------------------------------------------------------
@@ -134,9 +147,7 @@ public class ApplicationRunner {
         }
         stepMode = false;
         pause = false;
-        synchronized (dummy) {
-            dummy.notify();
-        }
+        signalResumed();
     }
 
     public void stop() {
@@ -145,17 +156,35 @@ public class ApplicationRunner {
     }
 
     public void reset() {
+        finish();
+        make(isCustom());
+    }
+
+    /**
+     * Stops all threads of the current simulation and releases the environment and active items,
+     * without building a new simulation afterwards (cfr. {@link #reset()}).
+     */
+    public void finish() {
         stopped = false;
         pause = false;
 
-        synchronized (dummy) {
-            dummy.notify();
-        }
+        signalResumed();
         env.finish();
         ais.finish();
         env = null;
         ais = null;
-        make(isCustom());
+    }
+
+    /**
+     * Wake up the reactor thread if it is waiting in {@link #checkSuspended()}.
+     */
+    private void signalResumed() {
+        pauseLock.lock();
+        try {
+            resumed.signalAll();
+        } finally {
+            pauseLock.unlock();
+        }
     }
 
     public boolean paused() {
@@ -173,9 +202,7 @@ public class ApplicationRunner {
         stepMode = true;
         pause = false;
         steps++;
-        synchronized (dummy) {
-            dummy.notify();
-        }
+        signalResumed();
     }
 
 
@@ -209,8 +236,11 @@ public class ApplicationRunner {
         }
         setEnvironment(env);
         Synchronization sync = null;
-        if (getSyncMode().equals("Central synchronization")) {
+        if (getSyncMode().equals(DEFAULT_SYNCMODE)) {
             sync = new CentralSynchronization();
+        } else if (getSyncMode().equals(PROXIMITY_SYNCMODE)) {
+            sync = new ProximitySynchronization(EngineSettings.getInt("engine.sync.range", 2),
+                EngineSettings.getInt("engine.sync.window", 2));
         }
 
         if (sync == null) {
@@ -436,18 +466,22 @@ public class ApplicationRunner {
      * @return an array with the loaded properties
      */
     public static String[] getPropertiesFromFile(String filename) {
+        Properties prop = loadProperties(filename);
+        List<String> propStrings = new ArrayList<>();
+        for (int i = 1; prop.containsKey(String.valueOf(i)); i++) {
+            propStrings.add(prop.getProperty(String.valueOf(i)));
+        }
+        return propStrings.toArray(new String[0]);
+    }
+
+    private static Properties loadProperties(String filename) {
         Properties prop = new Properties();
-        try {
-            FileInputStream sf = new FileInputStream(filename);
+        try (FileInputStream sf = new FileInputStream(filename)) {
             prop.load(sf);
         } catch (Exception e) {
             ApplicationRunner.logger.severe(String.format("Error with properties file %s\n%s", filename, e.getMessage()));
         }
-        String[] propStrings = new String[prop.size()];
-        for (int i = 1; i <= propStrings.length; i++) {
-            propStrings[i - 1] = prop.getProperty(String.valueOf(i));
-        }
-        return propStrings;
+        return prop;
     }
 
     //--------------------------------------------------------------------------
@@ -470,6 +504,21 @@ public class ApplicationRunner {
         return result;
     }
 
+    /**
+     * Returns the storage type configured for the given world class in the worlds properties file
+     * ('storage.&lt;classname&gt;'), or flat storage if none is configured.
+     */
+    public static World.StorageType getWorldStorage(Class<?> worldClass) {
+        String key = "storage." + worldClass.getName();
+        String value = loadProperties(Variables.WORLD_PROPERTIES_FILE).getProperty(key, World.StorageType.FLAT.name());
+        try {
+            return World.StorageType.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            ApplicationRunner.logger.severe(String.format("Unknown value '%s' for %s, falling back to flat storage.", value, key));
+            return World.StorageType.FLAT;
+        }
+    }
+
     public String getImplementation() {
         return implementation;
     }
@@ -2,16 +2,19 @@ package environment;
 
 import java.awt.Color;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import javax.annotation.Nullable;
 
 import environment.world.agent.AgentRep;
+import environment.world.conveyor.ConveyorRep;
 import environment.world.crumb.CrumbRep;
 import environment.world.destination.DestinationRep;
 import environment.world.energystation.EnergyStationRep;
 import environment.world.flag.FlagRep;
+import environment.world.generator.PacketGeneratorRep;
 import environment.world.gradient.GradientRep;
 import environment.world.packet.PacketRep;
 import environment.world.pheromone.PheromoneRep;
@@ -21,6 +24,9 @@ import environment.world.wall.WallRep;
  * A class of representations of positions in a Perception.
  * A CellPerception is part of a Perception and has a list of all
  * Representations of items on that coordinate.
+ * Besides the list, a CellPerception keeps a bitmask of the kinds of representations it holds and the first
+ * representation of every kind, so that checking for or getting a representation of a known kind does not require
+ * going through the list.
  */
 
 public class CellPerception {
@@ -36,6 +42,22 @@ public class CellPerception {
      */
     private final List<Representation> reps;
 
+    /**
+     * The bits (cfr. {@link Kind#bit()}) of the kinds of representations in this cell.
+     */
+    private int kinds;
+
+    /**
+     * For every kind of representation, the first representation of that kind in 'reps'. Only made once a
+     * representation of a known kind is added.
+     */
+    private Representation[] slots;
+
+    /**
+     * The number of representations in this cell that are not walkable.
+     */
+    private int nbNotWalkable;
+
 
 
     /**
@@ -68,10 +90,42 @@ public class CellPerception {
      */
     public void addRep(Representation rep) {
         this.reps.add(rep);
+        Kind kind = Kind.OF_CLASS.get(rep.getClass());
+        if (kind != null && (kinds & kind.bit()) == 0) {
+            if (slots == null) {
+                slots = new Representation[Kind.VALUES.length];
+            }
+            slots[kind.ordinal()] = rep;
+            kinds |= kind.bit();
+        }
+        if (!rep.isWalkable()) {
+            nbNotWalkable++;
+        }
     }
 
     public void clear() {
         this.reps.clear();
+        if (slots != null) {
+            Arrays.fill(slots, null);
+        }
+        kinds = 0;
+        nbNotWalkable = 0;
+    }
+
+    /**
+     * Check whether this cell holds a representation of the given kind.
+     */
+    private boolean contains(Kind kind) {
+        return (kinds & kind.bit()) != 0;
+    }
+
+    /**
+     * Returns the first representation of the given kind in this cell, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private <T extends Representation> T get(Kind kind) {
+        return contains(kind) ? (T) slots[kind.ordinal()] : null;
     }
 
     /**
@@ -83,6 +137,10 @@ public class CellPerception {
     @SuppressWarnings("unchecked")
     @Nullable
     public <T extends Representation> T getRepOfType(Class<T> clazz) {
+        Kind kind = Kind.OF_TYPE.get(clazz);
+        if (kind != null) {
+            return get(kind);
+        }
         for (Representation representation : this.reps) {
             if (clazz.isInstance(representation)) {
                 return (T) representation;
@@ -97,7 +155,7 @@ public class CellPerception {
      * @return True if a packet is present in this cell perception, false otherwise.
      */
     public boolean containsPacket() {
-        return this.getRepOfType(PacketRep.class) != null;
+        return contains(Kind.PACKET);
     }
 
     /**
@@ -105,7 +163,7 @@ public class CellPerception {
      * @return True if a wall is present in this cell perception, false otherwise.
      */
     public boolean containsWall() {
-        return this.getRepOfType(WallRep.class) != null;
+        return contains(Kind.WALL);
     }
 
     /**
@@ -113,7 +171,7 @@ public class CellPerception {
      * @return True is a destination is present, false otherwise.
      */
     public boolean containsAnyDestination() {
-        return this.getRepOfType(DestinationRep.class) != null;
+        return contains(Kind.DESTINATION);
     }
 
     /**
@@ -121,7 +179,7 @@ public class CellPerception {
      * @return True is an agent is present, false otherwise.
      */
     public boolean containsAgent() {
-        return this.getRepOfType(AgentRep.class) != null;
+        return contains(Kind.AGENT);
     }
 
     /**
@@ -129,7 +187,7 @@ public class CellPerception {
      * @return The Agent representation if present, Optional.empty() otherwise.
      */
     public Optional<AgentRep> getAgentRepresentation() {
-        return Optional.ofNullable(this.getRepOfType(AgentRep.class));
+        return Optional.ofNullable(this.get(Kind.AGENT));
     }
     /**
      * Check if a destination with the specified color is present in this cell perception.
@@ -137,7 +195,7 @@ public class CellPerception {
      * @return True if a destination of the given color is present, false otherwise.
      */
     public boolean containsDestination(Color color) {
-        var destination = this.getRepOfType(DestinationRep.class);
+        DestinationRep destination = this.get(Kind.DESTINATION);
         return destination != null && destination.getColor().equals(color);
     }
 
@@ -146,7 +204,7 @@ public class CellPerception {
      * @return True if an energy station representation is present, false otherwise.
      */
     public boolean containsEnergyStation() {
-        return this.getRepOfType(EnergyStationRep.class) != null;
+        return contains(Kind.ENERGY_STATION);
     }
 
     /**
@@ -154,7 +212,7 @@ public class CellPerception {
      * @return True if a gradient is present, false otherwise.
      */
     public boolean containsGradient() {
-        return this.getGradientRepresentation().isPresent();
+        return contains(Kind.GRADIENT);
     }
 
     /**
@@ -162,7 +220,7 @@ public class CellPerception {
      * @return The Gradient representation if present, Optional.empty() otherwise.
      */
     public Optional<GradientRep> getGradientRepresentation() {
-        return Optional.ofNullable(this.getRepOfType(GradientRep.class));
+        return Optional.ofNullable(this.get(Kind.GRADIENT));
     }
 
     /**
@@ -170,7 +228,7 @@ public class CellPerception {
      * @return True if a flag is present, false otherwise.
      */
     public boolean containsFlag() {
-        return this.getFlagRepresentation().isPresent();
+        return contains(Kind.FLAG);
     }
 
     /**
@@ -178,9 +236,8 @@ public class CellPerception {
      * @return True if a flag is present, false otherwise.
      */
     public boolean containsFlagWithColor(Color color) {
-        return this.getFlagRepresentation()
-            .map(f -> f.getColor() == color)
-            .orElse(false);
+        FlagRep flag = this.get(Kind.FLAG);
+        return flag != null && flag.getColor() == color;
     }
 
 
@@ -189,7 +246,7 @@ public class CellPerception {
      * @return The flag representation if present, Optional.empty() otherwise.
      */
     public Optional<FlagRep> getFlagRepresentation() {
-        return Optional.ofNullable(this.getRepOfType(FlagRep.class));
+        return Optional.ofNullable(this.get(Kind.FLAG));
     }
 
     /**
@@ -197,7 +254,7 @@ public class CellPerception {
      * @return True if a pheromone is present, false otherwise.
      */
     public boolean containsPheromone() {
-        return this.getPheromoneRepresentation().isPresent();
+        return contains(Kind.PHEROMONE);
     }
 
     /**
@@ -205,7 +262,7 @@ public class CellPerception {
      * @return The pheromone representation if present, Optional.empty() otherwise.
      */
     public Optional<PheromoneRep> getPheromoneRepresentation() {
-        return Optional.ofNullable(this.getRepOfType(PheromoneRep.class));
+        return Optional.ofNullable(this.get(Kind.PHEROMONE));
     }
 
 
@@ -214,7 +271,7 @@ public class CellPerception {
      * @return True if a crumb is present, false otherwise.
      */
     public boolean containsCrumb() {
-        return this.getCrumbRepresentation().isPresent();
+        return contains(Kind.CRUMB);
     }
 
     /**
@@ -222,7 +279,7 @@ public class CellPerception {
      * @return The crumb representation if present, Optional.empty() otherwise.
      */
     public Optional<CrumbRep> getCrumbRepresentation() {
-        return Optional.ofNullable(this.getRepOfType(CrumbRep.class));
+        return Optional.ofNullable(this.get(Kind.CRUMB));
     }
 
 
@@ -241,7 +298,7 @@ public class CellPerception {
     }
 
     public boolean isWalkable() {
-        return this.reps.stream().allMatch(Representation::isWalkable);
+        return nbNotWalkable == 0;
     }
 
 
@@ -254,7 +311,58 @@ public class CellPerception {
     }
 
     public Coordinate getCoordinates() {
-        return new Coordinate(this.getX(), this.getY());
+        return Coordinate.of(this.getX(), this.getY());
+    }
+
+
+    /**
+     * The kinds of representations a CellPerception keeps track of. Every kind is a class of representations;
+     * representations of a subclass (e.g. a solid wall) are of the kind of that class.
+     */
+    private enum Kind {
+        AGENT(AgentRep.class),
+        PACKET(PacketRep.class),
+        DESTINATION(DestinationRep.class),
+        WALL(WallRep.class),
+        ENERGY_STATION(EnergyStationRep.class),
+        GRADIENT(GradientRep.class),
+        FLAG(FlagRep.class),
+        PHEROMONE(PheromoneRep.class),
+        CRUMB(CrumbRep.class),
+        GENERATOR(PacketGeneratorRep.class),
+        CONVEYOR(ConveyorRep.class);
+
+        private static final Kind[] VALUES = values();
+
+        /**
+         * The kind of the representations of a class, or null for representations of no known kind.
+         */
+        private static final ClassValue<Kind> OF_CLASS = new ClassValue<>() {
+            @Override
+            protected Kind computeValue(Class<?> type) {
+                return Arrays.stream(VALUES).filter(k -> k.type.isAssignableFrom(type)).findFirst().orElse(null);
+            }
+        };
+
+        /**
+         * The kind of which a class is exactly the class, or null if it is not the class of a kind.
+         */
+        private static final ClassValue<Kind> OF_TYPE = new ClassValue<>() {
+            @Override
+            protected Kind computeValue(Class<?> type) {
+                return Arrays.stream(VALUES).filter(k -> k.type == type).findFirst().orElse(null);
+            }
+        };
+
+        private final Class<? extends Representation> type;
+
+        Kind(Class<? extends Representation> type) {
+            this.type = type;
+        }
+
+        int bit() {
+            return 1 << ordinal();
+        }
     }
 
 }
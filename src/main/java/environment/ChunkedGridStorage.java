@@ -0,0 +1,119 @@
+package environment;
+
+import java.util.function.Consumer;
+
+/**
+ * A grid storage dividing the cells in square tiles of {@value #TILE_SIZE} by {@value #TILE_SIZE} cells, of which
+ * only the tiles holding at least one item are allocated. A tile is allocated on the first write of an item to it,
+ * and released again when its last item is removed. Reading a cell of a tile that is not allocated takes no more than
+ * looking up the tile.
+ * It suits layers of which only a few cells are taken, such as pheromones or flags on a large map.
+ */
+class ChunkedGridStorage implements GridStorage {
+
+    private static final int TILE_SHIFT = 5;
+
+    /**
+     * The length of the side of a tile.
+     */
+    static final int TILE_SIZE = 1 << TILE_SHIFT;
+
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    private final Object[][] tiles;
+    private final int[] nbItems;
+    private final int nbTileColumns;
+    private final int nbTileRows;
+
+
+    ChunkedGridStorage(int width, int height) {
+        this.nbTileColumns = (width + TILE_MASK) >> TILE_SHIFT;
+        this.nbTileRows = (height + TILE_MASK) >> TILE_SHIFT;
+        this.tiles = new Object[nbTileColumns * nbTileRows][];
+        this.nbItems = new int[tiles.length];
+    }
+
+
+    private int tileOf(int x, int y) {
+        return (y >> TILE_SHIFT) * nbTileColumns + (x >> TILE_SHIFT);
+    }
+
+    private static int indexInTile(int x, int y) {
+        return ((y & TILE_MASK) << TILE_SHIFT) | (x & TILE_MASK);
+    }
+
+    @Override
+    public Object get(int x, int y) {
+        Object[] tile = tiles[tileOf(x, y)];
+        return tile == null ? null : tile[indexInTile(x, y)];
+    }
+
+    /**
+     * Put the given item on the given cell. Writes are synchronized, since neighbouring cells written by different
+     * threads may share a tile that has to be allocated or released.
+     */
+    @Override
+    public synchronized void set(int x, int y, Object item) {
+        int t = tileOf(x, y);
+        Object[] tile = tiles[t];
+        if (tile == null) {
+            if (item == null) {
+                return;
+            }
+            tile = new Object[TILE_SIZE * TILE_SIZE];
+            tiles[t] = tile;
+        }
+        int i = indexInTile(x, y);
+        if (tile[i] == null && item != null) {
+            nbItems[t]++;
+        } else if (tile[i] != null && item == null) {
+            nbItems[t]--;
+        }
+        tile[i] = item;
+        if (nbItems[t] == 0) {
+            tiles[t] = null;
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Object> action) {
+        for (int tileRow = 0; tileRow < nbTileRows; tileRow++) {
+            for (int row = 0; row < TILE_SIZE; row++) {
+                for (int tileColumn = 0; tileColumn < nbTileColumns; tileColumn++) {
+                    Object[] tile = tiles[tileRow * nbTileColumns + tileColumn];
+                    if (tile == null) {
+                        continue;
+                    }
+                    for (int i = row << TILE_SHIFT; i < (row + 1) << TILE_SHIFT; i++) {
+                        if (tile[i] != null) {
+                            action.accept(tile[i]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized GridStorage copy() {
+        ChunkedGridStorage copy = new ChunkedGridStorage(nbTileColumns * TILE_SIZE, nbTileRows * TILE_SIZE);
+        for (int t = 0; t < tiles.length; t++) {
+            if (tiles[t] != null) {
+                copy.tiles[t] = tiles[t].clone();
+                copy.nbItems[t] = nbItems[t];
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public long getMemoryFootprint() {
+        long result = 2L * ARRAY_HEADER_SIZE + (long) tiles.length * (REFERENCE_SIZE + Integer.BYTES);
+        for (Object[] tile : tiles) {
+            if (tile != null) {
+                result += ARRAY_HEADER_SIZE + (long) tile.length * REFERENCE_SIZE;
+            }
+        }
+        return result;
+    }
+}
@@ -1,11 +1,18 @@
 package environment;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import support.Outcome;
+import util.Suspender;
 
 /**
  * A class for objects responsible for the handling of Outcomes, i.e. completions of any phase in the action-cycle. The collector
@@ -15,13 +22,13 @@ import support.Outcome;
  */
 public class Collector implements Runnable {
 
-    private Sphere[] spheres;
-    private int nbSpheres;
-    private final List<Outcome> inBuffer;
-    private int nbInBuffer;
+    private final Set<Sphere> spheres;
+    private final Map<Integer, SphereIndex> sphereIndices;
+    private final Map<ActiveItemID, Integer> sealedSteps;
+    private final Queue<Outcome> inBuffer;
+    private final boolean batchDrain;
 
-    private final Object dummy = new Object();
-    private boolean suspendRequested;
+    private final Suspender suspender;
     private boolean running;
     private final EOPHandler eOPHandler;
     private final Reactor reactor;
@@ -47,49 +54,100 @@ public class Collector implements Runnable {
             EOPHandler eOPHandler,
             Reactor reactor,
             PostalService postalService) {
-        this.spheres = new Sphere[0];
-        this.nbSpheres = 0;
-        this.inBuffer = new ArrayList<>();
-        this.nbInBuffer = 0;
+        this.spheres = new LinkedHashSet<>();
+        this.sphereIndices = new HashMap<>();
+        this.sealedSteps = new HashMap<>();
+        this.inBuffer = new ConcurrentLinkedQueue<>();
+        this.batchDrain = EngineSettings.getCollectorDrain() == EngineSettings.CollectorDrain.BATCH;
         this.agentImplementations = agentImplementations;
         this.eOPHandler = eOPHandler;
         this.reactor = reactor;
         this.postalService = postalService;
-        Thread t = new Thread(this);
-        this.suspendRequested = true;
-        t.start();
+        this.suspender = new Suspender(true);
+        EngineThreads.start(this);
     }
 
     /**
      * Create a new sphere for the outcome <outcome>. The set of spheres managed by this collector is extended by the new sphere.
      * @param outcome The outcome for which a new sphere is initialized.
+     * @param step The step of the active item the outcome belongs to.
+     * @param syncSet The members of the sync set of <outcome> the new sphere has to wait for.
      * @post new.getNbSpheres()==getNbSpheres()+1
      */
-    protected Sphere makeNewSphere(Outcome outcome) {
-        Sphere[] temp = new Sphere[nbSpheres + 1];
-        if (nbSpheres >= 0) {
-            System.arraycopy(spheres, 0, temp, 0, nbSpheres);
-        }
-
+    protected synchronized Sphere makeNewSphere(Outcome outcome, int step, ActiveItemID[] syncSet) {
         Sphere novel = new Sphere(this, getAgentImplementations(),
                                   getEOPHandler(), getPostalService(),
-                                  getReactor());
-        temp[nbSpheres] = novel;
-        nbSpheres++;
-        spheres = temp;
-        novel.integrate(outcome);
+                                  getReactor(), step);
+        spheres.add(novel);
+        novel.integrate(outcome, syncSet);
         return novel;
     }
 
+    /**
+     * Seal the full sphere <sphere>: it stays managed by this collector until it has been handled, but outcomes that arrive in the
+     * meantime for any of its members are collected in a new sphere.
+     * @param sphere The full sphere to be sealed.
+     */
+    private synchronized void seal(Sphere sphere) {
+        removeFromIndex(sphere);
+        for (int i = 0; i < sphere.getNbElements(); i++) {
+            sealedSteps.put(sphere.getElementAt(i).getAgentID(), sphere.getStep());
+        }
+    }
+
+    /**
+     * Register that an outcome of the active item with ID <id> has been added to the sphere <sphere>.
+     * @param sphere The sphere the outcome was added to.
+     * @param id The ID of the active item the added outcome belongs to.
+     */
+    synchronized void addedToSphere(Sphere sphere, ActiveItemID id) {
+        sphereIndices.computeIfAbsent(sphere.getStep(), s -> new SphereIndex()).add(sphere, id);
+    }
+
+    private void removeFromIndex(Sphere sphere) {
+        SphereIndex index = sphereIndices.get(sphere.getStep());
+        if (index != null) {
+            index.remove(sphere);
+            if (index.isEmpty()) {
+                sphereIndices.remove(sphere.getStep());
+            }
+        }
+    }
+
+    /**
+     * Return the step of the active item with ID <id>, i.e. the number of phases it has moved on from since it started.
+     */
+    private int getStep(ActiveItemID id) {
+        ActiveImp activeImp = getAgentImplementations().getActiveImp(id);
+        return activeImp == null ? 0 : activeImp.getStep();
+    }
+
+    /**
+     * Return the members of the sync set of <outcome> that still have to conclude the phase with step <step>. Members that have
+     * already moved on to a later phase, or of which the outcome for this phase has already been handled, are not waited for.
+     * @param outcome The Outcome to be processed by this Collector.
+     * @param step The step of the active item the outcome belongs to.
+     */
+    private synchronized ActiveItemID[] getPendingSyncSet(Outcome outcome, int step) {
+        List<ActiveItemID> result = new ArrayList<>(outcome.getSyncSet().length);
+        for (ActiveItemID id : outcome.getSyncSet()) {
+            int memberStep = getStep(id);
+            if (memberStep < step || (memberStep == step && sealedSteps.getOrDefault(id, -1) != step)) {
+                result.add(id);
+            }
+        }
+        return result.toArray(new ActiveItemID[0]);
+    }
+
     /**
      * Deposit the outcome <outcome> in this Collector's buffer and wake up the thread the latter is associated with, if sleeping.
+     * The buffer is a lock-free queue, so depositing an outcome never waits for the collector thread.
      * @param outcome The outcome to be deposited in the Collector's buffer.
      * @post new.getNbInBuffer()==getNbInBuffer()+1
      */
-    public synchronized void collectOutcome(Outcome outcome) {
-        inBuffer.add(outcome);
-        nbInBuffer++;
-        if (suspendRequested) {
+    public void collectOutcome(Outcome outcome) {
+        inBuffer.offer(outcome);
+        if (suspender.isSuspendRequested()) {
             requestResume();
         }
     }
@@ -109,74 +167,85 @@ public class Collector implements Runnable {
     }
 
     /**
-     * Process the outcome deposited in this Collector's buffer.
+     * Process the outcomes deposited in this Collector's buffer: either only the first one, or all of them in batch drain mode.
+     * If the buffer is empty, the collector thread is suspended until a new outcome is deposited.
      */
-    synchronized void monitorInBuffer() {
-        if (inBuffer.isEmpty()) {
+    void monitorInBuffer() {
+        Outcome first = inBuffer.poll();
+        if (first == null) {
             requestSuspend();
-        } else {
-            Outcome first = inBuffer.remove(0);
-            synchronized (first) {
-                processOutcome(first);
+            // An outcome deposited just before the suspension was requested would not wake up the collector thread
+            if (!inBuffer.isEmpty()) {
+                suspender.requestResume();
             }
+            return;
         }
+
+        Outcome outcome = first;
+        do {
+            Sphere full;
+            synchronized (this) {
+                full = processOutcome(outcome);
+            }
+            // Handed over outside the lock: a handler with a full queue blocks the depositing thread, and the handler
+            // threads need the lock to remove the spheres they have handled
+            if (full != null) {
+                full.handleFullSphere();
+            }
+        } while (batchDrain && running && (outcome = inBuffer.poll()) != null);
     }
 
     private void checkSuspended() {
-        try {
-            synchronized (dummy) {
-                while (suspendRequested) {
-                    this.logger.fine("Collector thread puts himself to sleep");
-                    dummy.wait();
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+        if (suspender.isSuspendRequested()) {
+            this.logger.fine("Collector thread puts himself to sleep");
         }
+        suspender.checkSuspended();
     }
 
     private void requestSuspend() {
-        suspendRequested = true;
+        suspender.requestSuspend();
     }
 
     public void requestResume() {
-        suspendRequested = false;
-        synchronized (dummy) {
-            this.logger.fine("Collector thread woken up by incoming outcome");
-            dummy.notify();
-        }
+        this.logger.fine("Collector thread woken up by incoming outcome");
+        suspender.requestResume();
     }
 
     /**
      * Processes the Outcome <outcome>. This includes the creation of a new sphere or the merging of existing spheres, and integrating
      * the outcome in the new, resp. merged spheres. Also, the modified spheres are checked whether all its members have acted:
-     * if so, that sphere is told do export itself to a matching handler.
+     * if so, that sphere is sealed and returned, to be told to export itself to a matching handler.
+     * @return The sphere that has become full by the outcome, or null if there is none.
      */
-    protected void processOutcome(Outcome outcome) {
+    protected Sphere processOutcome(Outcome outcome) {
         this.logger.fine(String.format("Collector starts dealing with the %s from agent %d", outcome.getType(), outcome.getAgentID().getID()));
         this.logger.fine("Status of collector at start of processing outcome: ");
         printSphereSet();
 
-        Sphere[] toBeMerged = getSpheresToBeMerged(outcome);
+        int step = getStep(outcome.getAgentID());
+        ActiveItemID[] syncSet = getPendingSyncSet(outcome, step);
+        Sphere[] toBeMerged = getSpheresToBeMerged(outcome, step, syncSet);
         Sphere changed;
         if (toBeMerged.length == 0) {
-            synchronized (spheres) {
-                changed = makeNewSphere(outcome);
-            }
+            changed = makeNewSphere(outcome, step, syncSet);
             this.logger.fine("New Sphere for outcome made; after this, ");
 
         } else {
             changed = merge(toBeMerged);
-            changed.integrate(outcome);
+            changed.integrate(outcome, syncSet);
             this.logger.fine("Existing spheres have been merged ");
         }
         printSphereSet();
 
+        Sphere full = null;
         if (changed.allActed()) {
-            changed.handleFullSphere();
+            // A full sphere accepts no new outcomes while it is being handled
+            seal(changed);
+            full = changed;
         }
         this.logger.fine("Processing the outcome has finished.");
         printSphereSet();
+        return full;
     }
 
     /**
@@ -187,11 +256,8 @@ public class Collector implements Runnable {
      */
     protected Sphere merge(Sphere[] toBeMerged) {
         Sphere basicSphere = toBeMerged[0];
-        if (toBeMerged.length > 1) {
-            for (Sphere sphere : toBeMerged) {
-                basicSphere.incorporate(sphere);
-                sphere.clear();
-            }
+        for (int i = 1; i < toBeMerged.length; i++) {
+            basicSphere.incorporate(toBeMerged[i]);
         }
         return basicSphere;
     }
@@ -199,86 +265,64 @@ public class Collector implements Runnable {
     /**
      * Removes the sphere <toBeRemoved> from the set of spheres managed by this Collector.
      * @param toBeRemoved The Sphere to be removed from the set of Spheres managed by this Collector.
-     * @pre for some i in 0..nbSpheres-1: toBeRemoved == spheres[i]
-     * @post for each i in 0..nbSpheres-1: toBeRemoved != spheres[i]
-     * @post new.nbSpheres == nbSpheres-1
+     * @post for each sphere in getSpheres(): toBeRemoved != sphere
      */
     protected synchronized void removeSphere(Sphere toBeRemoved) {
-        Sphere[] temp = new Sphere[spheres.length - 1];
-        int i = 0, j = i;
-        while (i < spheres.length) {
-            if (spheres[i] != toBeRemoved) {
-                temp[j] = spheres[i];
-                j++;
-            }
-            i++;
+        if (spheres.remove(toBeRemoved)) {
+            removeFromIndex(toBeRemoved);
         }
-        nbSpheres--;
-        spheres = temp;
     }
 
     /**
-     * Return the set of spheres that need to be merged for processing the Outcome <outcome>.
+     * Return the set of spheres that need to be merged for processing the Outcome <outcome>. Only spheres of the same step are
+     * merged, so that the outcomes in a sphere always belong to the same phase of the same cycle.
      * @param outcome The Outcome to be processed by this Collector.
+     * @param step The step of the active item the outcome belongs to.
+     * @param syncSet The members of the sync set of <outcome> that still have to conclude this step.
      * @return The set of spheres that need to be merged in order to process <outcome>.
      * @post Each element in the set of spheres returned by this method contains either the agent-ID of <outcome> or the id of one of
      *       its syncSet-members.
      * @post None of the spheres managed by this collector that are not returned by this method, contain either the agent-ID of
      *       <outcome> or the id of one of its syncSet-members.
      */
-    protected Sphere[] getSpheresToBeMerged(Outcome outcome) {
-        ActiveItemID[] tempSet = new ActiveItemID[ (outcome.getSyncSet()).length + 1];
-        tempSet[0] = outcome.getAgentID();
-        for (int k = 0; k < outcome.getSyncSet().length; k++) {
-            tempSet[k + 1] = outcome.getSyncSet()[k];
+    protected synchronized Sphere[] getSpheresToBeMerged(Outcome outcome, int step, ActiveItemID[] syncSet) {
+        SphereIndex sphereIndex = sphereIndices.get(step);
+        if (sphereIndex == null) {
+            return new Sphere[0];
         }
-        List<Integer> temp = new ArrayList<>();
-        int i = 0;
-        while (i < tempSet.length) {
-            int j = 0;
-            boolean found = false;
-            while (!found && j < spheres.length) {
-                if (spheres[j].containsOutcomeOf(tempSet[i])) {
-                    found = true;
-                    boolean notYetThere = true;
-                    for (int l = 0; notYetThere && l < temp.size(); l++) {
-                        if (j == temp.get(l)) {
-                            notYetThere = false;
-                        }
-                    }
-                    if (notYetThere) {
-                        temp.add(j);
-                    }
-                }
-                j++;
-            }
-            i++;
+        Set<Sphere> result = new LinkedHashSet<>();
+        Sphere own = sphereIndex.find(outcome.getAgentID());
+        if (own != null) {
+            result.add(own);
         }
-        Sphere[] result = new Sphere[temp.size()];
-        for (int k = 0; k < result.length; k++) {
-            result[k] = spheres[temp.get(k)];
+        for (ActiveItemID id : syncSet) {
+            Sphere sphere = sphereIndex.find(id);
+            if (sphere != null) {
+                result.add(sphere);
+            }
         }
-        return result;
+        return result.toArray(new Sphere[0]);
     }
 
 
     public void printSphereSet() {
         if (this.logger.isLoggable(Level.FINE)) {
-            this.logger.fine(String.format("Collector now manages %d spheres:", nbSpheres));
-            for (int i = 0; i < spheres.length; i++) {
+            Sphere[] current = getSpheres();
+            this.logger.fine(String.format("Collector now manages %d spheres:", current.length));
+            for (int i = 0; i < current.length; i++) {
                 this.logger.fine(String.format("\tSphere number %d:", i));
-                spheres[i].printSphere();
+                current[i].printSphere();
             }
         }
     }
 
 
-    int getNbSpheres() {
-        return nbSpheres;
+    synchronized int getNbSpheres() {
+        return spheres.size();
     }
 
     int getNbInBuffer() {
-        return nbInBuffer;
+        return inBuffer.size();
     }
 
     /**
@@ -306,8 +350,8 @@ public class Collector implements Runnable {
         return agentImplementations;
     }
 
-    Sphere[] getSpheres() {
-        return spheres;
+    synchronized Sphere[] getSpheres() {
+        return spheres.toArray(new Sphere[0]);
     }
 
     public void finish() {
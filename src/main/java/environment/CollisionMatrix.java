@@ -1,6 +1,7 @@
 package environment;
 
 import java.awt.Color;
+import java.util.List;
 
 import environment.world.agent.AgentWorld;
 import environment.world.conveyor.ConveyorWorld;
@@ -10,71 +11,76 @@ import environment.world.destination.DestinationWorld;
 import environment.world.energystation.EnergyStationWorld;
 import environment.world.flag.FlagWorld;
 import environment.world.generator.PacketGeneratorWorld;
-import environment.world.gradient.Gradient;
+import environment.world.gradient.GradientWorld;
 import environment.world.packet.PacketWorld;
-import environment.world.pheromone.Pheromone;
+import environment.world.pheromone.PheromoneWorld;
 
 /**
  * A class that keeps track of which (kind of) Items can stand together on one
  * area and which cannot.
+ * The checks are answered from the occupancy layer of the environment (cfr. {@link Occupancy}): an item can stand on
+ * an area if none of the worlds having an item on that area is blocking for it.
  */
 public class CollisionMatrix {
 
-    public static boolean agentCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w instanceof FlagWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone) &&
-                    !(w.getItem(x, y) instanceof Gradient)
-
-            ) {
-                return false;
-            }
+    /**
+     * The kinds of items that can be placed, each with the worlds whose items may stand on the same area.
+     * Items of any other world block the area.
+     */
+    enum Rule {
+        AGENT(CrumbWorld.class, FlagWorld.class, PheromoneWorld.class, GradientWorld.class),
+        AREA_VALUE(AgentWorld.class, CrumbWorld.class, FlagWorld.class, EnergyStationWorld.class, PacketWorld.class,
+            PacketGeneratorWorld.class, PheromoneWorld.class),
+        CRUMB(AgentWorld.class, FlagWorld.class, PheromoneWorld.class, GradientWorld.class),
+        DESTINATION(GradientWorld.class),
+        FLAG(AgentWorld.class, CrumbWorld.class, PheromoneWorld.class, GradientWorld.class),
+        GRADIENT(AgentWorld.class, CrumbWorld.class, FlagWorld.class, PacketWorld.class, PacketGeneratorWorld.class,
+            PheromoneWorld.class),
+        // A packet may also stand on a destination of its own color, which is checked separately
+        PACKET(CrumbWorld.class, PacketGeneratorWorld.class, ConveyorWorld.class, PheromoneWorld.class,
+            GradientWorld.class),
+        PHEROMONE(AgentWorld.class, CrumbWorld.class, FlagWorld.class, PacketWorld.class, PheromoneWorld.class,
+            GradientWorld.class),
+        WALL(),
+        // Only packets can stand on the same square as the generator
+        GENERATOR(PacketWorld.class),
+        // Only packets can stand on a conveyor belt
+        CONVEYOR(PacketWorld.class);
+
+        private final List<Class<?>> coexisting;
+
+        Rule(Class<?>... coexisting) {
+            this.coexisting = List.of(coexisting);
+        }
+
+        /**
+         * Check whether the items of the given world may stand on the same area as the item of this rule.
+         */
+        boolean canCoexistWith(World<?> world) {
+            return coexisting.stream().anyMatch(c -> c.isInstance(world));
         }
-        return true;
+    }
+
+
+    private static boolean canStandOn(Environment env, int x, int y, Rule rule) {
+        Occupancy occupancy = env.getOccupancy();
+        return (occupancy.get(x, y) & occupancy.getBlocking(rule)) == 0;
+    }
+
+    public static boolean agentCanStandOn(Environment env, int x, int y) {
+        return canStandOn(env, x, y, Rule.AGENT);
     }
 
     public static boolean areaValueCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof AgentWorld) &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w instanceof FlagWorld) &&
-                    !(w instanceof EnergyStationWorld) &&
-                    !(w instanceof PacketWorld) &&
-                    !(w instanceof PacketGeneratorWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return canStandOn(env, x, y, Rule.AREA_VALUE);
     }
 
     public static boolean crumbCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof AgentWorld) &&
-                    !(w instanceof FlagWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone) &&
-                    !(w.getItem(x, y) instanceof Gradient)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return canStandOn(env, x, y, Rule.CRUMB);
     }
 
     public static boolean destinationCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w.getItem(x, y) instanceof Gradient)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return canStandOn(env, x, y, Rule.DESTINATION);
     }
 
     public static boolean energyStationCanStandOn(Environment env, int x, int y) {
@@ -82,108 +88,48 @@ public class CollisionMatrix {
     }
 
     public static boolean flagCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof AgentWorld) &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone) &&
-                    !(w.getItem(x, y) instanceof Gradient)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return canStandOn(env, x, y, Rule.FLAG);
     }
 
     public static boolean gradientCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof AgentWorld) &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w instanceof FlagWorld) &&
-                    !(w instanceof PacketWorld) &&
-                    !(w instanceof PacketGeneratorWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return canStandOn(env, x, y, Rule.GRADIENT);
     }
 
     public static boolean packetCanStandOn(Environment env, int x, int y, Color color) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w instanceof DestinationWorld && ((DestinationRep) w.getItem(x, y).getRepresentation()).getColor() == color) &&
-                    !(w instanceof PacketGeneratorWorld) &&
-                    !(w instanceof ConveyorWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone) &&
-                    !(w.getItem(x, y) instanceof Gradient)
-            ) {
+        Occupancy occupancy = env.getOccupancy();
+        int blocked = occupancy.get(x, y) & occupancy.getBlocking(Rule.PACKET);
+        while (blocked != 0) {
+            int bit = Integer.lowestOneBit(blocked);
+            World<?> w = occupancy.getWorld(bit);
+            if (!(w instanceof DestinationWorld && ((DestinationRep) w.getItem(x, y).getRepresentation()).getColor() == color)) {
                 return false;
             }
+            blocked &= ~bit;
         }
         return true;
     }
 
     public static boolean pheromoneCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null &&
-                    !(w instanceof AgentWorld) &&
-                    !(w instanceof CrumbWorld) &&
-                    !(w instanceof FlagWorld) &&
-                    !(w instanceof PacketWorld) &&
-                    !(w.getItem(x, y) instanceof Pheromone) &&
-                    !(w.getItem(x, y) instanceof Gradient)
-            ) {
-                return false;
-            }
-        }
-        return true;
+        return canStandOn(env, x, y, Rule.PHEROMONE);
     }
 
 
     public static boolean wallCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null) {
-                return false;
-            }
-        }
-        return true;
+        return canStandOn(env, x, y, Rule.WALL);
     }
 
 
     public static boolean glassWallCanStandOn(Environment env, int x, int y) {
-        for (World<?> w : env.getWorlds()) {
-            if (w.getItem(x, y) != null) {
-                return false;
-            }
-        }
-        return true;
+        return canStandOn(env, x, y, Rule.WALL);
     }
 
 
     public static boolean generatorCanStandOn(Environment env, int x, int y) {
-        // Only packets can stand on the same square as the generator
-        for (World<?> w : env.getWorlds()) {
-            // If an item is present that is not in the PacketWorld --> collision
-            if (w.getItem(x, y) != null && !(w instanceof PacketWorld)) {
-                return false;
-            }
-        }
-        return true;
+        return canStandOn(env, x, y, Rule.GENERATOR);
     }
 
     
     public static boolean conveyorCanStandOn(Environment env, int x, int y) {
-        // Only packets can stand on a conveyor belt
-        for (World<?> w : env.getWorlds()) {
-            // If an item is present that is not in the PacketWorld --> collision
-            if (w.getItem(x, y) != null && !(w instanceof PacketWorld)) {
-                return false;
-            }
-        }
-        return true;
+        return canStandOn(env, x, y, Rule.CONVEYOR);
     }
 }
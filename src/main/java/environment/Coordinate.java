@@ -3,18 +3,95 @@ package environment;
 import java.util.*;
 import java.util.function.Predicate;
 
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
-
 import util.Pair;
 
 /**
  * A class to represent a 2-dimensional coordinate.
+ *
+ * Coordinates are immutable. The coordinates of the cells near the origin of a world (and the unit directions) are
+ * shared instances, returned by {@link #of(int, int)}, so that asking the coordinates of cells and items does not
+ * allocate. The results of arithmetic on coordinates are new instances, which the JIT compiler can do away with as
+ * long as they are short-lived. Where many coordinates have to be stored, they can be packed in a long instead
+ * (cfr. {@link #pack(int, int)}, {@link CoordinateSet} and {@link CoordinateMap}).
+ *
+ * A coordinate is still a pair of its x- and y-coordinate, so code using it as one keeps working. The coordinate itself
+ * and code calling {@link #getX()} and {@link #getY()} read them from unboxed fields instead.
  */
 public class Coordinate extends Pair<Integer, Integer> {
 
+    /**
+     * The smallest x- and y-coordinate of the shared instances.
+     */
+    private static final int CACHE_MIN = -1;
+
+    /**
+     * The number of x- and y-coordinates of the shared instances, starting from {@link #CACHE_MIN}.
+     */
+    private static final int CACHE_SIZE = 257;
+
+    private static final Coordinate[] CACHE = new Coordinate[CACHE_SIZE * CACHE_SIZE];
+
+    private final int x;
+    private final int y;
+
     public Coordinate(int x, int y) {
         super(x, y);
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Return a coordinate with the given x- and y-coordinate, which is a shared instance if the coordinates are close
+     * enough to the origin.
+     */
+    public static Coordinate of(int x, int y) {
+        int i = x - CACHE_MIN;
+        int j = y - CACHE_MIN;
+        if (i < 0 || i >= CACHE_SIZE || j < 0 || j >= CACHE_SIZE) {
+            return new Coordinate(x, y);
+        }
+        // Coordinates are immutable, so a race only leads to an extra instance
+        Coordinate result = CACHE[i * CACHE_SIZE + j];
+        if (result == null) {
+            result = new Coordinate(x, y);
+            CACHE[i * CACHE_SIZE + j] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Pack the given x- and y-coordinate in a single long.
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Return the x-coordinate of the given packed coordinates.
+     */
+    public static int unpackX(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * Return the y-coordinate of the given packed coordinates.
+     */
+    public static int unpackY(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Return the coordinate packed in the given long.
+     */
+    public static Coordinate unpack(long packed) {
+        return of(unpackX(packed), unpackY(packed));
+    }
+
+    /**
+     * Return this coordinate packed in a single long.
+     */
+    public long pack() {
+        return pack(x, y);
     }
 
     /**
@@ -25,14 +102,27 @@ public class Coordinate extends Pair<Integer, Integer> {
      * @return      A list of coordinates
      */
     public static List<Coordinate> string2Coordinates(String data){
-        Pattern p = Pattern.compile("\\d+"); // A pattern to search for int's...
-        Matcher m = p.matcher(data); // ... in the given string: data
         List<Coordinate> coordinates = new ArrayList<>();
-        while (m.find()) { // As long as a int can be found in this string
-            int x = Integer.parseInt(m.group()); // Save the x-coordinate
-            m.find(); // Find the next int
-            int y = Integer.parseInt(m.group()); // Save the y-coordinate
-            coordinates.add(new Coordinate(x, y)); // Store the coordinates in a list
+        int[] values = new int[2];
+        int nbValues = 0;
+        int i = 0;
+        while (i < data.length()) {
+            // Look for the next int in the string and parse it
+            if (!Character.isDigit(data.charAt(i))) {
+                i++;
+                continue;
+            }
+            int value = 0;
+            while (i < data.length() && Character.isDigit(data.charAt(i))) {
+                value = value * 10 + Character.digit(data.charAt(i), 10);
+                i++;
+            }
+            values[nbValues++] = value;
+            // Every second int is the y-coordinate of the coordinates to store in the list
+            if (nbValues == 2) {
+                coordinates.add(of(values[0], values[1]));
+                nbValues = 0;
+            }
         }
         return coordinates;
     }
@@ -58,35 +148,35 @@ public class Coordinate extends Pair<Integer, Integer> {
      * @return      The list of coordinates converted to the aforementioned string format
      */
     public static String coordinates2String(List<Coordinate> coordinatesList){
-        String data = "";
+        StringBuilder data = new StringBuilder();
         for(Coordinate coordinate: coordinatesList){
-            data += coordinate.toString();
+            data.append('(').append(coordinate.x).append(',').append(coordinate.y).append(')');
         }
-        return data;
+        return data.toString();
     }
 
     public int getX() {
-        return this.first;
+        return this.x;
     }
 
     public int getY() {
-        return this.second;
+        return this.y;
     }
 
     public String toString() {
-        return String.format("(%d,%d)", this.getX(), this.getY());
+        return "(" + x + "," + y + ")";
     }
 
     public Coordinate diff(Coordinate other) {
-        return new Coordinate(first - other.first, second - other.second);
+        return new Coordinate(x - other.x, y - other.y);
     }
 
     public Coordinate add(Coordinate other) {
-        return new Coordinate(first + other.first, second + other.second);
+        return new Coordinate(x + other.x, y + other.y);
     }
 
     public Coordinate divideBy(int divider) {
-        return new Coordinate((int) (first/divider), (int) (second/divider));
+        return new Coordinate(x / divider, y / divider);
     }
 
     /**
@@ -111,17 +201,18 @@ public class Coordinate extends Pair<Integer, Integer> {
      * @return          The distance between the 2 pair of coordinates
      */
     public int distanceFrom(Coordinate other, String method){
-        Coordinate diff = this.diff(other);
+        int diffX = x - other.x;
+        int diffY = y - other.y;
 
         if (method.equals("ManhattanDistance")){
-            return Math.abs(diff.getX()) + Math.abs(diff.getY());
+            return Math.abs(diffX) + Math.abs(diffY);
         }
 
 
         // As the agent can move diagonally, distances should be measured by the maximum of the
         // coordinates difference in absolute values.
         // if (method.equals("MaxCoordinateDistance"))
-        return Math.max(Math.abs(diff.getX()), Math.abs(diff.getY()));
+        return Math.max(Math.abs(diffX), Math.abs(diffY));
     }
 
     /**
@@ -143,25 +234,18 @@ public class Coordinate extends Pair<Integer, Integer> {
     }
 
     public boolean any(Predicate<Integer> pred) {
-        return pred.test(first) || pred.test(second);
+        return pred.test(x) || pred.test(y);
     }
 
     public boolean all(Predicate<Integer> pred) {
-        return pred.test(first) && pred.test(second);
+        return pred.test(x) && pred.test(y);
     }
 
     /**
      * Returns a new Coordinate containing the sign of this (-1, 0 or 1)
      */
     public Coordinate sign() {
-        int newFst = 0, newSnd = 0;
-
-        if (first != 0)
-            newFst = first < 0 ? -1 : 1;
-        if (second != 0)
-            newSnd = second < 0 ? -1 : 1;
-
-        return new Coordinate(newFst, newSnd);
+        return new Coordinate(Integer.signum(x), Integer.signum(y));
     }
 
 
@@ -170,15 +254,13 @@ public class Coordinate extends Pair<Integer, Integer> {
         if (! (other instanceof Coordinate casted))
             return false;
 
-        if (casted.getX() != getX())
-            return false;
-
-        return casted.getY() == getY();
+        return casted.x == x && casted.y == y;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(first, second);
+        // The same hash code as Objects.hash(x, y), without boxing
+        return 31 * (31 + x) + y;
     }
 
 }
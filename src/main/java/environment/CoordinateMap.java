@@ -0,0 +1,155 @@
+package environment;
+
+import java.util.Arrays;
+
+/**
+ * A map from coordinates, packed in longs (cfr. {@link Coordinate#pack(int, int)}), to values.
+ * The coordinates are looked up in an open addressing hash table, so no objects are allocated to put or get values.
+ *
+ * @param <V> The type of the values.
+ */
+public class CoordinateMap<V> {
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+
+    /**
+     * Initialize a new, empty map.
+     */
+    public CoordinateMap() {
+        this(16);
+    }
+
+    /**
+     * Initialize a new, empty map which can hold the given number of coordinates before it has to grow.
+     */
+    public CoordinateMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) * 2;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.size = 0;
+        Arrays.fill(keys, CoordinateSet.FREE);
+    }
+
+
+    /**
+     * Return the number of coordinates in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether this map holds no coordinates.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Check whether this map holds a value for the given coordinates.
+     */
+    public boolean containsKey(int x, int y) {
+        long packed = Coordinate.pack(x, y);
+        return keys[CoordinateSet.slotOf(keys, packed)] == packed;
+    }
+
+    public boolean containsKey(Coordinate coordinate) {
+        return containsKey(coordinate.getX(), coordinate.getY());
+    }
+
+    /**
+     * Return the value for the given coordinates, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int x, int y) {
+        long packed = Coordinate.pack(x, y);
+        int slot = CoordinateSet.slotOf(keys, packed);
+        return keys[slot] == packed ? (V) values[slot] : null;
+    }
+
+    public V get(Coordinate coordinate) {
+        return get(coordinate.getX(), coordinate.getY());
+    }
+
+    /**
+     * Set the value for the given coordinates.
+     *
+     * @return The previous value for the given coordinates, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int x, int y, V value) {
+        long packed = Coordinate.pack(x, y);
+        int slot = CoordinateSet.slotOf(keys, packed);
+        if (keys[slot] == packed) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        keys[slot] = packed;
+        values[slot] = value;
+        size++;
+        if (2 * size > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    public V put(Coordinate coordinate, V value) {
+        return put(coordinate.getX(), coordinate.getY(), value);
+    }
+
+    /**
+     * Remove the value for the given coordinates, if any.
+     *
+     * @return The removed value, or null if there was none.
+     */
+    public V remove(int x, int y) {
+        long packed = Coordinate.pack(x, y);
+        V previous = get(x, y);
+        if (CoordinateSet.removeFromTable(keys, packed, new CoordinateSet.SlotMover() {
+            @Override
+            public void move(int from, int to) {
+                values[to] = values[from];
+            }
+
+            @Override
+            public void clear(int slot) {
+                values[slot] = null;
+            }
+        })) {
+            size--;
+        }
+        return previous;
+    }
+
+    public V remove(Coordinate coordinate) {
+        return remove(coordinate.getX(), coordinate.getY());
+    }
+
+    /**
+     * Remove all coordinates from this map.
+     */
+    public void clear() {
+        Arrays.fill(keys, CoordinateSet.FREE);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        Arrays.fill(keys, CoordinateSet.FREE);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != CoordinateSet.FREE) {
+                int slot = CoordinateSet.slotOf(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
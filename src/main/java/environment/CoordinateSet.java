@@ -0,0 +1,233 @@
+package environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A set of coordinates packed in longs (cfr. {@link Coordinate#pack(int, int)}), which remembers the order in which
+ * they were added.
+ * The coordinates are kept in the order they were added in an array, and are looked up in an open addressing hash
+ * table, so no objects are allocated to add or look up coordinates. Removing coordinates takes time linear in the
+ * size of the set.
+ */
+public class CoordinateSet {
+
+    /**
+     * The value of a free slot of the hash table. No coordinates within a world are packed into this value.
+     */
+    static final long FREE = Long.MIN_VALUE;
+
+    private long[] order;
+    private int size;
+    private long[] table;
+
+
+    /**
+     * Initialize a new, empty set of coordinates.
+     */
+    public CoordinateSet() {
+        this.order = new long[16];
+        this.size = 0;
+        this.table = new long[32];
+        Arrays.fill(table, FREE);
+    }
+
+
+    /**
+     * Return the number of coordinates in this set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether this set holds no coordinates.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Check whether this set holds the given coordinates.
+     */
+    public boolean contains(int x, int y) {
+        long packed = Coordinate.pack(x, y);
+        return table[slotOf(table, packed)] == packed;
+    }
+
+    public boolean contains(Coordinate coordinate) {
+        return contains(coordinate.getX(), coordinate.getY());
+    }
+
+    /**
+     * Add the given coordinates to this set, if they are not in it yet.
+     *
+     * @return True if the coordinates were not in this set yet.
+     */
+    public boolean add(int x, int y) {
+        long packed = Coordinate.pack(x, y);
+        int slot = slotOf(table, packed);
+        if (table[slot] == packed) {
+            return false;
+        }
+        table[slot] = packed;
+        if (size == order.length) {
+            order = Arrays.copyOf(order, size * 2);
+        }
+        order[size++] = packed;
+        if (2 * size > table.length) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    public boolean add(Coordinate coordinate) {
+        return add(coordinate.getX(), coordinate.getY());
+    }
+
+    /**
+     * Remove the given coordinates from this set, if they are in it.
+     *
+     * @return True if the coordinates were in this set.
+     */
+    public boolean remove(int x, int y) {
+        long packed = Coordinate.pack(x, y);
+        if (!removeFromTable(table, packed)) {
+            return false;
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            if (order[i] == packed) {
+                System.arraycopy(order, i + 1, order, i, size - i - 1);
+                size--;
+                break;
+            }
+        }
+        return true;
+    }
+
+    public boolean remove(Coordinate coordinate) {
+        return remove(coordinate.getX(), coordinate.getY());
+    }
+
+    /**
+     * Remove all coordinates from this set.
+     */
+    public void clear() {
+        size = 0;
+        Arrays.fill(table, FREE);
+    }
+
+    /**
+     * Return the coordinates that were added at the given position, 0 being the first coordinates that were added.
+     *
+     * @throws IndexOutOfBoundsException if the index is not smaller than the size of this set
+     */
+    public Coordinate get(int index) {
+        return Coordinate.unpack(getPacked(index));
+    }
+
+    /**
+     * Return the packed coordinates that were added at the given position, 0 being the first coordinates that were
+     * added.
+     *
+     * @throws IndexOutOfBoundsException if the index is not smaller than the size of this set
+     */
+    public long getPacked(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for size %d", index, size));
+        }
+        return order[index];
+    }
+
+    /**
+     * Return the coordinates of this set, in the order they were added.
+     */
+    public List<Coordinate> toList() {
+        List<Coordinate> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(Coordinate.unpack(order[i]));
+        }
+        return result;
+    }
+
+    private void rehash(int capacity) {
+        table = new long[capacity];
+        Arrays.fill(table, FREE);
+        for (int i = 0; i < size; i++) {
+            table[slotOf(table, order[i])] = order[i];
+        }
+    }
+
+
+    // Open addressing with linear probing, shared with CoordinateMap
+
+    /**
+     * Return the slot of the given hash table holding the given packed coordinates, or the free slot where they
+     * belong. The length of the table is a power of two, and the table has at least one free slot.
+     */
+    static int slotOf(long[] table, long packed) {
+        int mask = table.length - 1;
+        int slot = hash(packed) & mask;
+        while (table[slot] != FREE && table[slot] != packed) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Remove the given packed coordinates from the given hash table, by moving back the entries that follow them in
+     * their run of slots.
+     *
+     * @param moved Called with the old and new slot of every entry that is moved back, or null.
+     * @return True if the coordinates were in the table.
+     */
+    static boolean removeFromTable(long[] table, long packed, SlotMover moved) {
+        int slot = slotOf(table, packed);
+        if (table[slot] != packed) {
+            return false;
+        }
+        int mask = table.length - 1;
+        int free = slot;
+        for (int next = (free + 1) & mask; table[next] != FREE; next = (next + 1) & mask) {
+            int home = hash(table[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                table[free] = table[next];
+                if (moved != null) {
+                    moved.move(next, free);
+                }
+                free = next;
+            }
+        }
+        table[free] = FREE;
+        if (moved != null) {
+            moved.clear(free);
+        }
+        return true;
+    }
+
+    static boolean removeFromTable(long[] table, long packed) {
+        return removeFromTable(table, packed, null);
+    }
+
+    static int hash(long packed) {
+        long h = packed * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Keeps the values belonging to the slots of a hash table in line with the table when an entry is removed.
+     */
+    interface SlotMover {
+
+        /**
+         * The entry in the slot 'from' has been moved to the slot 'to'.
+         */
+        void move(int from, int to);
+
+        /**
+         * The slot has been freed.
+         */
+        void clear(int slot);
+    }
+}
@@ -1,9 +1,13 @@
 package environment;
 
+/**
+ * The handler for perception outcomes. Since handling these only consists of notifying the sending sphere, this handler
+ * is inline: it needs no thread of its own, and a full sphere of perception outcomes is handled on the collector thread.
+ */
 public class EOPHandler extends Handler<EOPSet> {
 
     public EOPHandler() {
-        super();
+        super(true);
     }
 
     protected void process(EOPSet toBeHandled) {
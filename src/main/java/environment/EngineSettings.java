@@ -0,0 +1,283 @@
+package environment;
+
+import java.io.FileInputStream;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import util.Variables;
+
+/**
+ * The settings of the simulation engine, as listed in the 'engine.properties' configuration file.
+ * Every setting can be overridden by a system property with the same name.
+ */
+public class EngineSettings {
+
+    private static final Logger logger = Logger.getLogger(EngineSettings.class.getName());
+
+    private static final Properties properties = loadProperties();
+
+
+    /**
+     * The ways in which the phases of the active items can be executed.
+     */
+    public enum EngineMode {
+        /**
+         * Every active item runs on its own thread, synchronized by the collector through spheres.
+         */
+        SPHERES,
+        /**
+         * One scheduler thread executes the phases of all active items in lockstep.
+         */
+        LOCKSTEP
+    }
+
+    /**
+     * The kinds of threads on which the active items, the collector and the handlers run.
+     */
+    public enum ThreadMode {
+        /**
+         * Ordinary platform threads, one operating system thread each.
+         */
+        PLATFORM,
+        /**
+         * Virtual threads, multiplexed on a small pool of carrier threads (requires a Java 21+ runtime).
+         */
+        VIRTUAL
+    }
+
+    /**
+     * The ways in which the sync sets of the active items are formed.
+     */
+    public enum SyncMode {
+        /**
+         * Every active item is synchronized with all other active items.
+         */
+        CENTRAL,
+        /**
+         * Every active item is synchronized with the active items within the sync range of its position.
+         */
+        PROXIMITY
+    }
+
+    /**
+     * The ways in which the collector takes outcomes from its buffer.
+     */
+    public enum CollectorDrain {
+        /**
+         * One outcome is processed every time the collector thread checks its buffer.
+         */
+        SINGLE,
+        /**
+         * All outcomes in the buffer are processed in one pass before the collector thread checks it again.
+         */
+        BATCH
+    }
+
+    /**
+     * The ways in which the reactor effectuates the influences of a sphere.
+     */
+    public enum ReactorMode {
+        /**
+         * All influences are validated and effectuated one by one on the reactor thread.
+         */
+        SEQUENTIAL,
+        /**
+         * The grid is divided in tiles, and groups of influences acting on different tiles are validated and
+         * effectuated in parallel.
+         */
+        TILED
+    }
+
+
+    /**
+     * The ways in which the perception reactor builds the perceptions of the active items.
+     */
+    public enum PerceptionMode {
+        /**
+         * Every perception is built from scratch.
+         */
+        FULL,
+        /**
+         * The perception of every active item is kept between its turns, and only the cells that changed or entered
+         * its view since its previous turn are read again.
+         */
+        INCREMENTAL
+    }
+
+
+    /**
+     * The ways in which the perceptions of the active items are scheduled.
+     */
+    public enum PerceptionStageMode {
+        /**
+         * Every active item builds its own perception on its own thread, at the start of its perception phase.
+         */
+        INDIVIDUAL,
+        /**
+         * Once the actions of a group of active items have been effectuated, the reactor builds all their perceptions
+         * in parallel from the same state of the worlds (cfr. {@link PerceptionStage}).
+         */
+        BATCH
+    }
+
+
+    /**
+     * The ways in which agents search the shortest paths through the cells they know (cfr. agent.utils.PathFinder).
+     */
+    public enum PathFindingMode {
+        /**
+         * A* over the grid of known cells, with the nodes indexed by cell and the costs in primitive arrays.
+         */
+        GRID,
+        /**
+         * A* over virtual states of the agent, every state holding a copy of the paths that led to it.
+         */
+        STATES,
+        /**
+         * A* over the grid of known cells, restricted to the clusters of an abstract path through the cells the agent
+         * has discovered (cfr. agent.utils.ClusterGraph) over long distances.
+         */
+        HIERARCHICAL
+    }
+
+    /**
+     * The ways in which agents find their way to a destination for the packet they carry
+     * (cfr. agent.behavior.task_coordination.Deliver).
+     */
+    public enum DeliveryRouting {
+        /**
+         * A shortest path through the cells the agent knows, searched with A* whenever the agent has none.
+         */
+        PATHS,
+        /**
+         * A step down the distance field of the color of the packet, shared by all agents of the environment
+         * (cfr. agent.utils.DistanceFieldCache).
+         */
+        FIELDS
+    }
+
+
+    private static Properties loadProperties() {
+        Properties result = new Properties();
+        try (FileInputStream sf = new FileInputStream(Variables.ENGINE_PROPERTIES_FILE)) {
+            result.load(sf);
+        } catch (Exception e) {
+            logger.warning(String.format("Could not read engine properties file, using defaults: %s", e));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the value of the given setting. System properties take precedence over the configuration file.
+     *
+     * @param key          The name of the setting.
+     * @param defaultValue The value to return if the setting is not specified anywhere.
+     */
+    public static String get(String key, String defaultValue) {
+        return System.getProperty(key, properties.getProperty(key, defaultValue)).trim();
+    }
+
+    /**
+     * Returns the value of the given setting as an integer. Invalid values are reported and replaced by the given default.
+     *
+     * @param key          The name of the setting.
+     * @param defaultValue The value to return if the setting is not specified or not valid.
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, String.valueOf(defaultValue));
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.severe(String.format("Invalid value '%s' for %s, falling back to %d.", value, key, defaultValue));
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the value of the given setting as a constant of the given enum type, ignoring case.
+     * Unknown values are reported and replaced by the given default.
+     *
+     * @param key          The name of the setting.
+     * @param defaultValue The value to return if the setting is not specified or not valid.
+     */
+    public static <E extends Enum<E>> E getEnum(String key, E defaultValue) {
+        String value = get(key, defaultValue.name());
+        try {
+            return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.severe(String.format("Unknown value '%s' for %s, falling back to %s.",
+                value, key, defaultValue.name().toLowerCase()));
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Returns the mode in which the phases of the active items are executed.
+     */
+    public static EngineMode getEngineMode() {
+        return getEnum("engine.mode", EngineMode.SPHERES);
+    }
+
+    /**
+     * Returns the kind of threads on which the engine runs.
+     */
+    public static ThreadMode getThreadMode() {
+        return getEnum("engine.threads", ThreadMode.PLATFORM);
+    }
+
+    /**
+     * Returns the way in which the sync sets of the active items are formed.
+     */
+    public static SyncMode getSyncMode() {
+        return getEnum("engine.sync", SyncMode.CENTRAL);
+    }
+
+    /**
+     * Returns the way in which the collector takes outcomes from its buffer.
+     */
+    public static CollectorDrain getCollectorDrain() {
+        return getEnum("engine.collector.drain", CollectorDrain.BATCH);
+    }
+
+    /**
+     * Returns the way in which the reactor effectuates influences.
+     */
+    public static ReactorMode getReactorMode() {
+        return getEnum("engine.reactor", ReactorMode.SEQUENTIAL);
+    }
+
+    /**
+     * Returns the way in which the perceptions of the active items are built.
+     */
+    public static PerceptionMode getPerceptionMode() {
+        return getEnum("engine.perception", PerceptionMode.FULL);
+    }
+
+    /**
+     * Returns the way in which the perceptions of the active items are scheduled.
+     */
+    public static PerceptionStageMode getPerceptionStageMode() {
+        return getEnum("engine.perception.stage", PerceptionStageMode.INDIVIDUAL);
+    }
+
+    /**
+     * Returns the way in which agents search the shortest paths through the cells they know.
+     */
+    public static PathFindingMode getPathFindingMode() {
+        return getEnum("agent.pathfinding", PathFindingMode.GRID);
+    }
+
+    /**
+     * Returns the number of cells along the side of a cluster in hierarchical path finding.
+     */
+    public static int getClusterSize() {
+        return Math.max(2, getInt("agent.pathfinding.cluster", 16));
+    }
+
+    /**
+     * Returns the way in which agents find their way to a destination.
+     */
+    public static DeliveryRouting getDeliveryRouting() {
+        return getEnum("agent.delivery", DeliveryRouting.PATHS);
+    }
+}
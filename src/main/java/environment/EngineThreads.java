@@ -0,0 +1,51 @@
+package environment;
+
+import java.lang.reflect.Method;
+import java.util.logging.Logger;
+
+/**
+ * Starts the threads of the engine (active items, collector, handlers and lockstep scheduler) as either platform
+ * or virtual threads, depending on the 'engine.threads' setting.
+ * The project is compiled for Java 17, so virtual threads are started reflectively. When the runtime does not
+ * support them, platform threads are used instead.
+ */
+class EngineThreads {
+
+    private static final Logger logger = Logger.getLogger(EngineThreads.class.getName());
+
+    private static final Method startVirtualThread = findStartVirtualThread();
+
+
+    private static Method findStartVirtualThread() {
+        if (EngineSettings.getThreadMode() != EngineSettings.ThreadMode.VIRTUAL) {
+            return null;
+        }
+        try {
+            return Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException e) {
+            logger.severe(String.format("Virtual threads are not supported by Java %s, falling back to platform threads.",
+                Runtime.version().feature()));
+            return null;
+        }
+    }
+
+    /**
+     * Start a new thread executing the given task.
+     *
+     * @param task The task to execute.
+     * @return The started thread.
+     */
+    static Thread start(Runnable task) {
+        if (startVirtualThread != null) {
+            try {
+                return (Thread) startVirtualThread.invoke(null, task);
+            } catch (ReflectiveOperationException e) {
+                logger.severe(String.format("Could not start virtual thread: %s", e));
+                throw new RuntimeException(e);
+            }
+        }
+        Thread thread = new Thread(task);
+        thread.start();
+        return thread;
+    }
+}
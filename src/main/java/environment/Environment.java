@@ -2,10 +2,16 @@ package environment;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 import com.google.common.eventbus.EventBus;
 
 import environment.world.agent.Agent;
@@ -45,6 +51,12 @@ public class Environment {
      */
     protected PerceptionReactor pReactor;
 
+    /**
+     * The stage building the perceptions of groups of active items at once, or null if every active item builds its
+     * own perception.
+     */
+    private PerceptionStage perceptionStage;
+
     /**
      * The collector of this environment
      */
@@ -60,6 +72,11 @@ public class Environment {
      */
     protected PostalService postalService;
 
+    /**
+     * The scheduler running all active items in lockstep (only in lockstep engine mode)
+     */
+    protected LockstepScheduler lockstepScheduler;
+
     /**
      * Clock
      */
@@ -81,12 +98,27 @@ public class Environment {
      */
     private List<World<?>> worlds;
 
+    /**
+     * The worlds having an item on each cell
+     */
+    private Occupancy occupancy;
+
     /**
      * All the active items this environment contains
      * invar: aItem contains only ActiveItems
      */
     private final List<ActiveItem<?>> aItems;
 
+    /**
+     * The active items of this environment by their ID
+     */
+    private final Map<ActiveItemID, ActiveItem<?>> aItemsByID;
+
+    /**
+     * The worlds of this environment by their class
+     */
+    private final Map<Class<?>, World<?>> worldsByClass;
+
 
     private final Logger logger = Logger.getLogger(Environment.class.getName());
 
@@ -104,7 +136,10 @@ public class Environment {
         this.width = widthAmount;
         this.height = heightAmount;
         this.worlds = new ArrayList<>();
+        this.occupancy = createOccupancy();
         this.aItems = new ArrayList<>();
+        this.aItemsByID = new ConcurrentHashMap<>();
+        this.worldsByClass = new HashMap<>();
     }
 
     //--------------------------------------------------------------------------
@@ -128,13 +163,33 @@ public class Environment {
      * @return          a perception for the ActiveItem with ID <code>aItemID</code>
      */
     public Perception getPerception(ActiveItemID aItemID) {
-        for (ActiveItem<?> activeItem : getActiveItems()) {
-            if (activeItem.getID() == aItemID) {
-                return pReactor.getPerception(activeItem);
-            }
+        ActiveItem<?> activeItem = aItemsByID.get(aItemID);
+        if (activeItem == null) {
+            this.logger.severe("No ActiveItem found by that ID.");
+            throw new RuntimeException(String.format("No ActiveItem found by ID %d", aItemID.getID()));
+        }
+        return pReactor.getPerception(activeItem);
+    }
+
+    /**
+     * Returns the perception of the active item with the given ID for its turn. Unlike {@link #getPerception}, this
+     * may reuse the perception of the previous turn of the active item (cfr. {@link PerceptionReactor#perceive}), so
+     * it is only to be called by the active item itself. If the perception has already been built by the perception
+     * stage, that one is handed out.
+     *
+     * @param  aItemID  the ID of the active item that requires the perception
+     */
+    Perception perceive(ActiveItemID aItemID) {
+        Perception prepared = perceptionStage == null ? null : perceptionStage.take(aItemID);
+        if (prepared != null) {
+            return prepared;
         }
-        this.logger.severe("No ActiveItem found by that ID.");
-        throw new RuntimeException(String.format("No ActiveItem found by ID %d", aItemID.getID()));
+        ActiveItem<?> activeItem = aItemsByID.get(aItemID);
+        if (activeItem == null) {
+            this.logger.severe("No ActiveItem found by that ID.");
+            throw new RuntimeException(String.format("No ActiveItem found by ID %d", aItemID.getID()));
+        }
+        return pReactor.perceive(activeItem);
     }
 
     /**
@@ -149,13 +204,11 @@ public class Environment {
      */
     @SuppressWarnings("unchecked")
     public <T extends World<?>> T getWorld(Class<T> worldClass) {
-        for (World<?> w : worlds) {
-            if (w.getClass() == worldClass) {
-                return (T) w;
-            }
+        World<?> w = worldsByClass.get(worldClass);
+        if (w == null) {
+            throw new RuntimeException("Could not find world class: " + worldClass.getName());
         }
-
-        throw new RuntimeException("Could not find world class: " + worldClass.getName());
+        return (T) w;
     }
 
     /**
@@ -168,6 +221,18 @@ public class Environment {
         return getAgentWorld().getNbAgents();
     }
 
+    /**
+     * Returns how far the simulation in this Environment has progressed.
+     * The packet counters are kept up to date by the influences that move packets around, so this takes constant
+     * time. The snapshot is consistent when taken between two cycles.
+     */
+    public SimulationProgress getProgress() {
+        PacketWorld packetWorld = getPacketWorld();
+        PacketGeneratorWorld generatorWorld = getPacketGeneratorWorld();
+        return new SimulationProgress(packetWorld.getNbPackets(), generatorWorld.getNbPacketsBuffered(),
+            generatorWorld.getNbPacketsToGenerate(), packetWorld.getNbPacketsDelivered());
+    }
+
 
     /**
      * Retrieve a list of all agent Ids present in this environment.
@@ -204,7 +269,32 @@ public class Environment {
      * @return   (getItemsOnPos(x, y) == null)
      */
     public boolean isFreePos(int x, int y) {
-        return getWorlds().stream().allMatch(w -> w.getItem(x, y) == null);
+        return occupancy.get(x, y) == 0;
+    }
+
+    /**
+     * Create an empty occupancy layer for the worlds of this Environment. Incremental perceptions need the version of
+     * every cell.
+     */
+    private Occupancy createOccupancy() {
+        return new Occupancy(width, height,
+            EngineSettings.getPerceptionMode() == EngineSettings.PerceptionMode.INCREMENTAL);
+    }
+
+    /**
+     * Returns the stage building the perceptions of groups of active items at once, or null if every active item
+     * builds its own perception.
+     */
+    @Nullable
+    PerceptionStage getPerceptionStage() {
+        return perceptionStage;
+    }
+
+    /**
+     * Returns the occupancy layer of this Environment, which tells which worlds have an item on each cell.
+     */
+    Occupancy getOccupancy() {
+        return occupancy;
     }
 
     /**
@@ -238,15 +328,29 @@ public class Environment {
         clock = new Clock();
         this.logger.fine("clock set");
 
-        reactor = new Reactor(this, applicationRunner, eventBus);
+        // The lockstep scheduler hands every phase to the reactor and postal service itself, so they need no threads
+        boolean lockstep = EngineSettings.getEngineMode() == EngineSettings.EngineMode.LOCKSTEP;
+
+        reactor = new Reactor(this, applicationRunner, eventBus, lockstep);
         this.logger.fine("reactor set");
 
         pReactor = new PerceptionReactor(this);
         this.logger.fine("perceptionReactor set");
 
-        postalService = new PostalService(getAgentImplementations(), eventBus);
+        if (EngineSettings.getPerceptionStageMode() == EngineSettings.PerceptionStageMode.BATCH) {
+            perceptionStage = new PerceptionStage(this, pReactor);
+            this.logger.fine("perceptionStage set");
+        }
+
+        postalService = new PostalService(getAgentImplementations(), eventBus, lockstep);
         this.logger.fine("postalService set");
 
+        if (lockstep) {
+            lockstepScheduler = new LockstepScheduler(reactor, postalService);
+            this.logger.fine("lockstepScheduler set");
+            return;
+        }
+
         eopHandler = new EOPHandler();
         this.logger.fine("eopHandler set");
 
@@ -297,6 +401,8 @@ public class Environment {
      */
     public <T extends World<?>> void addWorld(T world) {
         worlds.add(world);
+        worldsByClass.putIfAbsent(world.getClass(), world);
+        world.setOccupancy(occupancy, occupancy.register(world));
     }
 
     /**
@@ -306,7 +412,11 @@ public class Environment {
      * @param outcome  the outcome to put in the collector's buffer
      */
     public void collectOutcome(Outcome outcome) {
-        collector.collectOutcome(outcome);
+        if (lockstepScheduler != null) {
+            lockstepScheduler.collectOutcome(outcome);
+        } else {
+            collector.collectOutcome(outcome);
+        }
     }
 
 
@@ -314,14 +424,55 @@ public class Environment {
      * Tells the collector to print the sphereSet
      */
     public void printSphereSet() { // only for testing
-        collector.printSphereSet();
+        if (collector != null) {
+            collector.printSphereSet();
+        }
     }
 
     public void finish() {
+        logPipelineStatistics();
+        this.logger.info(getMemoryStatistics());
         reactor.finish();
-        eopHandler.finish();
-        collector.finish();
         postalService.finish();
+        if (lockstepScheduler != null) {
+            lockstepScheduler.finish();
+        } else {
+            eopHandler.finish();
+            collector.finish();
+        }
+    }
+
+    /**
+     * Log the queue depth and service time of every stage that handles outcomes, and the time spent applying each
+     * law.
+     */
+    public void logPipelineStatistics() {
+        if (collector != null) {
+            this.logger.info(String.format("Collector: %d outcomes waiting, %d spheres",
+                collector.getNbInBuffer(), collector.getNbSpheres()));
+            this.logger.info(eopHandler.getStatistics());
+        }
+        this.logger.info(postalService.getStatistics());
+        this.logger.info(reactor.getStatistics());
+        this.logger.info(reactor.getLawStatistics());
+        this.logger.info(pReactor.getLawStatistics());
+    }
+
+    /**
+     * Returns the estimated number of bytes taken up by the storage of every world and by the occupancy layer, one
+     * layer per line.
+     */
+    public String getMemoryStatistics() {
+        StringBuilder result = new StringBuilder("Memory per layer:");
+        long total = 0;
+        for (World<?> world : worlds) {
+            long bytes = world.getMemoryFootprint();
+            total += bytes;
+            result.append(String.format("%n  %s (%s): %,d bytes", world.getClass().getSimpleName(), world.getStorageType().name().toLowerCase(), bytes));
+        }
+        total += occupancy.getMemoryFootprint();
+        result.append(String.format("%n  occupancy: %,d bytes%n  total: %,d bytes", occupancy.getMemoryFootprint(), total));
+        return result.toString();
     }
 
     //--------------------------------------------------------------------------
@@ -421,6 +572,14 @@ public class Environment {
         return this.reactor;
     }
 
+    /**
+     * Gets the lockstep scheduler of this Environment
+     * @return the lockstep scheduler, or null if the active items run on threads of their own
+     */
+    LockstepScheduler getLockstepScheduler() {
+        return this.lockstepScheduler;
+    }
+
     /**
      * Gets the height of each world in this Environment.
      * @return This Environment's size
@@ -477,6 +636,12 @@ public class Environment {
      */
     protected void setWorlds(List<World<?>> worlds) {
         this.worlds = worlds;
+        this.worldsByClass.clear();
+        this.occupancy = createOccupancy();
+        for (World<?> world : worlds) {
+            worldsByClass.putIfAbsent(world.getClass(), world);
+            world.setOccupancy(occupancy, occupancy.register(world));
+        }
     }
 
     /**
@@ -485,6 +650,7 @@ public class Environment {
      */
     public void addActiveItem(ActiveItem<?> aItem) {
         aItems.add(aItem);
+        aItemsByID.put(aItem.getID(), aItem);
     }
 
     /**
@@ -507,14 +673,28 @@ public class Environment {
     }
 
 
+    /**
+     * Returns the active item with the given ID, or null if it is not (or no longer) part of this Environment.
+     */
+    @Nullable
+    ActiveItem<?> findActiveItem(ActiveItemID id) {
+        return aItemsByID.get(id);
+    }
+
     public ActiveItem<?> getActiveItem(ActiveItemID id) {
-        return this.getActiveItems().stream()
-            .filter(i -> i.getID() == id)
-            .findFirst().orElseThrow();
+        ActiveItem<?> aItem = aItemsByID.get(id);
+        if (aItem == null) {
+            throw new NoSuchElementException(String.format("No ActiveItem found by ID %d", id.getID()));
+        }
+        return aItem;
     }
 
     public void removeActiveItem(ActiveItem<?> aItem) {
         aItems.remove(aItem);
+        aItemsByID.remove(aItem.getID(), aItem);
+        if (pReactor != null) {
+            pReactor.forget(aItem);
+        }
     }
 
     public static int chebyshevDistance(Coordinate pos1, Coordinate pos2) {
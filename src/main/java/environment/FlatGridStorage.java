@@ -0,0 +1,54 @@
+package environment;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A grid storage holding all cells in one array, row by row: the item at (x, y) is found at index y * width + x.
+ * It suits layers of which many cells are taken.
+ */
+class FlatGridStorage implements GridStorage {
+
+    private final Object[] cells;
+    private final int width;
+
+
+    FlatGridStorage(int width, int height) {
+        this(new Object[width * height], width);
+    }
+
+    private FlatGridStorage(Object[] cells, int width) {
+        this.cells = cells;
+        this.width = width;
+    }
+
+
+    @Override
+    public Object get(int x, int y) {
+        return cells[y * width + x];
+    }
+
+    @Override
+    public void set(int x, int y, Object item) {
+        cells[y * width + x] = item;
+    }
+
+    @Override
+    public void forEach(Consumer<Object> action) {
+        for (Object item : cells) {
+            if (item != null) {
+                action.accept(item);
+            }
+        }
+    }
+
+    @Override
+    public GridStorage copy() {
+        return new FlatGridStorage(Arrays.copyOf(cells, cells.length), width);
+    }
+
+    @Override
+    public long getMemoryFootprint() {
+        return ARRAY_HEADER_SIZE + (long) cells.length * REFERENCE_SIZE;
+    }
+}
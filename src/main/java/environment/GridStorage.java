@@ -0,0 +1,59 @@
+package environment;
+
+import java.util.function.Consumer;
+
+/**
+ * The cells of a world, each holding at most one item.
+ */
+interface GridStorage {
+
+    /**
+     * The estimated size of a reference, in bytes (assuming compressed references).
+     */
+    int REFERENCE_SIZE = 4;
+
+    /**
+     * The estimated size of the header of an array, in bytes.
+     */
+    int ARRAY_HEADER_SIZE = 16;
+
+
+    /**
+     * Return the item on the given cell, or null if there is none.
+     *
+     * @pre The coordinates are within the bounds of this storage.
+     */
+    Object get(int x, int y);
+
+    /**
+     * Put the given item (possibly null) on the given cell.
+     *
+     * @pre The coordinates are within the bounds of this storage.
+     */
+    void set(int x, int y, Object item);
+
+    /**
+     * Pass every item in this storage to the given action, row by row.
+     */
+    void forEach(Consumer<Object> action);
+
+    /**
+     * Return a copy of this storage, holding the same items.
+     */
+    GridStorage copy();
+
+    /**
+     * Return the estimated number of bytes taken up by this storage, not counting the items themselves.
+     */
+    long getMemoryFootprint();
+
+    /**
+     * Create an empty storage of the given type and dimensions.
+     */
+    static GridStorage create(World.StorageType type, int width, int height) {
+        return switch (type) {
+            case FLAT -> new FlatGridStorage(width, height);
+            case CHUNKED -> new ChunkedGridStorage(width, height);
+        };
+    }
+}
@@ -1,73 +1,103 @@
 package environment;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
 
+/**
+ * A stage in the pipeline that handles the contents of full spheres. Deposited sets are put in a bounded blocking
+ * queue, which the thread of the handler drains in batches. A handler can also be inline, in which case it has no
+ * thread nor queue of its own and handles deposited sets immediately on the depositing thread.
+ * Every handler keeps track of its queue depth and the time spent processing, so it can be seen where a cycle waits.
+ */
 public abstract class Handler<T extends ToHandle> implements Runnable {
 
-    protected final Queue<T> inbox;
-    protected int nbInInBox;
-    protected final Object dummy = new Object();
-    protected boolean suspendRequested;
-    protected boolean running;
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    protected final BlockingQueue<T> inbox;
+    protected volatile boolean running;
+
+    private final AtomicInteger maxQueueDepth;
+    private final AtomicLong nbProcessed;
+    private final AtomicLong serviceTime;
+
+    private final Logger logger = Logger.getLogger(Handler.class.getName());
+
 
     public Handler() {
-        inbox = new LinkedList<>();
-        nbInInBox = 0;
-        Thread t = new Thread(this);
-        suspendRequested = true;
-        t.start();
+        this(false);
     }
 
-    synchronized void deposit(T toBeHandled) {
-        inbox.add(toBeHandled);
-        nbInInBox++;
-        if (suspendRequested) {
-            requestResume();
+    /**
+     * Initialize a new handler.
+     *
+     * @param inline Whether deposited sets are handled on the depositing thread instead of on a thread of this handler.
+     */
+    protected Handler(boolean inline) {
+        maxQueueDepth = new AtomicInteger(0);
+        nbProcessed = new AtomicLong(0);
+        serviceTime = new AtomicLong(0);
+        running = true;
+        if (inline) {
+            inbox = null;
+        } else {
+            inbox = new ArrayBlockingQueue<>(Math.max(1, EngineSettings.getInt("engine.handler.capacity", 4096)));
+            EngineThreads.start(this);
         }
     }
 
-    public void run() {
-        running = true;
-        while (running) {
-            checkSuspended();
-            if (running) {
-                monitorIncomingToBeHandled();
-            }
+    /**
+     * Deposit a set to be handled by this handler. If the queue of this handler is full, the depositing thread waits
+     * until there is room again.
+     */
+    void deposit(T toBeHandled) {
+        if (isInline()) {
+            handle(toBeHandled);
+            return;
         }
+        try {
+            inbox.put(toBeHandled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.logger.severe(String.format("Interrupted while depositing in %s", getStageName()));
+            throw new RuntimeException(e);
+        }
+        maxQueueDepth.accumulateAndGet(inbox.size(), Math::max);
     }
 
-    protected void checkSuspended() {
+    public void run() {
+        List<T> batch = new ArrayList<>();
         try {
-            synchronized (dummy) {
-                while (suspendRequested) {
-                    dummy.wait();
+            while (running) {
+                T first = inbox.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                inbox.drainTo(batch);
+                for (T toBeHandled : batch) {
+                    if (running) {
+                        handle(toBeHandled);
+                    }
                 }
+                batch.clear();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    protected void requestSuspend() {
-        suspendRequested = true;
-    }
-
-    void requestResume() {
-        suspendRequested = false;
-        synchronized (dummy) {
-            dummy.notify();
-        }
-    }
-
-    public synchronized void monitorIncomingToBeHandled() {
-        if (inbox.isEmpty()) {
-            requestSuspend();
-        } else {
-            nbInInBox--;
-            process(inbox.poll());
-        }
+    private void handle(T toBeHandled) {
+        long start = System.nanoTime();
+        process(toBeHandled);
+        serviceTime.addAndGet(System.nanoTime() - start);
+        nbProcessed.incrementAndGet();
     }
 
     /**
@@ -97,8 +127,58 @@ public abstract class Handler<T extends ToHandle> implements Runnable {
 
     public void finish() {
         running = false;
-        requestResume();
+    }
+
 
+    /**
+     * Check whether this handler handles deposited sets on the depositing thread.
+     */
+    public boolean isInline() {
+        return inbox == null;
     }
 
+    /**
+     * Return the name of this stage of the pipeline.
+     */
+    public String getStageName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Return the number of deposited sets that are waiting to be handled.
+     */
+    public int getQueueDepth() {
+        return isInline() ? 0 : inbox.size();
+    }
+
+    /**
+     * Return the largest number of sets that were waiting to be handled at the same time.
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Return the number of sets handled so far.
+     */
+    public long getNbProcessed() {
+        return nbProcessed.get();
+    }
+
+    /**
+     * Return the total time spent handling sets, in nanoseconds.
+     */
+    public long getServiceTime() {
+        return serviceTime.get();
+    }
+
+    /**
+     * Return a one-line summary of the queue depth and service time of this stage.
+     */
+    public String getStatistics() {
+        long processed = getNbProcessed();
+        return String.format("%s: %d sets handled, mean service time %.3f ms, queue depth %d (max %d)%s",
+            getStageName(), processed, processed == 0 ? 0.0 : getServiceTime() / 1e6 / processed,
+            getQueueDepth(), getMaxQueueDepth(), isInline() ? ", inline" : "");
+    }
 }
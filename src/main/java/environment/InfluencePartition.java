@@ -0,0 +1,135 @@
+package environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import support.Influence;
+
+/**
+ * A partition of a set of influences into groups that can be effectuated independently of each other.
+ * The grid is divided in square tiles. Every influence touches the cell of the active item it originates from and,
+ * unless it only concerns that active item, the cell at its coordinates. Influences touching the same tile end up in
+ * the same group, and an influence touching several tiles joins all of them into one group, so that cross-tile
+ * influences are always handled together with everything they might conflict with.
+ * Within a group, the influences keep the order in which they were given, so handling every group in order gives
+ * the same result as handling all influences in order.
+ */
+class InfluencePartition {
+
+    private final int tileSize;
+    private final int nbTileRows;
+    private final Map<Integer, Integer> parent;
+
+
+    /**
+     * Initialize a new partition for a grid of the given dimensions.
+     *
+     * @param height   The height of the grid.
+     * @param tileSize The length of the side of a tile.
+     * @pre tileSize > 0
+     */
+    InfluencePartition(int height, int tileSize) {
+        this.tileSize = tileSize;
+        this.nbTileRows = (height + tileSize - 1) / tileSize;
+        this.parent = new HashMap<>();
+    }
+
+
+    /**
+     * Divide the given influences in independent groups.
+     *
+     * @param env        The environment the influences are effectuated in.
+     * @param influences The influences, in the order in which they have to be effectuated.
+     * @return The groups, each holding the indices in the given array of its influences in increasing order. The
+     *         groups are ordered by their first influence.
+     */
+    List<int[]> partition(Environment env, Influence[] influences) {
+        parent.clear();
+        Map<ActiveItemID, ActiveItem<?>> items = new HashMap<>();
+        for (ActiveItem<?> item : env.getActiveItems()) {
+            items.put(item.getID(), item);
+        }
+
+        int[] tiles = new int[influences.length];
+        Arrays.fill(tiles, -1);
+        for (int i = 0; i < influences.length; i++) {
+            Influence inf = influences[i];
+            if (inf == null) {
+                continue;
+            }
+            ActiveItem<?> origin = items.get(inf.getID());
+            if (origin != null) {
+                tiles[i] = join(tiles[i], tileOf(origin.getX(), origin.getY()));
+            }
+            if (inf.actsOnCell() && inf.getAreaOfEffect().inBounds(inf.getX(), inf.getY())) {
+                tiles[i] = join(tiles[i], tileOf(inf.getX(), inf.getY()));
+            }
+        }
+
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        List<Integer> unplaced = new ArrayList<>();
+        for (int i = 0; i < influences.length; i++) {
+            if (influences[i] == null) {
+                continue;
+            }
+            if (tiles[i] < 0) {
+                // Nothing is known about where this influence acts, so it cannot be separated from anything
+                unplaced.add(i);
+            } else {
+                groups.computeIfAbsent(find(tiles[i]), t -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<int[]> result = new ArrayList<>();
+        if (!unplaced.isEmpty()) {
+            List<Integer> all = new ArrayList<>(unplaced);
+            groups.values().forEach(all::addAll);
+            result.add(all.stream().sorted().mapToInt(Integer::intValue).toArray());
+            return result;
+        }
+        for (List<Integer> group : groups.values()) {
+            result.add(group.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return result;
+    }
+
+    private int tileOf(int x, int y) {
+        return (x / tileSize) * nbTileRows + y / tileSize;
+    }
+
+    /**
+     * Join the given tiles into one group and return the representative of that group.
+     */
+    private int join(int tile, int other) {
+        int root = find(other);
+        if (tile < 0) {
+            return root;
+        }
+        int tileRoot = find(tile);
+        if (tileRoot != root) {
+            // Deterministic choice of the representative
+            int low = Math.min(tileRoot, root);
+            parent.put(Math.max(tileRoot, root), low);
+            return low;
+        }
+        return root;
+    }
+
+    private int find(int tile) {
+        int root = tile;
+        Integer next;
+        while ((next = parent.get(root)) != null) {
+            root = next;
+        }
+        // Path compression
+        while ((next = parent.get(tile)) != null && next != root) {
+            parent.put(tile, root);
+            tile = next;
+        }
+        return root;
+    }
+}
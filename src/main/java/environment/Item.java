@@ -17,6 +17,11 @@ abstract public class Item<T extends Representation> implements Representable<T>
      */
     private int y;
 
+    /**
+     * The representation of this item in its current state, or null if it has not been made yet or is outdated.
+     */
+    private volatile T representation;
+
     /**
      * Initializes a new Item instance
      *
@@ -37,6 +42,7 @@ abstract public class Item<T extends Representation> implements Representable<T>
     public void moveTo(int x, int y) {
         this.x = x;
         this.y = y;
+        invalidateRepresentation();
     }
 
     /**
@@ -57,7 +63,7 @@ abstract public class Item<T extends Representation> implements Representable<T>
      * Gets this item's coordinates
      */
     public Coordinate getCoordinates() {
-        return new Coordinate(x, y);
+        return Coordinate.of(x, y);
     }
 
     /**
@@ -66,6 +72,7 @@ abstract public class Item<T extends Representation> implements Representable<T>
      */
     protected void setX(int nx) {
         this.x = nx;
+        invalidateRepresentation();
     }
 
     /**
@@ -74,14 +81,41 @@ abstract public class Item<T extends Representation> implements Representable<T>
      */
     protected void setY(int ny) {
         this.y = ny;
+        invalidateRepresentation();
     }
 
 
     /**
-     * Gets a representation for this item
+     * Gets a representation for this item. Since representations are immutable, the same representation is returned
+     * until this item changes (cfr. {@link #invalidateRepresentation()}).
      */
     @Override
-    abstract public T getRepresentation();
+    public final T getRepresentation() {
+        T rep = representation;
+        return rep != null ? rep : cacheRepresentation();
+    }
+
+    private synchronized T cacheRepresentation() {
+        if (representation == null) {
+            representation = createRepresentation();
+        }
+        return representation;
+    }
+
+    /**
+     * Discard the representation of this item, so that a new one is made the next time it is asked for. To be called
+     * by every method that changes what the representation holds, after the change.
+     * This synchronizes with the making of a representation, so a representation made from the state before the
+     * change is never kept.
+     */
+    protected synchronized void invalidateRepresentation() {
+        representation = null;
+    }
+
+    /**
+     * Make a new representation of this item in its current state.
+     */
+    abstract protected T createRepresentation();
 
     /**
      * Draw this item.
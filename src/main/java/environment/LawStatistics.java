@@ -0,0 +1,68 @@
+package environment;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Counters of the number of times each law of a reactor has been applied and the time spent applying it, so it can be
+ * seen which law dominates the cost of validation or perception. The counters may be updated from several threads.
+ */
+class LawStatistics {
+
+    private final String[] names;
+    private final AtomicLongArray nbApplications;
+    private final AtomicLongArray time;
+
+
+    /**
+     * Initialize the counters for the given laws, which are referred to by their index in the given list.
+     */
+    LawStatistics(List<?> laws) {
+        this.names = laws.stream().map(law -> law.getClass().getSimpleName()).toArray(String[]::new);
+        this.nbApplications = new AtomicLongArray(names.length);
+        this.time = new AtomicLongArray(names.length);
+    }
+
+
+    /**
+     * Register that the law with the given index has been applied once, which took the given time.
+     *
+     * @param law   The index of the law.
+     * @param nanos The time spent applying the law, in nanoseconds.
+     */
+    void record(int law, long nanos) {
+        nbApplications.incrementAndGet(law);
+        time.addAndGet(law, nanos);
+    }
+
+    /**
+     * Return the number of times the law with the given index has been applied.
+     */
+    long getNbApplications(int law) {
+        return nbApplications.get(law);
+    }
+
+    /**
+     * Return the total time spent applying the law with the given index, in nanoseconds.
+     */
+    long getTime(int law) {
+        return time.get(law);
+    }
+
+    /**
+     * Return a summary of the counters, one law per line, starting with the law that took the most time.
+     *
+     * @param title The name of the reactor the laws belong to.
+     */
+    String getStatistics(String title) {
+        long total = IntStream.range(0, names.length).mapToLong(this::getTime).sum();
+        return title + " laws:" + IntStream.range(0, names.length).boxed()
+            .sorted(Comparator.comparingLong(this::getTime).reversed())
+            .map(i -> String.format("%n  %s: %d applications, %.3f ms (%.0f%%)", names[i], getNbApplications(i),
+                getTime(i) / 1e6, total == 0 ? 0.0 : 100.0 * getTime(i) / total))
+            .collect(Collectors.joining());
+    }
+}
@@ -0,0 +1,142 @@
+package environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import support.ActionOutcome;
+import support.CommunicationOutcome;
+import support.Influence;
+import support.Outcome;
+
+/**
+ * A scheduler that executes the action cycle of all active items on one single thread, as an alternative to giving
+ * every active item (and the collector and handlers) a thread of its own.
+ * Each phase is executed for every active item in order of their ID. Afterwards, the outcomes of that phase are
+ * handled as if they formed one full sphere: mails are delivered by the postal service and the influences are
+ * validated and effectuated by the reactor. Only then the active items are allowed to move on to their next phase.
+ */
+public class LockstepScheduler implements Runnable {
+
+    private final Reactor reactor;
+    private final PostalService postalService;
+    private final List<Outcome> outcomes;
+    private List<ActiveImp> activeImps;
+    private volatile boolean running;
+
+
+    private final Logger logger = Logger.getLogger(LockstepScheduler.class.getName());
+
+
+    /**
+     * Initialize a new LockstepScheduler which hands the outcomes of every phase to the given handlers.
+     *
+     * @param reactor       The reactor of the environment.
+     * @param postalService The postal service of the environment.
+     */
+    public LockstepScheduler(Reactor reactor, PostalService postalService) {
+        this.reactor = reactor;
+        this.postalService = postalService;
+        this.outcomes = new ArrayList<>();
+        this.activeImps = List.of();
+        this.running = false;
+    }
+
+    /**
+     * Start executing the given active items in lockstep on a new thread.
+     *
+     * @param activeImps The active items to schedule, in the order in which they execute their phases.
+     */
+    void start(List<ActiveImp> activeImps) {
+        this.activeImps = activeImps;
+        this.activeImps.forEach(ActiveImp::awakeWithoutThread);
+        this.running = true;
+        EngineThreads.start(this);
+    }
+
+    /**
+     * Store the outcome of the phase an active item just concluded.
+     */
+    void collectOutcome(Outcome outcome) {
+        outcomes.add(outcome);
+    }
+
+    public void run() {
+        try {
+            while (running) {
+                executePhase();
+            }
+        } catch (RuntimeException e) {
+            if (running) {
+                this.logger.severe(String.format("Lockstep scheduler stopped: %s", e));
+                e.printStackTrace();
+            }
+        }
+        running = false;
+
+        for (ActiveImp imp : activeImps) {
+            try {
+                imp.cleanup();
+            } catch (RuntimeException ignored) {
+                // The active item has already been finished by the container
+            }
+        }
+    }
+
+    /**
+     * Execute the current phase for all active items, and handle the resulting outcomes.
+     */
+    private void executePhase() {
+        outcomes.clear();
+        for (ActiveImp imp : activeImps) {
+            if (!running) {
+                return;
+            }
+            if (imp.isRunning()) {
+                imp.executeStep();
+            }
+        }
+        handleOutcomes();
+    }
+
+    /**
+     * Handle the outcomes of the phase that was just executed, in the same way a full sphere is handled by the
+     * handlers of the environment, and let all active items move on to their next phase.
+     */
+    private void handleOutcomes() {
+        List<Mail> mails = new ArrayList<>();
+        List<Influence> influences = new ArrayList<>();
+        boolean next = true;
+
+        for (Outcome outcome : outcomes) {
+            if (outcome.toBeHandledBy("PostalService")) {
+                mails.addAll(Arrays.asList(((CommunicationOutcome) outcome).getMailBuffer().getMails()));
+            } else if (outcome.toBeHandledBy("Reactor")) {
+                influences.add(((ActionOutcome) outcome).getInfluence());
+            }
+            next = next & outcome.getVoteForContinuingWithNextPhase();
+        }
+
+        if (!mails.isEmpty()) {
+            postalService.deliver(mails.toArray(new Mail[0]));
+        }
+        if (!influences.isEmpty()) {
+            reactor.processInfluences(influences.toArray(new Influence[0]));
+        }
+        if (!running) {
+            return;
+        }
+
+        for (ActiveImp imp : activeImps) {
+            imp.activateNewPhase(next);
+        }
+    }
+
+    /**
+     * Stop scheduling the active items.
+     */
+    public void finish() {
+        running = false;
+    }
+}
@@ -0,0 +1,156 @@
+package environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A layer on top of the worlds of an environment which holds, for every cell, a bitmask of the worlds that have an
+ * item on that cell and, if requested, a version number that changes whenever the contents of that cell change.
+ * Every world is given its own bit when it is added to the environment, and keeps its bit up to date whenever an item
+ * is put on or removed from one of its cells.
+ * Whether an item can stand on a cell ({@link CollisionMatrix}) then comes down to testing the mask of that cell
+ * against the mask of the worlds the item cannot share a cell with, instead of asking every world for its item.
+ */
+class Occupancy {
+
+    /**
+     * The maximum number of worlds an environment can hold, i.e. the number of bits in a mask.
+     */
+    static final int MAX_WORLDS = Integer.SIZE;
+
+    private final int width;
+    private final int height;
+    private final AtomicIntegerArray masks;
+    private final AtomicIntegerArray versions;
+    private final List<World<?>> worlds;
+
+    /**
+     * For every collision rule, the bits of the worlds whose items cannot share a cell with the item of that rule.
+     */
+    private final int[] blocking;
+
+
+    /**
+     * Initialize an empty occupancy layer for worlds of the given dimensions.
+     *
+     * @param trackVersions Whether to keep a version number for every cell.
+     */
+    Occupancy(int width, int height, boolean trackVersions) {
+        this.width = width;
+        this.height = height;
+        this.masks = new AtomicIntegerArray(width * height);
+        this.versions = trackVersions ? new AtomicIntegerArray(width * height) : null;
+        this.worlds = new ArrayList<>();
+        this.blocking = new int[CollisionMatrix.Rule.values().length];
+    }
+
+
+    /**
+     * Give the given world a bit in this layer and mark the cells on which it has an item.
+     *
+     * @return The bit of the given world.
+     */
+    synchronized int register(World<?> world) {
+        if (worlds.size() == MAX_WORLDS) {
+            throw new RuntimeException(String.format("An environment can hold at most %d worlds", MAX_WORLDS));
+        }
+        int bit = 1 << worlds.size();
+        worlds.add(world);
+        for (CollisionMatrix.Rule rule : CollisionMatrix.Rule.values()) {
+            if (!rule.canCoexistWith(world)) {
+                blocking[rule.ordinal()] |= bit;
+            }
+        }
+        for (Item<?> item : world.getItemsFlat()) {
+            set(item.getX(), item.getY(), bit);
+        }
+        return bit;
+    }
+
+    /**
+     * Return the bits of all worlds that have an item on the given cell.
+     *
+     * @throws IndexOutOfBoundsException if the coordinates are not within the bounds of the worlds
+     */
+    int get(int x, int y) {
+        return masks.get(indexOf(x, y));
+    }
+
+    /**
+     * Mark that the world with the given bit has an item on the given cell.
+     */
+    void set(int x, int y, int bit) {
+        masks.getAndAccumulate(indexOf(x, y), bit, (mask, b) -> mask | b);
+        touch(x, y);
+    }
+
+    /**
+     * Mark that the world with the given bit no longer has an item on the given cell.
+     */
+    void clear(int x, int y, int bit) {
+        masks.getAndAccumulate(indexOf(x, y), bit, (mask, b) -> mask & ~b);
+        touch(x, y);
+    }
+
+    /**
+     * Check whether this layer keeps a version number for every cell.
+     */
+    boolean tracksVersions() {
+        return versions != null;
+    }
+
+    /**
+     * Mark that the contents of the given cell have changed, by changing its version. Has no effect if this layer
+     * does not keep versions.
+     * The version is changed after the change itself, so whoever reads the version before reading the cell either
+     * sees the change, or sees a version that differs from the one it will read next time.
+     */
+    void touch(int x, int y) {
+        if (versions != null) {
+            versions.incrementAndGet(indexOf(x, y));
+        }
+    }
+
+    /**
+     * Return the version of the given cell.
+     *
+     * @pre tracksVersions()
+     */
+    int getVersion(int x, int y) {
+        return versions.get(indexOf(x, y));
+    }
+
+    /**
+     * Return the bits of the worlds whose items cannot share a cell with the item of the given rule.
+     */
+    int getBlocking(CollisionMatrix.Rule rule) {
+        return blocking[rule.ordinal()];
+    }
+
+    /**
+     * Return the world with the given bit.
+     */
+    World<?> getWorld(int bit) {
+        return worlds.get(Integer.numberOfTrailingZeros(bit));
+    }
+
+    /**
+     * Return the estimated number of bytes taken up by this layer.
+     */
+    long getMemoryFootprint() {
+        long result = GridStorage.ARRAY_HEADER_SIZE + (long) masks.length() * Integer.BYTES;
+        if (versions != null) {
+            result += GridStorage.ARRAY_HEADER_SIZE + (long) versions.length() * Integer.BYTES;
+        }
+        return result;
+    }
+
+    private int indexOf(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException(String.format("(%d, %d) is not within a world of %d by %d",
+                x, y, width, height));
+        }
+        return y * width + x;
+    }
+}
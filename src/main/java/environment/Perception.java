@@ -75,6 +75,21 @@ public class Perception {
         setOffsetY(offsetY);
     }
 
+    /**
+     *  Initializes a new Perception object consisting of the given cells, which are not copied.
+     *
+     * @param  cells    the cells of the Perception, indexed by their relative coordinates
+     * @param  offsetX  horizontal offset of the Perception
+     * @param  offsetY  vertical offset of the Perception
+     */
+    Perception(CellPerception[][] cells, int offsetX, int offsetY) {
+        this.cells = cells;
+        setWidth(cells.length);
+        setHeight(cells.length == 0 ? 0 : cells[0].length);
+        setOffsetX(offsetX);
+        setOffsetY(offsetY);
+    }
+
     //--------------------------------------------------------------------------
     //		INSPECTORS
     //--------------------------------------------------------------------------
@@ -395,6 +410,23 @@ public class Perception {
     }
 
 
+    /**
+     * Returns a new Perception with the same dimensions, offset and position of self as this one, which holds the
+     * same cell perceptions. Setting or nullifying a cell of the copy does not affect this Perception, so perception
+     * laws can hide cells without building every cell perception anew.
+     */
+    public Perception shallowCopy() {
+        CellPerception[][] copy = new CellPerception[width][];
+        for (int i = 0; i < width; i++) {
+            copy[i] = cells[i].clone();
+        }
+        Perception result = new Perception(copy, offsetX, offsetY);
+        result.setSelfX(selfX);
+        result.setSelfY(selfY);
+        return result;
+    }
+
+
     public void nullifyCellAt(int i, int j) {
         try {
             cells[i][j] = null;
@@ -3,7 +3,9 @@ package environment;
 import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import environment.law.PerceptionLaw;
@@ -19,6 +21,11 @@ public class PerceptionReactor {
 
     private Environment env;
     private final List<PerceptionLaw> laws;
+    private final Map<Class<?>, int[]> dispatchTable;
+    private boolean[] enforcedOnEveryPerception;
+    private LawStatistics lawStatistics;
+    private final boolean incremental;
+    private final Map<ActiveItemID, PerceptionBuffer> buffers;
 
     private final Logger logger = Logger.getLogger(PerceptionReactor.class.getName());
 
@@ -30,7 +37,29 @@ public class PerceptionReactor {
     public PerceptionReactor(Environment environ) {
         setEnvironment(environ);
         this.laws = new ArrayList<>();
+        this.dispatchTable = new ConcurrentHashMap<>();
+        this.buffers = new ConcurrentHashMap<>();
         loadLaws();
+        this.incremental = EngineSettings.getPerceptionMode() == EngineSettings.PerceptionMode.INCREMENTAL
+            && checkIncrementalSupported();
+    }
+
+    /**
+     * Check whether incremental perceptions can be built, i.e. whether the laws triggered by a cell fit in the bits
+     * of a long, and whether the environment keeps the versions of its cells.
+     */
+    private boolean checkIncrementalSupported() {
+        if (laws.size() > Long.SIZE) {
+            this.logger.warning(String.format("Incremental perceptions support at most %d perception laws, "
+                + "building every perception from scratch", Long.SIZE));
+            return false;
+        }
+        if (!env.getOccupancy().tracksVersions()) {
+            this.logger.warning("The environment does not keep versions of its cells, "
+                + "building every perception from scratch");
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -78,6 +107,34 @@ public class PerceptionReactor {
                 this.logger.severe("Error setting perceptionlaws");
             }
         }
+        buildDispatchTable();
+    }
+
+    /**
+     * Determine which laws are enforced on every perception, and start a new table that maps every kind of
+     * representation to the laws it triggers. The table is filled the first time a kind of representation is
+     * perceived.
+     */
+    private void buildDispatchTable() {
+        lawStatistics = new LawStatistics(laws);
+        dispatchTable.clear();
+        enforcedOnEveryPerception = new boolean[laws.size()];
+        for (int i = 0; i < laws.size(); i++) {
+            enforcedOnEveryPerception[i] = laws.get(i).getRepresentationTypes().isEmpty();
+        }
+    }
+
+    /**
+     * Return the indices of the laws that are triggered by representations of the given kind.
+     */
+    private int[] getTriggeredLaws(Class<?> type) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < laws.size(); i++) {
+            if (laws.get(i).getRepresentationTypes().stream().anyMatch(t -> t.isAssignableFrom(type))) {
+                result.add(i);
+            }
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
     }
 
     /**
@@ -114,6 +171,7 @@ public class PerceptionReactor {
                                          minX, minY);
         perception.setSelfX(ax - minX);
         perception.setSelfY(ay - minY);
+        boolean[] enforced = enforcedOnEveryPerception.clone();
         for (World<?> aWorld : env.getWorlds()) {
             for (int j = minX; j <= maxX; j++) {
                 for (int k = minY; k <= maxY; k++) {
@@ -121,29 +179,164 @@ public class PerceptionReactor {
                     if (potentialItem != null) {
                         Representation tempRep = potentialItem.getRepresentation();
                         perception.addRep(j - minX, k - minY, tempRep);
-
+                        for (int i : dispatchTable.computeIfAbsent(tempRep.getClass(), this::getTriggeredLaws)) {
+                            enforced[i] = true;
+                        }
                     }
                 }
             }
         }
 
-        // we enforce all known laws on 'perception'
-        return enforceLaws(perception);
+        // we enforce the laws triggered by the contents of 'perception'
+        return enforceLaws(perception, enforced);
+    }
+
+
+    /**
+     * Returns a perception for the given ActiveItem for its turn.
+     * In incremental mode (cfr. {@link EngineSettings#getPerceptionMode()}) the perception of the previous turn of the
+     * item is reused: cells that are still in view and whose version (cfr. {@link Occupancy#getVersion}) has not
+     * changed keep their representations, only the other cells are read from the worlds again. The result holds the
+     * same representations as {@link #getPerception}, but the cells of the previous perception are updated in place,
+     * so an item must not hold on to the perception of a previous turn, and only the item itself may call this.
+     *
+     * @param   item  The perceiving ActiveItem
+     * @pre     item != null
+     * @return  A perception filled with representations of what 'item' can see
+     *          after applying all the perceptionlaws listed in 'laws'
+     */
+    Perception perceive(ActiveItem<?> item) {
+        if (!incremental) {
+            return getPerception(item);
+        }
+        PerceptionBuffer buffer = buffers.computeIfAbsent(item.getID(), id -> new PerceptionBuffer());
+        int view = item.getView();
+        int ax = item.getX();
+        int ay = item.getY();
+        int minX = Math.max(0, ax - view);
+        int maxX = Math.min(env.getWidth() - 1, ax + view);
+        int minY = Math.max(0, ay - view);
+        int maxY = Math.min(env.getHeight() - 1, ay + view);
+        int width = maxX - minX + 1;
+        int height = maxY - minY + 1;
+
+        Perception previous = buffer.perception;
+        boolean sameWindow = previous != null && buffer.minX == minX && buffer.minY == minY
+            && previous.getWidth() == width && previous.getHeight() == height;
+        CellPerception[][] cells = sameWindow ? null : new CellPerception[width][height];
+        int[] versions = sameWindow ? buffer.versions : new int[width * height];
+        long[] triggers = sameWindow ? buffer.triggers : new long[width * height];
+
+        Occupancy occupancy = env.getOccupancy();
+        long triggered = 0;
+        for (int i = 0; i < width; i++) {
+            for (int j = 0; j < height; j++) {
+                int x = minX + i;
+                int y = minY + j;
+                // The version is read before the cell, so a change during the read is picked up next turn
+                int version = occupancy.getVersion(x, y);
+                int pi = x - buffer.minX;
+                int pj = y - buffer.minY;
+                boolean inPrevious = previous != null
+                    && pi >= 0 && pi < previous.getWidth() && pj >= 0 && pj < previous.getHeight();
+                int previousIndex = pi * (previous == null ? 0 : previous.getHeight()) + pj;
+                CellPerception cell = inPrevious ? previous.getCellAt(pi, pj) : new CellPerception(x, y);
+                long cellTriggers;
+                if (inPrevious && buffer.versions[previousIndex] == version) {
+                    cellTriggers = buffer.triggers[previousIndex];
+                } else {
+                    cell.clear();
+                    cellTriggers = readCell(occupancy, cell, x, y);
+                }
+                if (!sameWindow) {
+                    cells[i][j] = cell;
+                }
+                versions[i * height + j] = version;
+                triggers[i * height + j] = cellTriggers;
+                triggered |= cellTriggers;
+            }
+        }
+
+        Perception perception = sameWindow ? previous : new Perception(cells, minX, minY);
+        perception.setSelfX(ax - minX);
+        perception.setSelfY(ay - minY);
+        buffer.perception = perception;
+        buffer.minX = minX;
+        buffer.minY = minY;
+        buffer.versions = versions;
+        buffer.triggers = triggers;
+
+        boolean[] enforced = enforcedOnEveryPerception.clone();
+        for (long bits = triggered; bits != 0; bits &= bits - 1) {
+            enforced[Long.numberOfTrailingZeros(bits)] = true;
+        }
+        return enforceLaws(perception, enforced);
     }
 
+    /**
+     * Discard the perception kept for the given ActiveItem, which is no longer part of the environment.
+     */
+    void forget(ActiveItem<?> item) {
+        buffers.remove(item.getID());
+    }
 
     /**
-     *   Enforce all known laws on a given Perception 'perception'.
+     * Add the representations of the items on the given cell to the given cell perception, in the order of the
+     * worlds.
      *
-     *   @param perception The Perception to enforce all perceptionlaws upon
-     *   @return A Perception that is become by enforcing all PerceptionLaws
+     * @return The bits of the laws triggered by these representations.
+     */
+    private long readCell(Occupancy occupancy, CellPerception cell, int x, int y) {
+        long result = 0;
+        for (int mask = occupancy.get(x, y); mask != 0; mask &= mask - 1) {
+            var item = occupancy.getWorld(mask & -mask).getItem(x, y);
+            if (item != null) {
+                Representation rep = item.getRepresentation();
+                cell.addRep(rep);
+                for (int i : dispatchTable.computeIfAbsent(rep.getClass(), this::getTriggeredLaws)) {
+                    result |= 1L << i;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The perception of an active item in its previous turn, in which it is built incrementally. Versions and
+     * triggered laws are kept per cell, indexed by the relative coordinates (i, j) as i * height + j.
+     */
+    private static class PerceptionBuffer {
+        private Perception perception;
+        private int minX;
+        private int minY;
+        private int[] versions;
+        private long[] triggers;
+    }
+
+    /**
+     *   Enforce the given laws on a given Perception 'perception'.
+     *
+     *   @param perception The Perception to enforce the perceptionlaws upon
+     *   @param enforced   For every law in 'laws', whether it has to be enforced
+     *   @return A Perception that is become by enforcing the given PerceptionLaws
      *           in 'laws' upon 'perception'
      */
-    private Perception enforceLaws(Perception perception) {
+    private Perception enforceLaws(Perception perception, boolean[] enforced) {
         Perception temp = perception;
-        for (PerceptionLaw law : laws) {
-            temp = law.enforce(temp);
+        for (int i = 0; i < laws.size(); i++) {
+            if (enforced[i]) {
+                long start = System.nanoTime();
+                temp = laws.get(i).enforce(temp);
+                lawStatistics.record(i, System.nanoTime() - start);
+            }
         }
         return temp;
     }
+
+    /**
+     * Return a summary of the number of times each perception law has been enforced and the time spent enforcing it.
+     */
+    public String getLawStatistics() {
+        return lawStatistics.getStatistics("Perception reactor");
+    }
 }
@@ -0,0 +1,93 @@
+package environment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import javax.annotation.Nullable;
+
+/**
+ * A stage in which the perceptions of a group of active items are built all at once, in parallel on the common
+ * fork/join pool, instead of by every active item on its own thread.
+ * The reactor runs this stage for the active items whose actions it has just effectuated, before it lets them move on
+ * to their perception phase. Since the reactor is the only one changing the worlds, and it waits for the stage to
+ * finish, all these perceptions are built from the same state of the worlds. Whenever the reactor starts effectuating
+ * other influences, the perceptions that have not been handed out yet are discarded, so an active item never gets a
+ * perception of a state that has changed since; it then builds its own perception as before.
+ */
+class PerceptionStage {
+
+    private final Environment env;
+    private final PerceptionReactor perceptionReactor;
+    private final Map<ActiveItemID, Perception> prepared;
+
+    private final Logger logger = Logger.getLogger(PerceptionStage.class.getName());
+
+
+    /**
+     * Initialize a new perception stage which builds perceptions with the given perception reactor.
+     */
+    PerceptionStage(Environment env, PerceptionReactor perceptionReactor) {
+        this.env = env;
+        this.perceptionReactor = perceptionReactor;
+        this.prepared = new ConcurrentHashMap<>();
+    }
+
+
+    /**
+     * Build the perceptions of the active items with the given IDs in parallel, to be handed out by
+     * {@link #take(ActiveItemID)}. The worlds may not change until this method returns.
+     *
+     * @param ids The IDs of the active items that perceive next. IDs of active items that are no longer part of the
+     *            environment are ignored.
+     */
+    void prepare(Collection<ActiveItemID> ids) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (ActiveItemID id : ids) {
+            ActiveItem<?> item = env.findActiveItem(id);
+            if (item != null) {
+                tasks.add(() -> {
+                    prepared.put(id, perceptionReactor.perceive(item));
+                    return null;
+                });
+            }
+        }
+
+        try {
+            for (Future<Void> result : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.logger.severe("Interrupted while building perceptions");
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            this.logger.severe(String.format("Failed to build perceptions: %s", e.getCause()));
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Discard all perceptions that have not been handed out yet, because the worlds are about to change.
+     */
+    void invalidate() {
+        prepared.clear();
+    }
+
+    /**
+     * Hand out the perception built for the active item with the given ID, if any.
+     *
+     * @return The perception of the active item, or null if it has not been built or is no longer up to date.
+     */
+    @Nullable
+    Perception take(ActiveItemID id) {
+        return prepared.remove(id);
+    }
+}
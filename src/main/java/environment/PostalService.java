@@ -24,13 +24,32 @@ public class PostalService extends Handler<MailBag> {
      * @param agentImps A reference to the interface of the agentImplementations-package.
      */
     public PostalService(ActiveItemContainer agentImps, EventBus eventBus) {
-        super();
+        this(agentImps, eventBus, false);
+    }
+
+    /**
+     * Initialize a new PostalService.
+     * @param agentImps A reference to the interface of the agentImplementations-package.
+     * @param inline    Whether mails are delivered on the thread that hands them over, rather than on a thread of this
+     *                  postal service (cfr. {@link Handler#isInline()}).
+     */
+    public PostalService(ActiveItemContainer agentImps, EventBus eventBus, boolean inline) {
+        super(inline);
         agentImplementations = agentImps;
         this.eventBus = eventBus;
     }
 
     protected void process(MailBag toBeHandled) {
-        Mail[] mailSet = toBeHandled.getMailSet();
+        deliver(toBeHandled.getMailSet());
+        toBeHandled.getSendingSphere().setHandled(toBeHandled.getNbCorrespondingOutcomes());
+    }
+
+    /**
+     * Deliver the given mails, in random order, into the mailboxes of their addressees.
+     *
+     * @param mailSet The mails to deliver.
+     */
+    void deliver(Mail[] mailSet) {
         boolean[] turns = new boolean[mailSet.length];
         for (int i = 0; i < mailSet.length; i++) {
             Mail toDeliver = mailSet[nextActive(turns)];
@@ -49,7 +68,6 @@ public class PostalService extends Handler<MailBag> {
             this.eventBus.post(se);
         }
         this.logger.fine(String.format("%d mails have been delivered.", mailSet.length));
-        toBeHandled.getSendingSphere().setHandled(toBeHandled.getNbCorrespondingOutcomes());
     }
 
     ActiveItemContainer getAgentImplementations() {
@@ -4,9 +4,16 @@ import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
 import com.google.common.eventbus.EventBus;
@@ -15,6 +22,7 @@ import environment.law.Law;
 import support.InfSkip;
 import support.Influence;
 import util.Variables;
+import util.event.AgentActionEvent;
 import util.event.GameOverEvent;
 import util.event.WorldProcessedEvent;
 
@@ -27,7 +35,13 @@ public class Reactor extends Handler<InfluenceSet> {
     private Environment env;
     private final ApplicationRunner applicationRunner;
     private final List<Law> laws;
+    private final Map<Class<?>, int[]> dispatchTable;
+    private LawStatistics lawStatistics;
     private final EventBus eventBus;
+    private final Map<ActiveItemID, Integer> pendingActions;
+    private final EngineSettings.ReactorMode mode;
+    private final int tileSize;
+    private InfluencePartition partition;
 
     private final Logger logger = Logger.getLogger(Reactor.class.getName());
 
@@ -37,11 +51,26 @@ public class Reactor extends Handler<InfluenceSet> {
      * @param environ  the environment which this Reactor is part of
      */
     public Reactor(Environment environ, ApplicationRunner applicationRunner, EventBus eventBus) {
-        super();
+        this(environ, applicationRunner, eventBus, false);
+    }
+
+    /**
+     * Initializes a new Reactor object
+     *
+     * @param environ  the environment which this Reactor is part of
+     * @param inline   whether influences are processed on the thread that hands them over, rather than on a thread of
+     *                 this reactor (cfr. {@link Handler#isInline()})
+     */
+    public Reactor(Environment environ, ApplicationRunner applicationRunner, EventBus eventBus, boolean inline) {
+        super(inline);
         setEnvironment(environ);
         this.applicationRunner = applicationRunner;
         this.eventBus = eventBus;
         this.laws = new ArrayList<>();
+        this.dispatchTable = new ConcurrentHashMap<>();
+        this.pendingActions = new HashMap<>();
+        this.mode = EngineSettings.getReactorMode();
+        this.tileSize = Math.max(1, EngineSettings.getInt("engine.reactor.tile", 8));
         loadLaws();
     }
 
@@ -91,6 +120,44 @@ public class Reactor extends Handler<InfluenceSet> {
                 this.logger.severe(String.format("Error setting laws of the universe %s", e));
             }
         }
+        buildDispatchTable();
+    }
+
+    /**
+     * Build the table that maps every kind of influence to the laws governing it, in the order in which they are
+     * listed. If every law declares the kinds of influences it governs, the table is filled for all these kinds up
+     * front; other kinds of influences (such as subclasses) are added the first time they are validated.
+     */
+    private void buildDispatchTable() {
+        lawStatistics = new LawStatistics(laws);
+        dispatchTable.clear();
+        if (laws.stream().anyMatch(law -> law.getInfluenceTypes().isEmpty())) {
+            return;
+        }
+        for (Law law : laws) {
+            for (Class<? extends Influence> type : law.getInfluenceTypes()) {
+                dispatchTable.computeIfAbsent(type, t -> getGoverningLaws(t, null));
+            }
+        }
+    }
+
+    /**
+     * Return the indices of the laws governing influences of the given kind.
+     *
+     * @param type The kind of influence.
+     * @param inf  An influence of that kind, used to ask laws that do not declare the kinds of influences they govern
+     *             whether they are applicable. If null, such laws are left out.
+     */
+    private int[] getGoverningLaws(Class<?> type, Influence inf) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < laws.size(); i++) {
+            List<Class<? extends Influence>> types = laws.get(i).getInfluenceTypes();
+            if (types.isEmpty() ? inf != null && laws.get(i).applicable(inf)
+                                : types.stream().anyMatch(t -> t.isAssignableFrom(type))) {
+                result.add(i);
+            }
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
     }
 
     /**
@@ -114,24 +181,133 @@ public class Reactor extends Handler<InfluenceSet> {
     protected void process(InfluenceSet toBeHandled) {
         this.logger.fine("Reactor has received an InfluenceSet ------------------------------------");
 
-        var s = toBeHandled.getInfluenceSet();
-        Arrays.sort(s, Comparator.comparingInt(Influence::getPriority));
+        processInfluences(toBeHandled.getInfluenceSet());
 
-        for (Influence inf : s) {
-            if (inf != null) {
-                process(inf); // process each influence
+        this.logger.fine("Reactor processed the InfluenceSet --------------------------------------");
+        if (running) {
+            toBeHandled.getSendingSphere().setHandled(toBeHandled.getNbCorrespondingOutcomes());
+        }
+    }
+
+    /**
+     * Processes a set of influences: the influences are ordered by priority, validated and effectuated one by one, or
+     * per group of tiles if the reactor is tiled. Afterwards, the clock is increased for every cycle that has been
+     * completed, and, if perceptions are built in batch, the perceptions of the active items of these influences are
+     * built (cfr. {@link PerceptionStage}).
+     *
+     * @param influences The influences of the active items in one sphere.
+     */
+    void processInfluences(Influence[] influences) {
+        Arrays.sort(influences, Comparator.comparingInt(Influence::getPriority));
+        PerceptionStage perceptionStage = env.getPerceptionStage();
+        if (perceptionStage != null) {
+            perceptionStage.invalidate();
+        }
+
+        if (mode == EngineSettings.ReactorMode.TILED) {
+            processTiled(influences);
+        } else {
+            for (Influence inf : influences) {
+                if (inf != null) {
+                    process(inf); // process each influence
+                }
             }
         }
 
+        concludeActions(influences);
 
-        //End added
+        if (perceptionStage != null) {
+            // The active items of these influences perceive next, and the worlds do not change until they are released
+            perceptionStage.prepare(Arrays.stream(influences)
+                .filter(Objects::nonNull)
+                .map(Influence::getID)
+                .distinct()
+                .toList());
+        }
+    }
 
+    /**
+     * Processes the given influences per group of tiles they act on (cfr. {@link InfluencePartition}). The groups are
+     * handled in parallel on the common fork/join pool, the influences of one group in the given order. Since
+     * different groups act on different cells, the resulting worlds are the same as when all influences are processed
+     * in the given order.
+     * The events resulting from the influences are only posted once all groups are done, in the given order of the
+     * influences, so their subscribers receive them in the same order and on the same thread as before.
+     *
+     * @param influences The influences to process, ordered by priority.
+     */
+    private void processTiled(Influence[] influences) {
+        if (partition == null) {
+            partition = new InfluencePartition(env.getHeight(), tileSize);
+        }
+        List<int[]> groups = partition.partition(env, influences);
+        if (groups.size() <= 1) {
+            for (Influence inf : influences) {
+                if (inf != null) {
+                    process(inf);
+                }
+            }
+            return;
+        }
 
-        this.logger.fine("Reactor processed the InfluenceSet --------------------------------------");
-        env.getClock().incrClock();
-        update();
-        if (running) {
-            toBeHandled.getSendingSphere().setHandled(toBeHandled.getNbCorrespondingOutcomes());
+        Influence[] effectuated = new Influence[influences.length];
+        AgentActionEvent[] events = new AgentActionEvent[influences.length];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int[] group : groups) {
+            tasks.add(() -> {
+                for (int i : group) {
+                    effectuated[i] = admit(influences[i]);
+                    try {
+                        events[i] = effectuated[i].effectuateEvent();
+                    } catch (NullPointerException exc) {
+                        this.logger.severe(String.format("Failed to effectuate influence: %s", exc));
+                    }
+                    markChanged(effectuated[i]);
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> result : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.logger.severe("Interrupted while effectuating influences");
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            this.logger.severe(String.format("Failed to effectuate influences: %s", e.getCause()));
+            throw new RuntimeException(e.getCause());
+        }
+
+        for (int i = 0; i < influences.length; i++) {
+            if (events[i] != null) {
+                effectuated[i].getAreaOfEffect().getEventBus().post(events[i]);
+            }
+        }
+    }
+
+    /**
+     * Register the actions of the given influences, and increase the clock for every cycle in which all active items
+     * have acted. When all active items are synchronized (central synchronization), every set of influences
+     * completes exactly one cycle. When groups of active items are synchronized separately, their sets are processed
+     * independently, and a cycle is only completed once the slowest group has acted.
+     *
+     * @param influences The influences that have just been processed.
+     */
+    private void concludeActions(Influence[] influences) {
+        for (Influence inf : influences) {
+            if (inf != null) {
+                pendingActions.merge(inf.getID(), 1, Integer::sum);
+            }
+        }
+
+        while (!pendingActions.isEmpty() && pendingActions.size() >= env.getActiveItems().size()) {
+            pendingActions.replaceAll((id, nb) -> nb - 1);
+            pendingActions.values().removeIf(nb -> nb == 0);
+            env.getClock().incrClock();
+            update();
         }
     }
 
@@ -146,37 +322,70 @@ public class Reactor extends Handler<InfluenceSet> {
      *          effectuated in its area of effect.
      */
     private void process(Influence inf) {
-        this.logger.fine(String.format("Reactor is processing %s from agent %d", inf.toString(), inf.getID().getID()));
-        boolean valid = validate(inf);
+        Influence admitted = admit(inf);
         try {
-            if (valid) {
-                inf.effectuate();
-
-            } else {
-                InfSkip skippedInf = new InfSkip(inf.getEnvironment(), inf.getID());
-                skippedInf.effectuate();
-            }
+            admitted.effectuate();
         } catch (NullPointerException exc) {
             this.logger.severe(String.format("Failed to effectuate influence: %s", exc));
         }
+        markChanged(admitted);
+    }
+
+    /**
+     * Mark the cells an effectuated influence may have changed in place, i.e. without putting or removing an item:
+     * the cell it acts on and the cell of the active item it originates from (e.g. an agent that picked up a packet),
+     * so that incremental perceptions (cfr. {@link PerceptionReactor#perceive}) read them again.
+     */
+    private void markChanged(Influence inf) {
+        Occupancy occupancy = env.getOccupancy();
+        if (!occupancy.tracksVersions() || !inf.actsOnCell()) {
+            return;
+        }
+        if (inf.getAreaOfEffect().inBounds(inf.getX(), inf.getY())) {
+            occupancy.touch(inf.getX(), inf.getY());
+        }
+        ActiveItem<?> origin = env.findActiveItem(inf.getID());
+        if (origin != null) {
+            occupancy.touch(origin.getX(), origin.getY());
+        }
+    }
+
+    /**
+     * Validate a given Influence 'inf' and return the influence to be effectuated in its place: 'inf' itself if it
+     * is valid, a skip of the active item it originates from otherwise.
+     */
+    private Influence admit(Influence inf) {
+        this.logger.fine(String.format("Reactor is processing %s from agent %d", inf.toString(), inf.getID().getID()));
+        return validate(inf) ? inf : new InfSkip(inf.getEnvironment(), inf.getID());
     }
 
     /**
      * Validate a given Influence 'inf'
-     * 'inf' will be passed to all known laws, which are applied to it, when applicable
+     * 'inf' will be passed to all laws governing its kind of influence, as found in the dispatch table
      *
      * @param  inf The influence that has to be validated.
      * @return 'true' if every applicable law applies successfully
      */
     private boolean validate(Influence inf) {
-        for (var law : laws) {
-            if (law.applicable(inf) && !law.apply(inf)) {
+        int[] governingLaws = dispatchTable.computeIfAbsent(inf.getClass(), type -> getGoverningLaws(type, inf));
+        for (int i : governingLaws) {
+            long start = System.nanoTime();
+            boolean valid = laws.get(i).apply(inf);
+            lawStatistics.record(i, System.nanoTime() - start);
+            if (!valid) {
                 return false;
             }
         }
         return true;
     }
 
+    /**
+     * Return a summary of the number of times each law has been applied and the time spent applying it.
+     */
+    public String getLawStatistics() {
+        return lawStatistics.getStatistics("Reactor");
+    }
+
     /**
      * Repaints the GUI and updates any data that needs to be updated
      * Puts the program thread to sleep for a period specified by the user
@@ -186,11 +395,7 @@ public class Reactor extends Handler<InfluenceSet> {
     void update() {
         this.eventBus.post(new WorldProcessedEvent(this));
 
-        if (env.getPacketWorld().getNbPackets() == 0 && 
-                env.getPacketGeneratorWorld().getItems().stream()
-                    .flatMap(List::stream)
-                    .filter(Objects::nonNull)
-                    .allMatch(g -> g.hasHitThreshold() && g.getAmtPacketsInBuffer() == 0)) {
+        if (env.getProgress().isFinished()) {
             this.eventBus.post(new GameOverEvent(this));
         }
         applicationRunner.checkSuspended();
@@ -6,12 +6,14 @@ import environment.world.wall.WallRep;
 
 /**
  * A class for representations being data objects originating from Items.
- * They contain all values concerning their originating item.
+ * They contain all values concerning their originating item, as they were when the representation was made.
+ * Representations are immutable, so an item can hand out the same representation until it changes
+ * (cfr. {@link Item#getRepresentation()}).
  */
 abstract public class Representation {
 
-    int xPos;
-    int yPos;
+    private final int xPos;
+    private final int yPos;
 
     /**
      * Initializes a new Representation
@@ -20,8 +22,8 @@ abstract public class Representation {
      * @param y  Y-coordinate of the Item this representation represents
      */
     protected Representation(int x, int y) {
-        setX(x);
-        setY(y);
+        this.xPos = x;
+        this.yPos = y;
     }
 
     /**
@@ -40,22 +42,6 @@ abstract public class Representation {
         return yPos;
     }
 
-    /**
-     * Sets the x attribute of the Representation
-     * @param x  The new x value
-     */
-    protected void setX(int x) {
-        xPos = x;
-    }
-
-    /**
-     * Sets the y attribute of the Representation
-     * @param y  The new y value
-     */
-    protected void setY(int y) {
-        yPos = y;
-    }
-
     /**
      * Returns the character representation of the object class this
      * Representation is a representation of.
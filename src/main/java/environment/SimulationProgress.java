@@ -0,0 +1,36 @@
+package environment;
+
+/**
+ * A snapshot of how far a simulation has progressed, in terms of the packets that still have to be delivered
+ * (cfr. {@link Environment#getProgress()}).
+ *
+ * @param nbPacketsInWorld    The number of packets in the packet world that have not been delivered yet, including
+ *                            the packets carried by agents.
+ * @param nbPacketsBuffered   The number of packets waiting in the buffers of the packet generators.
+ * @param nbPacketsToGenerate The number of packets the packet generators still have to generate.
+ * @param nbPacketsDelivered  The number of packets that have been delivered.
+ */
+public record SimulationProgress(int nbPacketsInWorld, int nbPacketsBuffered, int nbPacketsToGenerate,
+                                 int nbPacketsDelivered) {
+
+    /**
+     * Return the number of packets that have not been delivered yet, whether they have been generated or not.
+     */
+    public int getNbPacketsLeft() {
+        return nbPacketsInWorld + nbPacketsBuffered + nbPacketsToGenerate;
+    }
+
+    /**
+     * Return the number of packets of the whole simulation, i.e. those delivered and those left.
+     */
+    public int getTotalPackets() {
+        return nbPacketsDelivered + getNbPacketsLeft();
+    }
+
+    /**
+     * Check whether every packet of the simulation has been delivered.
+     */
+    public boolean isFinished() {
+        return getNbPacketsLeft() == 0;
+    }
+}
@@ -1,5 +1,8 @@
 package environment;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import support.ActionOutcome;
@@ -18,9 +21,11 @@ import support.PlaceHolderOutcome;
 public class Sphere {
 
     private Outcome[] elements;
+    private final Map<ActiveItemID, Integer> positions;
     private int nbElements;
     private int nbDealtWith;
     private int nbHandled;
+    private final int step;
 
     private final Collector collector;
     private final EOPHandler eOPHandler;
@@ -42,14 +47,17 @@ public class Sphere {
      * @post new.getEOPHandler()==eOPHandler
      * @post new.getPostalService()==postalService
      * @post new.getReactor()==reactor
+     * @post new.getStep()==step
      */
     public Sphere(
         Collector collector,
         ActiveItemContainer agentImplementations,
         EOPHandler eOPHandler,
         PostalService postalService,
-        Reactor reactor) {
-        elements = new Outcome[0];
+        Reactor reactor,
+        int step) {
+        elements = new Outcome[4];
+        positions = new HashMap<>();
         setNbElements(0);
         setNbActed(0);
         nbHandled = 0;
@@ -58,6 +66,14 @@ public class Sphere {
         this.eOPHandler = eOPHandler;
         this.postalService = postalService;
         this.reactor = reactor;
+        this.step = step;
+    }
+
+    /**
+     * Return the step of the active items in this sphere, i.e. the number of phases they have moved on from since they started.
+     */
+    public int getStep() {
+        return step;
     }
 
     /**
@@ -67,6 +83,9 @@ public class Sphere {
      * @throws IndexOutOfBoundsException index >= getNbElements()
      */
     public Outcome getElementAt(int index) throws IndexOutOfBoundsException {
+        if (index >= getNbElements()) {
+            throw new IndexOutOfBoundsException(index);
+        }
         return elements[index];
     }
 
@@ -76,18 +95,20 @@ public class Sphere {
      * latter.
      */
     public void integrate(Outcome outcome) {
+        integrate(outcome, outcome.getSyncSet());
+    }
+
+    /**
+     * Integrate <outcome> in this Sphere, adding placeholders for the given members of its sync set only.
+     */
+    public void integrate(Outcome outcome, ActiveItemID[] syncSet) {
         if (!containsOutcomeOf(outcome.getAgentID())) {
             addToSphere(outcome);
         } else { // this clause substitutes placeholders by genuine outcomes
-            for (int i = 0; i < getNbElements(); i++) {
-                if (outcome.getAgentID() == getElementAt(i).getAgentID()) {
-                    elements[i] = outcome;
-                    setNbActed(getNbActed() + 1);
-                }
-            }
+            elements[positions.get(outcome.getAgentID())] = outcome;
+            setNbActed(getNbActed() + 1);
         }
-        ActiveItemID[] sS = outcome.getSyncSet();
-        for (ActiveItemID s : sS) {
+        for (ActiveItemID s : syncSet) {
             if (!containsOutcomeOf(s)) {
                 addToSphere(new PlaceHolderOutcome(s));
             }
@@ -102,16 +123,16 @@ public class Sphere {
      *       then new.getNbActed()==getNbActed()+1
      */
     public void addToSphere(Outcome outcome) {
-        Outcome[] temp = new Outcome[getNbElements() + 1];
-        for (int i = 0; i < getNbElements(); i++) {
-            temp[i] = getElements()[i];
+        if (getNbElements() == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
         }
-        temp[getNbElements()] = outcome;
-        elements = temp;
+        elements[getNbElements()] = outcome;
+        positions.put(outcome.getAgentID(), getNbElements());
         if (outcome.hasActed()) {
             setNbActed(getNbActed() + 1);
         }
         setNbElements(getNbElements() + 1);
+        getCollector().addedToSphere(this, outcome.getAgentID());
     }
 
     /**
@@ -122,7 +143,7 @@ public class Sphere {
      */
     public void incorporate(Sphere other) {
         for (int i = 0; i < other.getNbElements(); i++) {
-            addToSphere(other.getElements()[i]);
+            addToSphere(other.getElementAt(i));
         }
         other.clear();
     }
@@ -135,18 +156,11 @@ public class Sphere {
      *         else return false
      */
     public boolean containsOutcomeOf(ActiveItemID agent) {
-        boolean found = false;
-        for (int i = 0; i < getNbElements(); i++) {
-            if (elements[i].getAgentID() == agent) {
-                found = true;
-                break;
-            }
-        }
-        return found;
+        return positions.containsKey(agent);
     }
 
     public Outcome[] getElements() {
-        return elements;
+        return Arrays.copyOf(elements, getNbElements());
     }
 
     public int getNbElements() {
@@ -203,9 +217,7 @@ public class Sphere {
      * @post for i 0..getCollector().getNbSpheres()-1: new.geSpheres()[i] != this
      */
     public void clear() {
-        synchronized (getCollector().getSpheres()) { // mutex with makeNewSphere() !!!!!
-            getCollector().removeSphere(this);
-        }
+        getCollector().removeSphere(this);
     }
 
     /**
@@ -285,7 +297,7 @@ public class Sphere {
 
     public void printSphere() {
         this.logger.fine(String.format("\t\tNumber of elements: %d", nbElements));
-        for (Outcome element : elements) {
+        for (Outcome element : getElements()) {
             String message = "\t\t" + element.getAgentID().getID();
             if (element.hasActed()) {
                 message += "\t\thas acted - type: ";
@@ -0,0 +1,144 @@
+package environment;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A disjoint-set index of the spheres managed by a collector, keyed by the IDs of the active items whose outcomes
+ * (or placeholders) are members of these spheres.
+ * Every active item is given a slot the first time it is seen. The members of one sphere form one tree of slots, of
+ * which the root refers to the sphere itself. Looking up the sphere of an active item and joining two spheres thus
+ * take amortized O(α(n)) time, instead of scanning the elements of every sphere.
+ */
+class SphereIndex {
+
+    private static final int NO_SPHERE = -1;
+
+    private final Map<ActiveItemID, Integer> slots;
+    private int[] parent;
+    private int[] rank;
+    private Sphere[] owner;
+    private int nbSpheres;
+
+
+    SphereIndex() {
+        this.slots = new HashMap<>();
+        this.parent = new int[16];
+        this.rank = new int[16];
+        this.owner = new Sphere[16];
+        Arrays.fill(this.parent, NO_SPHERE);
+    }
+
+
+    /**
+     * Return the sphere which contains an outcome of the active item with the given ID, or null if there is none.
+     */
+    Sphere find(ActiveItemID id) {
+        Integer slot = slots.get(id);
+        if (slot == null || parent[slot] == NO_SPHERE) {
+            return null;
+        }
+        return owner[findRoot(slot)];
+    }
+
+    /**
+     * Register that an outcome of the active item with the given ID has just been added to the given sphere.
+     * If that active item was a member of another sphere, both spheres are joined and the joint set is from now on
+     * referred to by the given sphere.
+     *
+     * @param sphere The sphere the outcome was added to.
+     * @param id     The ID of the active item the outcome belongs to.
+     * @pre sphere.getNbElements() > 0
+     */
+    void add(Sphere sphere, ActiveItemID id) {
+        int slot = slotOf(id);
+        if (sphere.getNbElements() == 1) {
+            // First member of a new sphere
+            parent[slot] = slot;
+            rank[slot] = 0;
+            owner[slot] = sphere;
+            nbSpheres++;
+            return;
+        }
+
+        int root = findRoot(slotOf(sphere.getElementAt(0).getAgentID()));
+        if (parent[slot] == NO_SPHERE) {
+            parent[slot] = root;
+        } else {
+            root = union(root, findRoot(slot));
+        }
+        owner[root] = sphere;
+    }
+
+    /**
+     * Remove the given sphere from this index, unless its members have been joined into another sphere in the
+     * meantime.
+     */
+    void remove(Sphere sphere) {
+        if (sphere.getNbElements() == 0 || find(sphere.getElementAt(0).getAgentID()) != sphere) {
+            return;
+        }
+        for (int i = 0; i < sphere.getNbElements(); i++) {
+            int slot = slots.get(sphere.getElementAt(i).getAgentID());
+            parent[slot] = NO_SPHERE;
+            owner[slot] = null;
+        }
+        nbSpheres--;
+    }
+
+    /**
+     * Check whether this index refers to no sphere at all.
+     */
+    boolean isEmpty() {
+        return nbSpheres == 0;
+    }
+
+    private int slotOf(ActiveItemID id) {
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            slot = slots.size();
+            if (slot == parent.length) {
+                int capacity = parent.length * 2;
+                parent = Arrays.copyOf(parent, capacity);
+                rank = Arrays.copyOf(rank, capacity);
+                owner = Arrays.copyOf(owner, capacity);
+                Arrays.fill(parent, slot, capacity, NO_SPHERE);
+            }
+            slots.put(id, slot);
+        }
+        return slot;
+    }
+
+    private int findRoot(int slot) {
+        int root = slot;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        // Path compression
+        while (parent[slot] != root) {
+            int next = parent[slot];
+            parent[slot] = root;
+            slot = next;
+        }
+        return root;
+    }
+
+    private int union(int root1, int root2) {
+        if (root1 == root2) {
+            return root1;
+        }
+        if (rank[root1] < rank[root2]) {
+            int temp = root1;
+            root1 = root2;
+            root2 = temp;
+        }
+        parent[root2] = root1;
+        owner[root2] = null;
+        nbSpheres--;
+        if (rank[root1] == rank[root2]) {
+            rank[root1]++;
+        }
+        return root1;
+    }
+}
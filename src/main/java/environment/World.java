@@ -1,5 +1,6 @@
 package environment;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -12,11 +13,18 @@ import com.google.common.eventbus.EventBus;
 
 /**
  * A general world "concept".
+ * The items of a world are kept in a grid storage of the type configured for the world in 'worlds.properties'
+ * (cfr. {@link StorageType}).
  */
 public abstract class World<T extends Item<?>> {
     
-    protected List<List<T>> items;
+    private GridStorage cells;
+    private StorageType storageType;
+    private int width;
+    private int height;
     private Environment env;
+    private Occupancy occupancy;
+    private int occupancyBit;
     private static final Random rnd = new Random();
     private final EventBus eventBus;
 
@@ -33,6 +41,21 @@ public abstract class World<T extends Item<?>> {
         this.eventBus = eventBus;
     }
 
+    /**
+     * The ways in which the items of a world can be stored.
+     */
+    public enum StorageType {
+        /**
+         * All cells are stored in one array, row by row. Suits layers of which many cells are taken.
+         */
+        FLAT,
+        /**
+         * The cells are divided in tiles, which are only allocated while they hold an item. Suits sparse layers on
+         * large maps.
+         */
+        CHUNKED
+    }
+
     //--------------------------------------------------------------------------
     //		INSPECTORS
     //--------------------------------------------------------------------------
@@ -48,7 +71,7 @@ public abstract class World<T extends Item<?>> {
     protected static Coordinate getRandomCoordinate(int maxX, int maxY) {
         int x = rnd.nextInt(maxX);
         int y = rnd.nextInt(maxY);
-        return new Coordinate(x, y);
+        return Coordinate.of(x, y);
     }
 
     //--------------------------------------------------------------------------
@@ -62,9 +85,18 @@ public abstract class World<T extends Item<?>> {
      * @param y    y coordinate
      * @param item the Item to place in the world
      * @post	   items[x][y] = item
+     * @throws IndexOutOfBoundsException if the coordinates are not within the bounds of this world
      */
     public void putItem(int x, int y, T item) {
-        items.get(x).set(y, item);
+        checkBounds(x, y);
+        cells.set(x, y, item);
+        if (occupancy != null) {
+            if (item != null) {
+                occupancy.set(x, y, occupancyBit);
+            } else {
+                occupancy.clear(x, y, occupancyBit);
+            }
+        }
     }
 
     /**
@@ -77,6 +109,19 @@ public abstract class World<T extends Item<?>> {
         this.putItem(item.getX(), item.getY(), item);
     }
 
+    /**
+     * Signal that the item at the given coordinates has changed without being replaced, e.g. because its lifetime
+     * decreased, so that perceptions reusing that cell read it again.
+     *
+     * @param x    x coordinate
+     * @param y    y coordinate
+     */
+    public void markChanged(int x, int y) {
+        if (occupancy != null) {
+            occupancy.touch(x, y);
+        }
+    }
+
     /**
      * Method must be overridden to cast Items to the right subclass of Item.
      */
@@ -88,19 +133,21 @@ public abstract class World<T extends Item<?>> {
     public abstract void placeItem(T item);
 
     /**
-     * Initializes this world.
+     * Initializes this world, with the storage type configured for it.
      */
     public void initialize(int width, int height, Environment env) {
-        setEnvironment(env);
-        items = new ArrayList<>();
+        initialize(width, height, env, ApplicationRunner.getWorldStorage(getClass()));
+    }
 
-        for (int i = 0; i < width; i++) {
-            List<T> row = new ArrayList<>();
-            for (int j = 0; j < height; j++) {
-                row.add(null);
-            }
-            items.add(row);
-        }
+    /**
+     * Initializes this world, storing its items in a storage of the given type.
+     */
+    public void initialize(int width, int height, Environment env, StorageType storageType) {
+        setEnvironment(env);
+        this.width = width;
+        this.height = height;
+        this.storageType = storageType;
+        this.cells = GridStorage.create(storageType, width, height);
     }
 
     /**
@@ -125,36 +172,34 @@ public abstract class World<T extends Item<?>> {
     //--------------------------------------------------------------------------
 
     /**
-     * Returns all Items in this world
+     * Returns all Items in this world, as a read-only view on the items of this world.
      *
-     * @return A 2d list containing all Items in this world
+     * @return A 2d list containing all Items in this world, indexed by x first
      */
     public List<List<T>> getItems() {
-        return items;
+        return new GridView<>(cells, width, height);
     }
 
 
     /**
-     * Return the items in this world in newly created lists.
+     * Return the items in this world as they are at this moment, in a snapshot that does not change along with this
+     * world.
      * Note: does not copy the items themselves.
      *
-     * @return A 2d list containing all Items in this world
+     * @return A 2d list containing all Items in this world, indexed by x first
      */
     public List<List<T>> getItemsCopied() {
-        var result = new ArrayList<List<T>>();
-
-        for (var l : items) {
-            result.add(new ArrayList<>(l));
-        }
-
-        return result;
+        return new GridView<>(cells.copy(), width, height);
     }
 
+    /**
+     * Returns all Items in this world, row by row.
+     */
+    @SuppressWarnings("unchecked")
     public List<T> getItemsFlat() {
-        return this.getItems().stream()
-                .flatMap(List::stream)
-                .filter(Objects::nonNull)
-                .toList();
+        List<T> result = new ArrayList<>();
+        cells.forEach(item -> result.add((T) item));
+        return result;
     }
 
 
@@ -164,10 +209,38 @@ public abstract class World<T extends Item<?>> {
      * @param x    x coordinate
      * @param y    y coordinate
      * @return     items[x][y]
+     * @throws IndexOutOfBoundsException if the coordinates are not within the bounds of this world
      */
     @Nullable
+    @SuppressWarnings("unchecked")
     public T getItem(int x, int y) {
-        return items.get(x).get(y);
+        checkBounds(x, y);
+        return (T) cells.get(x, y);
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the coordinates are not within the bounds of this world
+     */
+    private void checkBounds(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException(String.format("(%d, %d) is not within a world of %d by %d",
+                x, y, width, height));
+        }
+    }
+
+    /**
+     * Returns the way in which the items of this world are stored.
+     */
+    public StorageType getStorageType() {
+        return storageType;
+    }
+
+    /**
+     * Returns the estimated number of bytes taken up by the storage of this world, not counting the items
+     * themselves.
+     */
+    public long getMemoryFootprint() {
+        return cells.getMemoryFootprint();
     }
 
     /**
@@ -196,13 +269,18 @@ public abstract class World<T extends Item<?>> {
      * @return True if the coordinates are valid, false otherwise
      */
     public boolean inBounds(int x, int y) {
-        if (items.isEmpty()) {
-            return false;
-        } else if (items.get(0).isEmpty()) {
-            return false;
-        }
-        return x >= 0 && x < items.size() &&
-                y >= 0 && y < items.get(0).size();
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Keep the given occupancy layer up to date with the items of this world from now on.
+     *
+     * @param occupancy The occupancy layer of the environment this world is part of.
+     * @param bit       The bit of this world in that layer.
+     */
+    void setOccupancy(Occupancy occupancy, int bit) {
+        this.occupancy = occupancy;
+        this.occupancyBit = bit;
     }
 
     /**
@@ -211,4 +289,43 @@ public abstract class World<T extends Item<?>> {
     public EventBus getEventBus() {
         return this.eventBus;
     }
+
+
+    /**
+     * A read-only view on a grid storage as a list of columns.
+     */
+    private static class GridView<T> extends AbstractList<List<T>> {
+
+        private final GridStorage cells;
+        private final int width;
+        private final int height;
+
+        GridView(GridStorage cells, int width, int height) {
+            this.cells = cells;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public List<T> get(int x) {
+            Objects.checkIndex(x, width);
+            return new AbstractList<>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public T get(int y) {
+                    return (T) cells.get(x, Objects.checkIndex(y, height));
+                }
+
+                @Override
+                public int size() {
+                    return height;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return width;
+        }
+    }
 }
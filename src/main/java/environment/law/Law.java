@@ -1,5 +1,7 @@
 package environment.law;
 
+import java.util.List;
+
 import environment.Environment;
 import support.Influence;
 
@@ -14,6 +16,16 @@ public interface Law {
      */
     boolean applicable(Influence inf);
 
+    /**
+     * Returns the kinds of influences this Law governs. The reactor only applies this Law to influences that are an
+     * instance of one of these classes, without asking whether it is applicable.
+     * Laws that do not declare the kinds of influences they govern are asked through applicable() once for every
+     * kind of influence, so their applicability must only depend on the class of the influence.
+     */
+    default List<Class<? extends Influence>> getInfluenceTypes() {
+        return List.of();
+    }
+
     /**
      * Check if the given Influence 'inf' passes validation by this Law.
      */
@@ -1,5 +1,7 @@
 package environment.law;
 
+import java.util.List;
+
 import environment.Environment;
 import support.InfConveyPacket;
 
@@ -24,6 +26,13 @@ public class LawConveyPacket implements Law {
         return inf instanceof InfConveyPacket;
     }
 
+    /**
+     * Returns the kinds of influences this law governs: InfConveyPacket.
+     */
+    public List<Class<? extends Influence>> getInfluenceTypes() {
+        return List.of(InfConveyPacket.class);
+    }
+
     /**
      * Check if the given Influence 'inf' passes validation by this Law.
      *
@@ -1,5 +1,7 @@
 package environment.law;
 
+import java.util.List;
+
 import environment.Environment;
 import support.InfPickCrumb;
 import support.Influence;
@@ -26,6 +28,13 @@ public class LawPickCrumb implements Law {
         return inf instanceof InfPickCrumb;
     }
 
+    /**
+     * Returns the kinds of influences this law governs: InfPickCrumb.
+     */
+    public List<Class<? extends Influence>> getInfluenceTypes() {
+        return List.of(InfPickCrumb.class);
+    }
+
     /**
      * Check if the given Influence 'inf' passes validation by this Law.
      *
@@ -1,5 +1,7 @@
 package environment.law;
 
+import java.util.List;
+
 import environment.Environment;
 import support.InfPickGeneratorPacket;
 import support.Influence;
@@ -26,6 +28,13 @@ public class LawPickGeneratorPacket implements Law {
         return inf instanceof InfPickGeneratorPacket;
     }
 
+    /**
+     * Returns the kinds of influences this law governs: InfPickGeneratorPacket.
+     */
+    public List<Class<? extends Influence>> getInfluenceTypes() {
+        return List.of(InfPickGeneratorPacket.class);
+    }
+
     /**
      * Check if the given Influence 'inf' passes validation by this Law.
      *
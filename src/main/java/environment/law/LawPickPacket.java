@@ -1,5 +1,7 @@
 package environment.law;
 
+import java.util.List;
+
 import environment.Environment;
 import support.InfPickPacket;
 import support.Influence;
@@ -26,6 +28,13 @@ public class LawPickPacket implements Law {
         return inf instanceof InfPickPacket;
     }
 
+    /**
+     * Returns the kinds of influences this law governs: InfPickPacket.
+     */
+    public List<Class<? extends Influence>> getInfluenceTypes() {
+        return List.of(InfPickPacket.class);
+    }
+
     /**
      * Check if the given Influence 'inf' passes validation by this Law.
      *
@@ -1,5 +1,7 @@
 package environment.law;
 
+import java.util.List;
+
 import environment.CollisionMatrix;
 import environment.Environment;
 import support.InfPutFlag;
@@ -27,6 +29,13 @@ public class LawPutFlag implements Law {
         return inf instanceof InfPutFlag;
     }
 
+    /**
+     * Returns the kinds of influences this law governs: InfPutFlag.
+     */
+    public List<Class<? extends Influence>> getInfluenceTypes() {
+        return List.of(InfPutFlag.class);
+    }
+
     /**
      * Check if the given Influence 'inf' passes validation by this Law.
      *
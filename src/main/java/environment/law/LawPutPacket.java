@@ -1,5 +1,7 @@
 package environment.law;
 
+import java.util.List;
+
 import environment.CollisionMatrix;
 import environment.Environment;
 import support.InfPutPacket;
@@ -27,6 +29,13 @@ public class LawPutPacket implements Law {
         return inf instanceof InfPutPacket;
     }
 
+    /**
+     * Returns the kinds of influences this law governs: InfPutPacket.
+     */
+    public List<Class<? extends Influence>> getInfluenceTypes() {
+        return List.of(InfPutPacket.class);
+    }
+
     /**
      * Check if the given Influence 'inf' passes validation by this Law.
      *
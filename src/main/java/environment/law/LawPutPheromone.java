@@ -1,5 +1,7 @@
 package environment.law;
 
+import java.util.List;
+
 import environment.CollisionMatrix;
 import environment.Environment;
 import support.InfPutDirPheromone;
@@ -28,6 +30,13 @@ public class LawPutPheromone implements Law {
         return inf instanceof InfPutPheromone || inf instanceof InfPutDirPheromone;
     }
 
+    /**
+     * Returns the kinds of influences this law governs: InfPutPheromone and InfPutDirPheromone.
+     */
+    public List<Class<? extends Influence>> getInfluenceTypes() {
+        return List.of(InfPutPheromone.class, InfPutDirPheromone.class);
+    }
+
     /**
      * Check if the given Influence 'inf' passes validation by this Law.
      *
@@ -1,5 +1,7 @@
 package environment.law;
 
+import java.util.List;
+
 import environment.Environment;
 import environment.world.packet.Packet;
 import support.InfStealPacket;
@@ -27,6 +29,13 @@ public class LawStealPacket implements Law {
         return inf instanceof InfStealPacket;
     }
 
+    /**
+     * Returns the kinds of influences this law governs: InfStealPacket.
+     */
+    public List<Class<? extends Influence>> getInfluenceTypes() {
+        return List.of(InfStealPacket.class);
+    }
+
     /**
      * Check if the given Influence 'inf' passes validation by this Law.
      *
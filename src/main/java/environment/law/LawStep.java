@@ -1,5 +1,6 @@
 package environment.law;
 
+import java.util.List;
 import java.util.logging.Logger;
 
 import environment.CollisionMatrix;
@@ -32,6 +33,13 @@ public class LawStep implements Law {
         return inf instanceof InfStep;
     }
 
+    /**
+     * Returns the kinds of influences this law governs: InfStep.
+     */
+    public List<Class<? extends Influence>> getInfluenceTypes() {
+        return List.of(InfStep.class);
+    }
+
     /**
      * Check if the given Influence 'inf' passes validation by this Law.
      *
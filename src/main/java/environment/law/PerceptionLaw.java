@@ -1,6 +1,9 @@
 package environment.law;
 
+import java.util.List;
+
 import environment.Perception;
+import environment.Representation;
 
 /**
  * An interface for perceptionLaws, being objects used by PerceptionReactor
@@ -13,4 +16,13 @@ public interface PerceptionLaw {
      */
     Perception enforce(Perception perception);
 
+    /**
+     * Returns the kinds of representations that make this PerceptionLaw alter a perception. The perception reactor
+     * only enforces this PerceptionLaw on perceptions containing a representation that is an instance of one of
+     * these classes. An empty list means this PerceptionLaw is enforced on every perception.
+     */
+    default List<Class<? extends Representation>> getRepresentationTypes() {
+        return List.of();
+    }
+
 }
@@ -0,0 +1,173 @@
+package environment.law;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import environment.CellPerception;
+import environment.Perception;
+import environment.Representation;
+import environment.world.wall.WallRep;
+
+/**
+ * A PerceptionLaw for not allowing agents to perceive Items that are situated behind a Wall Item from their point of
+ * view, like {@link PerceptionLawWallObstacle}, but which determines what is visible by recursive shadow casting
+ * instead of tracing a line to every cell. Every octant of the perception is scanned row by row moving away from the
+ * agent, and a wall only casts a shadow over the part of the next rows it hides, so every cell is visited once.
+ *
+ * Since walls rarely change, the visible cells are cached per position of the agent and dimensions of its view, along
+ * with the walls that were in view. The cached cells are only computed anew when the walls in view are no longer the
+ * same, e.g. because a wall was removed.
+ */
+public class PerceptionLawShadowCasting implements PerceptionLaw {
+
+    /**
+     * The maximum number of views of which the visible cells are cached. When the cache is full, it is emptied.
+     */
+    private static final int MAX_CACHED_VIEWS = 1 << 14;
+
+    /**
+     * The transformations of the coordinates of the first octant to those of every octant: xx, xy, yx, yy.
+     */
+    private static final int[][] OCTANTS = {
+        {1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+        {-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1}
+    };
+
+    private final Map<View, Visibility> cache;
+
+    /**
+     * Initializes a new PerceptionLawShadowCasting instance
+     */
+    public PerceptionLawShadowCasting() {
+        this.cache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Enforces this PerceptionLaw on a given Perception 'perception'.
+     * All cells that cannot be seen from the position of the perceiving agent, because a wall that is not see-through
+     * stands in between, are removed from the perception. The given perception itself is not changed.
+     *
+     * @param perception The perception on which we will enforce this perception law
+     * @return     A perception holding only the cells that can be seen by the perceiving agent
+     */
+    public Perception enforce(Perception perception) {
+        int width = perception.getWidth();
+        int height = perception.getHeight();
+        BitSet opaque = new BitSet(width * height);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                CellPerception cell = perception.getCellAt(x, y);
+                WallRep wall = cell == null ? null : cell.getRepOfType(WallRep.class);
+                if (wall != null && !wall.isSeeThrough()) {
+                    opaque.set(x * height + y);
+                }
+            }
+        }
+
+        View view = new View(perception.getOffsetX(), perception.getOffsetY(), width, height,
+            perception.getSelfX(), perception.getSelfY());
+        Visibility visibility = cache.get(view);
+        if (visibility == null || !visibility.opaque().equals(opaque)) {
+            visibility = new Visibility(opaque, castShadows(view, opaque));
+            if (cache.size() >= MAX_CACHED_VIEWS) {
+                cache.clear();
+            }
+            cache.put(view, visibility);
+        }
+
+        BitSet visible = visibility.visible();
+        if (visible.cardinality() == width * height) {
+            return perception;
+        }
+        Perception newPerception = perception.shallowCopy();
+        for (int i = visible.nextClearBit(0); i < width * height; i = visible.nextClearBit(i + 1)) {
+            newPerception.nullifyCellAt(i / height, i % height);
+        }
+        return newPerception;
+    }
+
+    /**
+     * Returns the kinds of representations that make this PerceptionLaw alter a perception: only walls can obstruct
+     * the view of an agent.
+     */
+    public List<Class<? extends Representation>> getRepresentationTypes() {
+        return List.of(WallRep.class);
+    }
+
+    /**
+     * Determine the cells of the given view that can be seen from its center, given the cells that block the sight.
+     *
+     * @param view   The dimensions of the view and the position of the agent in it.
+     * @param opaque The cells that block the sight, indexed as x * height + y.
+     * @return The cells that can be seen, indexed as x * height + y.
+     */
+    private static BitSet castShadows(View view, BitSet opaque) {
+        BitSet visible = new BitSet(view.width() * view.height());
+        visible.set(view.selfX() * view.height() + view.selfY());
+        int radius = Math.max(Math.max(view.selfX(), view.width() - 1 - view.selfX()),
+            Math.max(view.selfY(), view.height() - 1 - view.selfY()));
+        for (int[] octant : OCTANTS) {
+            castLight(view, opaque, visible, radius, 1, 1.0, 0.0, octant[0], octant[1], octant[2], octant[3]);
+        }
+        return visible;
+    }
+
+    /**
+     * Light the cells of one octant between the given slopes, starting from the given row (i.e. distance from the
+     * agent), and recurse for the parts of the next rows that are not hidden behind a wall.
+     */
+    private static void castLight(View view, BitSet opaque, BitSet visible, int radius, int row,
+                                  double start, double end, int xx, int xy, int yx, int yy) {
+        if (start < end) {
+            return;
+        }
+        double newStart = 0.0;
+        for (int distance = row; distance <= radius; distance++) {
+            boolean blocked = false;
+            for (int dx = -distance, dy = -distance; dx <= 0; dx++) {
+                double leftSlope = (dx - 0.5) / (dy + 0.5);
+                double rightSlope = (dx + 0.5) / (dy - 0.5);
+                if (start < rightSlope) {
+                    continue;
+                } else if (end > leftSlope) {
+                    break;
+                }
+
+                int x = view.selfX() + dx * xx + dy * xy;
+                int y = view.selfY() + dx * yx + dy * yy;
+                boolean inView = x >= 0 && x < view.width() && y >= 0 && y < view.height();
+                if (inView) {
+                    visible.set(x * view.height() + y);
+                }
+                boolean isOpaque = inView && opaque.get(x * view.height() + y);
+                if (blocked) {
+                    if (isOpaque) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (isOpaque && distance < radius) {
+                    blocked = true;
+                    castLight(view, opaque, visible, radius, distance + 1, start, leftSlope, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The position and dimensions of a perception, together with the position of the agent in it.
+     */
+    private record View(int offsetX, int offsetY, int width, int height, int selfX, int selfY) {}
+
+    /**
+     * The cells of a view that block the sight, and the cells that can be seen given those.
+     */
+    private record Visibility(BitSet opaque, BitSet visible) {}
+}
@@ -1,6 +1,9 @@
 package environment.law;
 
+import java.util.List;
+
 import environment.Perception;
+import environment.Representation;
 import environment.world.wall.WallRep;
 
 /**
@@ -33,25 +36,25 @@ public class PerceptionLawWallObstacle implements PerceptionLaw {
      *             relative to the perceiving agent.
      */
     public Perception enforce(Perception perception) {
-        Perception newPerception = new Perception(perception.getWidth(), perception.getHeight(),
-                                            perception.getOffsetX(), perception.getOffsetY());
-        int aX = perception.getSelfX();
-        int aY = perception.getSelfY();
+        Perception newPerception = perception.shallowCopy();
         for (int tX = 0; tX < perception.getWidth(); tX++) {
             for (int tY = 0; tY < perception.getHeight(); tY++) {
                 if (obstructed(perception, tX, tY)) {
                     newPerception.nullifyCellAt(tX, tY);
-                } else {
-                    newPerception.setCellPerceptionAt(tX, tY, perception.getCellAt(tX, tY));
                 }
             }
         }
-        //newPerception.setSelf(perception.getSelf(), aX, aY);
-        newPerception.setSelfX(aX);
-        newPerception.setSelfY(aY);
         return newPerception;
     }
 
+    /**
+     * Returns the kinds of representations that make this PerceptionLaw alter a perception: only walls can obstruct
+     * the view of an agent.
+     */
+    public List<Class<? extends Representation>> getRepresentationTypes() {
+        return List.of(WallRep.class);
+    }
+
     public static boolean obstructed(Perception perception, int x1, int y1) {
         int x0 = perception.getSelfX();
         int y0 = perception.getSelfY();
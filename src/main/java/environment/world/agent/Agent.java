@@ -136,6 +136,7 @@ public class Agent extends ActiveItem<AgentRep> {
      */
     public void consume(Packet p) {
         carry = p;
+        invalidateRepresentation();
         //when dropped packet, forget orientation (last visited area)
         if (p == null) {
             setLastX(-1);
@@ -212,10 +213,9 @@ public class Agent extends ActiveItem<AgentRep> {
      * @return the representation of this agent with a representation of anything it carries
      */
     @Override
-    public AgentRep getRepresentation() {
-        AgentRep aRep = new AgentRep(getX(), getY(), getID(), getName(), this.color);
-        this.getCarry().ifPresent(c -> aRep.setCarry(c.getRepresentation()));
-        return aRep;
+    protected AgentRep createRepresentation() {
+        return new AgentRep(getX(), getY(), getID(), getName(), this.color,
+            this.getCarry().map(Packet::getRepresentation).orElse(null));
     }
 
     /**
@@ -14,7 +14,7 @@ public class AgentRep extends Representation {
 
     private final ActiveItemID id;
     private final String name;
-    private PacketRep carry;
+    private final PacketRep carry;
     private final Color color;
 
     /**
@@ -24,12 +24,14 @@ public class AgentRep extends Representation {
      * @param  aID    the ID of the agent this representation represents
      * @param  aName  the name of the agent this representation represents
      * @param  color  the color of the agent this representation represents
+     * @param  aCarry the representation of the packet the agent carries, or null if it carries nothing
      */
-    protected AgentRep(int x, int y, ActiveItemID aID, String aName, Color color) {
+    protected AgentRep(int x, int y, ActiveItemID aID, String aName, Color color, PacketRep aCarry) {
         super(x, y);
         this.id = aID;
         this.name = aName;
         this.color = color;
+        this.carry = aCarry;
     }
 
     /**
@@ -64,14 +66,6 @@ public class AgentRep extends Representation {
     }
 
 
-    /**
-     * Sets the Packet this AgentRep is carrying
-     * @param aCarry The new carry value
-     */
-    protected void setCarry(PacketRep aCarry) {
-        carry = aCarry;
-    }
-
     public char getTypeChar() {
         return ('A');
     }
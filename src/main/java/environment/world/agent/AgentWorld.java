@@ -3,6 +3,8 @@ package environment.world.agent;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import javax.annotation.Nullable;
@@ -22,6 +24,7 @@ import util.event.AgentActionEvent;
 public class AgentWorld extends World<Agent> {
 
     private final List<Agent> agents;
+    private final Map<ActiveItemID, Agent> agentsByID;
 
     private final Logger logger = Logger.getLogger(AgentWorld.class.getName());
     
@@ -36,6 +39,7 @@ public class AgentWorld extends World<Agent> {
     public AgentWorld(EventBus eventBus) {
         super(eventBus);
         this.agents = new ArrayList<>();
+        this.agentsByID = new ConcurrentHashMap<>();
     }
 
     //--------------------------------------------------------------------------
@@ -111,9 +115,7 @@ public class AgentWorld extends World<Agent> {
      */
     @Nullable
     public Agent getAgent(ActiveItemID ID) {
-        return this.agents.stream().filter(a -> a.getID() == ID)
-            .findFirst()
-            .orElse(null);
+        return this.agentsByID.get(ID);
     }
 
     /**
@@ -159,6 +161,7 @@ public class AgentWorld extends World<Agent> {
             putItem(agent);
             getEnvironment().addActiveItem(agent);
             agents.add(agent);
+            agentsByID.put(agent.getID(), agent);
         } catch (ClassCastException exc) {
             this.logger.severe("Can only place an Agent in AgentWorld.");
         }
@@ -175,7 +178,10 @@ public class AgentWorld extends World<Agent> {
             }
         }
 
-        agentsToRemove.forEach(this.agents::remove);
+        for (Agent agent : agentsToRemove) {
+            this.agents.remove(agent);
+            this.agentsByID.remove(agent.getID(), agent);
+        }
     }
 
 
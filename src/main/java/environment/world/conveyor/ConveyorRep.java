@@ -9,7 +9,7 @@ import util.Direction;
  */
 public class ConveyorRep extends Representation {
 
-    private Direction direction;
+    private final Direction direction;
 
     /**
      * Initializes a new DestinationRep instance
@@ -20,7 +20,7 @@ public class ConveyorRep extends Representation {
      */
     protected ConveyorRep(int x, int y, Direction aDirection) {
         super(x, y);
-        setDirection(aDirection);
+        this.direction = aDirection;
     }
 
     /**
@@ -31,14 +31,6 @@ public class ConveyorRep extends Representation {
         return direction;
     }
 
-    /**
-     * Sets the direction of this ConveyorRep
-     * @param aDirection The new direction value
-     */
-    protected void setDirection(Direction aDirection) {
-        direction = aDirection;
-    }
-
     public char getTypeChar() {
         return ('D');
     }
@@ -38,7 +38,7 @@ public class Crumb extends Item<CrumbRep> {
      * @return A Crumb representation
      */
     @Override
-    public CrumbRep getRepresentation() {
+    protected CrumbRep createRepresentation() {
         return new CrumbRep(getX(), getY(), getNumber());
     }
 
@@ -65,5 +65,6 @@ public class Crumb extends Item<CrumbRep> {
      */
     public void setNumber(int number) {
         this.number = number;
+        invalidateRepresentation();
     }
 }
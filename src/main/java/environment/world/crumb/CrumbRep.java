@@ -7,7 +7,7 @@ import environment.Representation;
  */
 public class CrumbRep extends Representation {
 
-    private int number;
+    private final int number;
     
 
     /**
@@ -19,7 +19,7 @@ public class CrumbRep extends Representation {
      */
     protected CrumbRep(int x, int y, int number) {
         super(x, y);
-        setNumber(number);
+        this.number = number;
     }
 
     public char getTypeChar() {
@@ -30,10 +30,6 @@ public class CrumbRep extends Representation {
         return number;
     }
 
-    protected void setNumber(int number) {
-        this.number = number;
-    }
-
     @Override
     public boolean isWalkable() {
         return true;
@@ -10,7 +10,7 @@ import environment.Representation;
  */
 public class DestinationRep extends Representation {
 
-    private Color color;
+    private final Color color;
 
     /**
      * Initializes a new DestinationRep instance
@@ -21,7 +21,7 @@ public class DestinationRep extends Representation {
      */
     protected DestinationRep(int x, int y, Color aColor) {
         super(x, y);
-        setColor(aColor);
+        this.color = aColor;
     }
 
     /**
@@ -32,7 +32,7 @@ public class DestinationRep extends Representation {
      */
     public DestinationRep(Coordinate coordinates, Color aColor) {
         super(coordinates.getX(), coordinates.getY());
-        setColor(aColor);
+        this.color = aColor;
     }
 
     /**
@@ -43,14 +43,6 @@ public class DestinationRep extends Representation {
         return color;
     }
 
-    /**
-     * Sets the color of this DestinationRep
-     * @param aColor The new color value
-     */
-    protected void setColor(Color aColor) {
-        color = aColor;
-    }
-
     public char getTypeChar() {
         return ('D');
     }
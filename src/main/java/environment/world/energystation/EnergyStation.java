@@ -51,7 +51,7 @@ public class EnergyStation extends ActiveItem<EnergyStationRep> {
      * @return The representation of this energy station
      */
     @Override
-    public EnergyStationRep getRepresentation() {
+    protected EnergyStationRep createRepresentation() {
         return new EnergyStationRep(getX(), getY());
     }
 
@@ -9,7 +9,7 @@ import environment.Representation;
  */
 public class FlagRep extends Representation {
 
-    private Color color;
+    private final Color color;
 
     /**
      * Initializes a new FlagRep instance
@@ -20,7 +20,7 @@ public class FlagRep extends Representation {
      */
     protected FlagRep(int x, int y, Color aColor) {
         super(x, y);
-        setColor(aColor);
+        this.color = aColor;
     }
 
     /**
@@ -32,15 +32,6 @@ public class FlagRep extends Representation {
         return color;
     }
 
-    /**
-     * Sets the color of this FlagRep
-     *
-     * @param aColor The new color value
-     */
-    protected void setColor(Color aColor) {
-        color = aColor;
-    }
-
     public char getTypeChar() {
         return ('F');
     }
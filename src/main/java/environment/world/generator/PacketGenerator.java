@@ -90,7 +90,7 @@ public class PacketGenerator extends ActiveItem<PacketGeneratorRep> {
     }
 
     @Override
-    public PacketGeneratorRep getRepresentation() {
+    protected PacketGeneratorRep createRepresentation() {
         return new PacketGeneratorRep(this.getX(), this.getY(), color, packetQueue.size());
     }
 
@@ -105,7 +105,9 @@ public class PacketGenerator extends ActiveItem<PacketGeneratorRep> {
     }
 
     public synchronized Packet getFirstAvailablePacket() {
-        return this.packetQueue.poll();
+        Packet packet = this.packetQueue.poll();
+        invalidateRepresentation();
+        return packet;
     }
 
 
@@ -115,6 +117,7 @@ public class PacketGenerator extends ActiveItem<PacketGeneratorRep> {
         }
 
         packetQueue.add(new Packet(this.getX(), this.getY(), color));
+        invalidateRepresentation();
         this.threshold--;
     }
 
@@ -5,6 +5,7 @@ import java.util.Collection;
 import com.google.common.eventbus.EventBus;
 
 import environment.World;
+import environment.world.packet.Packet;
 
 /**
  * A class for a PacketGeneratorWorld, being a layer of the total world that contains
@@ -12,19 +13,83 @@ import environment.World;
  */
 public class PacketGeneratorWorld extends World<PacketGenerator> {
 
+    /**
+     * The number of packets waiting in the buffers of all generators of this world
+     */
+    private int nbPacketsBuffered;
+
+    /**
+     * The number of packets all generators of this world still have to generate
+     */
+    private int nbPacketsToGenerate;
+
+
     public PacketGeneratorWorld(EventBus eventBus) {
         super(eventBus);
     }
 
+    /**
+     * Gets the number of packets waiting in the buffers of the generators of this world.
+     */
+    public synchronized int getNbPacketsBuffered() {
+        return nbPacketsBuffered;
+    }
+
+    /**
+     * Gets the number of packets the generators of this world still have to generate.
+     */
+    public synchronized int getNbPacketsToGenerate() {
+        return nbPacketsToGenerate;
+    }
+
+    /**
+     * Let the generator at the given coordinates generate a packet into its buffer.
+     *
+     * @param x The x coordinate of the generator
+     * @param y The y coordinate of the generator
+     */
+    public synchronized void generatePacket(int x, int y) {
+        getItem(x, y).generatePacket();
+        nbPacketsToGenerate--;
+        nbPacketsBuffered++;
+    }
+
+    /**
+     * Take the first packet out of the buffer of the generator at the given coordinates.
+     *
+     * @param x The x coordinate of the generator
+     * @param y The y coordinate of the generator
+     * @return The packet, or null if the buffer of the generator is empty
+     */
+    public synchronized Packet takePacket(int x, int y) {
+        Packet packet = getItem(x, y).getFirstAvailablePacket();
+        if (packet != null) {
+            nbPacketsBuffered--;
+        }
+        return packet;
+    }
+
     @Override
     public void placeItems(Collection<PacketGenerator> items) {
         items.forEach(this::placeItem);
     }
 
     @Override
-    public void placeItem(PacketGenerator item) {
+    public synchronized void placeItem(PacketGenerator item) {
         this.putItem(item);
         getEnvironment().addActiveItem(item);
+        nbPacketsBuffered += item.getAmtPacketsInBuffer();
+        nbPacketsToGenerate += item.getPacketsLeftToGenerate();
+    }
+
+    @Override
+    public synchronized void free(int x, int y) {
+        PacketGenerator item = getItem(x, y);
+        if (item != null) {
+            nbPacketsBuffered -= item.getAmtPacketsInBuffer();
+            nbPacketsToGenerate -= item.getPacketsLeftToGenerate();
+        }
+        super.free(x, y);
     }
     
 
@@ -57,7 +57,7 @@ public class Packet extends Item<PacketRep> {
      * @return A packet-representation
      */
     @Override
-    public PacketRep getRepresentation() {
+    protected PacketRep createRepresentation() {
         return new PacketRep(getX(), getY(), getColor());
     }
 
@@ -10,7 +10,7 @@ import environment.Representation;
  */
 public class PacketRep extends Representation {
 
-    private Color color;
+    private final Color color;
 
     /**
      * Initializes a new PacketRep instance
@@ -21,7 +21,7 @@ public class PacketRep extends Representation {
      */
     protected PacketRep(int x, int y, Color aColor) {
         super(x, y);
-        setColor(aColor);
+        this.color = aColor;
     }
 
     /**
@@ -32,7 +32,7 @@ public class PacketRep extends Representation {
      */
     public PacketRep(Coordinate coordinates, Color aColor) {
         super(coordinates.getX(), coordinates.getY());
-        setColor(aColor);
+        this.color = aColor;
     }
 
     /**
@@ -44,15 +44,6 @@ public class PacketRep extends Representation {
         return color;
     }
 
-    /**
-     * Sets the color of this PacketRep
-     *
-     * @param aColor The new color value
-     */
-    protected void setColor(Color aColor) {
-        color = aColor;
-    }
-
     public char getTypeChar() {
         return ('p');
     }
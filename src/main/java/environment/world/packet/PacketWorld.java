@@ -18,6 +18,7 @@ public class PacketWorld extends World<Packet> {
 
 
     private int nbPackets;
+    private int nbPacketsDelivered;
 
     private final Logger logger = Logger.getLogger(PacketWorld.class.getName());
 
@@ -34,10 +35,17 @@ public class PacketWorld extends World<Packet> {
      *
      * @return This AgentWorld's nbPackets
      */
-    public int getNbPackets() {
+    public synchronized int getNbPackets() {
         return nbPackets;
     }
 
+    /**
+     * Gets the number of packets that have been delivered in this PacketWorld
+     */
+    public synchronized int getNbPacketsDelivered() {
+        return nbPacketsDelivered;
+    }
+
     /**
      * Gets the agent with the given 'ID'
      *
@@ -53,7 +61,7 @@ public class PacketWorld extends World<Packet> {
         return "PacketWorld";
     }
 
-    private void setNbPackets(int nbPackets) {
+    private synchronized void setNbPackets(int nbPackets) {
         this.nbPackets = nbPackets;
     }
 
@@ -96,7 +104,7 @@ public class PacketWorld extends World<Packet> {
      * @param packet the packet to place in this world
      */
     @Override
-    public void placeItem(Packet packet) {
+    public synchronized void placeItem(Packet packet) {
         try {
             setNbPackets(getNbPackets() + 1);
             putItem(packet);
@@ -105,8 +113,9 @@ public class PacketWorld extends World<Packet> {
         }
     }
 
-    public void deliverPacket() {
+    public synchronized void deliverPacket() {
         setNbPackets(getNbPackets() - 1);
+        nbPacketsDelivered++;
     }
 
 }
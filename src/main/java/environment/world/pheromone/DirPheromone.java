@@ -28,6 +28,7 @@ public class DirPheromone extends Pheromone {
     public DirPheromone(Environment environ, int x, int y, int time, CellPerception target) {
         super(environ, x, y, time);
         this.target = target;
+        invalidateRepresentation();
     }
 
     /**
@@ -57,7 +58,7 @@ public class DirPheromone extends Pheromone {
      * @return A Pheromone-representation
      */
     @Override
-    public DirPheromoneRep getRepresentation() {
+    protected DirPheromoneRep createRepresentation() {
         return new DirPheromoneRep(getX(), getY(), getLifetime(), getTarget());
     }
 
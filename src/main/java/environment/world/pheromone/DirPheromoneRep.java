@@ -7,7 +7,7 @@ import environment.CellPerception;
  */
 public class DirPheromoneRep extends PheromoneRep {
 
-    private CellPerception target;
+    private final CellPerception target;
     
 
     /**
@@ -20,14 +20,10 @@ public class DirPheromoneRep extends PheromoneRep {
      */
     protected DirPheromoneRep(int x, int y, int lifetime, CellPerception target) {
         super(x, y, lifetime);
-        setTarget(target);
+        this.target = target;
     }
 
     public CellPerception getTarget() {
         return target;
     }
-
-    protected void setTarget(CellPerception target) {
-        this.target = target;
-    }
 }
@@ -100,10 +100,13 @@ public class Pheromone extends Item<PheromoneRep> implements ClockListener {
      */
     public void onClockEvent(ClockEvent event) {
         lifetime -= DECAY;
+        invalidateRepresentation();
         if (lifetime <= 0) {
             env.getClock().removeListenerDelayed(this);
             env.getPheromoneWorld().free(getX(), getY());
             this.logger.fine("removed");
+        } else {
+            env.getPheromoneWorld().markChanged(getX(), getY());
         }
         this.logger.fine("Received a clock event");
     }
@@ -114,7 +117,7 @@ public class Pheromone extends Item<PheromoneRep> implements ClockListener {
      * @return A Pheromone-representation
      */
     @Override
-    public PheromoneRep getRepresentation() {
+    protected PheromoneRep createRepresentation() {
         return new PheromoneRep(getX(), getY(), getLifetime());
     }
 
@@ -142,6 +145,7 @@ public class Pheromone extends Item<PheromoneRep> implements ClockListener {
      */
     public void setLifetime(int lifetime) {
         this.lifetime = lifetime;
+        invalidateRepresentation();
     }
 
     /**
@@ -154,6 +158,7 @@ public class Pheromone extends Item<PheromoneRep> implements ClockListener {
         if (lifetime > MAX_LIFETIME) {
             lifetime = MAX_LIFETIME;
         }
+        invalidateRepresentation();
     }
 
     /**
@@ -164,5 +169,6 @@ public class Pheromone extends Item<PheromoneRep> implements ClockListener {
         if (lifetime > MAX_LIFETIME) {
             lifetime = MAX_LIFETIME;
         }
+        invalidateRepresentation();
     }
 }
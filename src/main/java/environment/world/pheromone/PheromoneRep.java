@@ -7,7 +7,7 @@ import environment.Representation;
  */
 public class PheromoneRep extends Representation {
 
-    private int lifetime;
+    private final int lifetime;
     
 
     /**
@@ -19,7 +19,7 @@ public class PheromoneRep extends Representation {
      */
     protected PheromoneRep(int x, int y, int lifetime) {
         super(x, y);
-        setLifetime(lifetime);
+        this.lifetime = lifetime;
     }
 
     public char getTypeChar() {
@@ -30,10 +30,6 @@ public class PheromoneRep extends Representation {
         return lifetime;
     }
 
-    protected void setLifetime(int lifetime) {
-        this.lifetime = lifetime;
-    }
-
     @Override
     public boolean isWalkable() {
         return true;
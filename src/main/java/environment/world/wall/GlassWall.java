@@ -14,7 +14,7 @@ public class GlassWall extends Wall {
     }
 
     @Override
-    public GlassWallRep getRepresentation() {
+    protected GlassWallRep createRepresentation() {
         return new GlassWallRep(getX(), getY());
     }
 
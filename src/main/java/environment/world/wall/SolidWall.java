@@ -28,7 +28,7 @@ public class SolidWall extends Wall {
      * @return A wall-representation
      */
     @Override
-    public SolidWallRep getRepresentation() {
+    protected SolidWallRep createRepresentation() {
         return new SolidWallRep(getX(), getY());
     }
 
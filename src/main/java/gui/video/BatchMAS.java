@@ -40,6 +40,7 @@ import com.google.common.eventbus.Subscribe;
 import org.json.JSONArray;
 
 import environment.ApplicationRunner;
+import environment.SimulationProgress;
 import gui.setup.WorldConfigurationPanel;
 import util.Variables;
 import util.event.GameOverEvent;
@@ -449,8 +450,9 @@ public class BatchMAS extends JFrame {
     private void startRun(int nb) {
         textOut("*** Starting run number " + nb + " ***\n");
 
-        nrStartPackets = this.applicationRunner.getEnvironment().getPacketWorld().getNbPackets();
-        nrCurrentPackets = nrStartPackets;
+        SimulationProgress startProgress = this.applicationRunner.getEnvironment().getProgress();
+        nrStartPackets = startProgress.getTotalPackets();
+        nrCurrentPackets = startProgress.getNbPacketsLeft();
         textOut("NbPackets: " + nrCurrentPackets);
 
         this.applicationRunner.prepareActiveItems();
@@ -477,8 +479,7 @@ public class BatchMAS extends JFrame {
      * Updates progress bar
      */
     private void updateProgressBar() {
-        nrCurrentPackets = this.applicationRunner.getEnvironment().getPacketWorld().
-            getNbPackets();
+        nrCurrentPackets = this.applicationRunner.getEnvironment().getProgress().getNbPacketsLeft();
         int nbRun = Integer.parseInt(textFieldNrRuns.getText());
         float relRun = 100 / (float) nbRun;
         progress = (indexCurrentRun - 1 +
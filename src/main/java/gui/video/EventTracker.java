@@ -14,7 +14,6 @@ import environment.ApplicationRunner;
 import environment.Coordinate;
 import environment.EnergyValues;
 import environment.Environment;
-import environment.world.generator.PacketGenerator;
 import util.event.AgentActionEvent;
 import util.event.EnergyUpdateEvent;
 
@@ -24,6 +23,7 @@ public class EventTracker {
     private final ApplicationRunner applicationRunner;
 
     private int totalPackets;
+    private int nbPacketsDelivered;
     private int energySpent;
 
     // Cycle -> packet pickup, put or delivery
@@ -80,6 +80,7 @@ public class EventTracker {
                 var action = new PacketAction(event.getToX(), event.getToY(),
                         PacketAction.Mode.Delivery, agentName, time);
                 this.historyPackets.add(action);
+                this.nbPacketsDelivered++;
                 this.callback.accept(action);
             }
             case AgentActionEvent.STEP -> {
@@ -118,9 +119,7 @@ public class EventTracker {
         JSONObject meta = new JSONObject();
         meta.put("TotalCycles", getEnvironment().getTime());
         meta.put("TotalPackets", this.totalPackets);
-        meta.put("PacketsDelivered", this.historyPackets.stream()
-                .filter(p -> p.mode == PacketAction.Mode.Delivery)
-                .count());
+        meta.put("PacketsDelivered", this.nbPacketsDelivered);
         meta.put("EnergyConsumed", this.energySpent);
         meta.put("Environment", applicationRunner.getEnvFile());
         meta.put("Implementation", applicationRunner.getImplementation());
@@ -183,9 +182,7 @@ public class EventTracker {
     }
 
     public boolean isRunFinished() {
-    	return this.totalPackets == this.historyPackets.stream()
-    		.filter(p -> p.mode == PacketAction.Mode.Delivery)
-    		.count();
+    	return this.totalPackets == this.nbPacketsDelivered;
     }
 
 
@@ -193,10 +190,8 @@ public class EventTracker {
         this.historyMoves.clear();
         this.historyPackets.clear();
         this.historyEnergy.clear();
-        this.totalPackets = getEnvironment().getPacketWorld().getNbPackets()
-                + getEnvironment().getPacketGeneratorWorld().getItemsFlat().stream()
-                        .mapToInt(PacketGenerator::getPacketsLeftToGenerate)
-                        .sum();
+        this.nbPacketsDelivered = 0;
+        this.totalPackets = getEnvironment().getProgress().getTotalPackets();
         this.energySpent = 0;
     }
 
@@ -659,8 +659,8 @@ public class ItemDrawer extends Drawer {
                     borderLines.add(new Pair<>(middle, cornerNW));
                 }
             }
-            g.fillPolygon(pointsFill.stream().mapToInt(Coordinate::getFirst).toArray(), 
-                    pointsFill.stream().mapToInt(Coordinate::getSecond).toArray(), 
+            g.fillPolygon(pointsFill.stream().mapToInt(Coordinate::getX).toArray(), 
+                    pointsFill.stream().mapToInt(Coordinate::getY).toArray(), 
                     pointsFill.size());
 
             
@@ -20,9 +20,9 @@ public class InfGeneratePacket extends Influence {
 
     @Override
     public AgentActionEvent effectuateEvent() {
-        getAreaOfEffect().getItem(getX(), getY()).generatePacket();
+        getAreaOfEffect().generatePacket(getX(), getY());
         if (getEnvironment().getPacketWorld().getItem(getX(), getY()) == null) {
-            getEnvironment().getPacketWorld().placeItem(getAreaOfEffect().getItem(getX(), getY()).getFirstAvailablePacket());
+            getEnvironment().getPacketWorld().placeItem(getAreaOfEffect().takePacket(getX(), getY()));
         }
         AgentActionEvent event = new AgentActionEvent(this);
         event.setAction(AgentActionEvent.GENERATE_PACKET);
@@ -11,6 +11,11 @@ public class InfNOP extends Influence {
         super(environment, -1, -1, id, null);
     }
 
+    @Override
+    public boolean actsOnCell() {
+        return false;
+    }
+
     @Override
     public AgentWorld getAreaOfEffect() {
         return getEnvironment().getAgentWorld();
@@ -32,7 +32,7 @@ public class InfPickGeneratorPacket extends Influence {
 
     @Override
     public AgentActionEvent effectuateEvent() {
-        Packet packet = getAreaOfEffect().getItem(getX(), getY()).getFirstAvailablePacket();
+        Packet packet = getAreaOfEffect().takePacket(getX(), getY());
         if (packet != null) {
             getEnvironment().getPacketWorld().placeItem(packet);
         }
@@ -49,9 +49,10 @@ public class InfPickPacket extends Influence {
      */
     protected synchronized AgentActionEvent pickPacket(int fx, int fy, ActiveItemID agent) {
         Packet from = getAreaOfEffect().getItem(fx, fy);
-        getAreaOfEffect().getAgent(agent).consume(from);
         getAreaOfEffect().free(fx, fy);
         from.moveTo(getAreaOfEffect().getAgent(agent).getX(), getAreaOfEffect().getAgent(agent).getY());
+        // The agent consumes the packet last, so its representation holds the packet at its new coordinates
+        getAreaOfEffect().getAgent(agent).consume(from);
         AgentActionEvent event = new AgentActionEvent(this);
         event.setAction(AgentActionEvent.PICK_PACKET);
         event.setFrom(fx, fy);
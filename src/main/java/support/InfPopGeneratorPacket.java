@@ -22,7 +22,7 @@ public class InfPopGeneratorPacket extends Influence {
     public AgentActionEvent effectuateEvent() {
         if (this.getEnvironment().getPacketWorld().getItem(this.getX(), this.getY()) == null) {
             this.getEnvironment().getPacketWorld()
-                    .placeItem(getAreaOfEffect().getItem(this.getX(), this.getY()).getFirstAvailablePacket());
+                    .placeItem(getAreaOfEffect().takePacket(this.getX(), this.getY()));
         }
         return null;
     }
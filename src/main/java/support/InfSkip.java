@@ -22,6 +22,11 @@ public class InfSkip extends Influence {
         this(environment, null);
     }
 
+    @Override
+    public boolean actsOnCell() {
+        return false;
+    }
+
     /**
      * Gets the area of effect (the World it wants to effect) for this
      * Influence. We return AgentWorld but in fact this influence doesn't
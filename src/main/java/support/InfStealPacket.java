@@ -54,9 +54,10 @@ public class InfStealPacket extends Influence {
             return null;
         }
 
-        dstAgent.consume(packet);
         srcAgent.consume(null);
         packet.moveTo(tx, ty);
+        // The agent consumes the packet last, so its representation holds the packet at its new coordinates
+        dstAgent.consume(packet);
         
         AgentActionEvent event = new AgentActionEvent(this);
         event.setAction(AgentActionEvent.STEAL_PACKET);
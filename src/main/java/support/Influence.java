@@ -76,6 +76,14 @@ public abstract class Influence {
         return env;
     }
 
+    /**
+     * Check whether this influence acts on the cell at its coordinates. Influences that only concern the active item
+     * they originate from, such as skipping a turn, do not.
+     */
+    public boolean actsOnCell() {
+        return true;
+    }
+
     /**
      * Gets the area of effect (the World it wants to effect) for this Influence
      * @return This Influence's areaOfEffect
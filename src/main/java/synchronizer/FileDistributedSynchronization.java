@@ -43,6 +43,7 @@ public class FileDistributedSynchronization extends DistributedSynchronization {
         } catch (Exception e) {
             this.logger.severe(e.getMessage());
         }
+        synchros = new Synchronizer[nbSynchros];
         for (int i = 0; i < nbSynchros; i++) {
             synchros[i] = new PersonalSynchronizer(i);
         }
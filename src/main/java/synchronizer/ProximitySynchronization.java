@@ -0,0 +1,102 @@
+package synchronizer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+import environment.ActiveItemID;
+import environment.ClockEvent;
+import environment.ClockListener;
+
+/**
+ * A class serving as the interface for distributed synchronization based on proximity: every active item is
+ * synchronized with the active items within a given range of its position (cfr. {@link ProximitySynchronizer}).
+ * Groups of active items that are not synchronized with each other progress independently, but no active item may
+ * get more than a given number of cycles ahead of the environment clock, i.e. of the slowest active item.
+ */
+public class ProximitySynchronization extends DistributedSynchronization implements ClockListener {
+
+    private static final long WAIT_TIMEOUT_MS = 100;
+
+    /**
+     * The (Chebyshev) distance within which active items can influence each other's actions.
+     */
+    private final int range;
+
+    /**
+     * The number of cycles an active item may be ahead of the environment clock.
+     */
+    private final int window;
+
+    private final ReentrantLock clockLock;
+    private final Condition clockIncreased;
+
+    private final Logger logger = Logger.getLogger(ProximitySynchronization.class.getName());
+
+    /**
+     * Initialize a new ProximitySynchronization-interface.
+     * @param range The distance within which active items can influence each other's actions.
+     * @param window The number of cycles an active item may be ahead of the slowest active item.
+     * @pre range >= 0
+     * @pre window >= 0
+     */
+    public ProximitySynchronization(int range, int window) {
+        super();
+        this.range = range;
+        this.window = window;
+        this.clockLock = new ReentrantLock();
+        this.clockIncreased = clockLock.newCondition();
+    }
+
+    /**
+     * Create the instances of classes of the synchronizer package needed at startup time.
+     * Between the perception of an active item and its action, an active item it is not synchronized with can act up
+     * to 2 * window + 1 times, since either of them may be window cycles ahead of the clock. To make sure such an
+     * active item cannot change what the first one perceived within range, the sync range is extended by this
+     * distance.
+     * @post A single ProximitySynchronizer is created, which handles the requests of all active items.
+     */
+    public void createSynchroPackage() {
+        ProximitySynchronizer synchro = new ProximitySynchronizer(getEnvironment(), range + 2 * window + 1);
+        int maxId = getEnvironment().getActiveItemIDs().stream()
+            .mapToInt(ActiveItemID::getID)
+            .max().orElse(-1);
+        synchros = new Synchronizer[maxId + 1];
+        for (int i = 0; i < synchros.length; i++) {
+            synchros[i] = synchro;
+        }
+        getEnvironment().getClock().addListener(this);
+    }
+
+    /**
+     * Wait until the environment clock is at most window cycles behind the given number of completed actions, or
+     * until the timeout expires.
+     */
+    @Override
+    public boolean awaitTurn(ActiveItemID id, int nbActions) {
+        clockLock.lock();
+        try {
+            if (nbActions - getEnvironment().getTime() > window) {
+                clockIncreased.await(WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            }
+            return nbActions - getEnvironment().getTime() <= window;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.logger.severe(String.format("Interrupted while active item %d waited for its turn", id.getID()));
+            throw new RuntimeException(e);
+        } finally {
+            clockLock.unlock();
+        }
+    }
+
+    @Override
+    public void onClockEvent(ClockEvent event) {
+        clockLock.lock();
+        try {
+            clockIncreased.signalAll();
+        } finally {
+            clockLock.unlock();
+        }
+    }
+}
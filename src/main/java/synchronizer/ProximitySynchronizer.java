@@ -0,0 +1,77 @@
+package synchronizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import environment.ActiveItem;
+import environment.ActiveItemID;
+import environment.Environment;
+
+/**
+ * A synchronizer that binds every active item to the active items within a given range of its position.
+ * The sync set of an active item is recomputed each time it synchronizes, using a spatial hash of the positions of
+ * all active items. Groups of active items that are far apart thus end up in separate spheres, which are handled
+ * independently of each other.
+ */
+public class ProximitySynchronizer implements Synchronizer {
+
+    private final int range;
+    private final Map<ActiveItemID, ActiveItem<?>> activeItems;
+    private final Map<ActiveItemID, ActiveItemID[]> syncSets;
+    private final SpatialHash spatialHash;
+
+
+    /**
+     * Initialize a ProximitySynchronizer for all active items in the given environment.
+     *
+     * @param environment The environment containing the active items to synchronize.
+     * @param range       The (Chebyshev) distance within which active items are synchronized.
+     */
+    public ProximitySynchronizer(Environment environment, int range) {
+        this.range = range;
+        this.activeItems = new ConcurrentHashMap<>();
+        this.syncSets = new ConcurrentHashMap<>();
+        // An active item moves at most one cell between two synchronizations, so its entry in the hash may be one cell
+        // off; buckets are made large enough for it to be found in any case
+        this.spatialHash = new SpatialHash(range + 2);
+        for (ActiveItem<?> item : environment.getActiveItems()) {
+            activeItems.put(item.getID(), item);
+            spatialHash.update(item.getID(), item.getX(), item.getY());
+        }
+    }
+
+    /**
+     * Return the syncSet of the active item with the given ID, as computed during its last synchronization.
+     * @param agent The ID of the active item requesting its sync set.
+     * @return The IDs of the active items that were within range at its last synchronization.
+     */
+    public ActiveItemID[] getSyncSet(ActiveItemID agent) {
+        return syncSets.getOrDefault(agent, new ActiveItemID[0]);
+    }
+
+    /**
+     * Form the sync set for the given active item, from the active items currently within range of its position.
+     * The set of candidates is not used: all active items are candidates.
+     *
+     * @param agent The id of the active item requesting formation of its sync set.
+     * @param setOfCandidates The set of agent-id's that are candidate-members of the sync set to be formed.
+     * @param time The syncTime of the requesting agent.
+     */
+    public void synchronize(ActiveItemID agent, List<ActiveItemID> setOfCandidates, int time) {
+        ActiveItem<?> item = activeItems.get(agent);
+        int x = item.getX();
+        int y = item.getY();
+        spatialHash.update(agent, x, y);
+
+        List<ActiveItemID> syncSet = new ArrayList<>();
+        for (ActiveItemID other : spatialHash.getNear(x, y)) {
+            ActiveItem<?> otherItem = activeItems.get(other);
+            if (other != agent && Environment.chebyshevDistance(x, y, otherItem.getX(), otherItem.getY()) <= range) {
+                syncSet.add(other);
+            }
+        }
+        syncSets.put(agent, syncSet.toArray(new ActiveItemID[0]));
+    }
+}
@@ -0,0 +1,77 @@
+package synchronizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import environment.ActiveItemID;
+
+/**
+ * A spatial hash of the positions of active items. The grid of the world is divided in square buckets, and every
+ * active item is registered in the bucket of its last known position.
+ * Since active items move at most one cell per cycle and update their registration every cycle, buckets of a size
+ * at least one larger than the range of interest ensure that all active items within that range of a position are
+ * found in the 3x3 buckets around it.
+ */
+class SpatialHash {
+
+    private final int bucketSize;
+    private final Map<Long, List<ActiveItemID>> buckets;
+    private final Map<ActiveItemID, Long> bucketOf;
+
+
+    /**
+     * Initialize a new, empty SpatialHash.
+     *
+     * @param bucketSize The width and height of every bucket.
+     * @pre bucketSize > 0
+     */
+    SpatialHash(int bucketSize) {
+        this.bucketSize = bucketSize;
+        this.buckets = new HashMap<>();
+        this.bucketOf = new HashMap<>();
+    }
+
+
+    /**
+     * Register the active item with the given ID at the given position.
+     */
+    synchronized void update(ActiveItemID id, int x, int y) {
+        long key = key(Math.floorDiv(x, bucketSize), Math.floorDiv(y, bucketSize));
+        Long previous = bucketOf.put(id, key);
+        if (previous != null && previous == key) {
+            return;
+        }
+        if (previous != null) {
+            List<ActiveItemID> bucket = buckets.get(previous);
+            bucket.remove(id);
+            if (bucket.isEmpty()) {
+                buckets.remove(previous);
+            }
+        }
+        buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(id);
+    }
+
+    /**
+     * Return the IDs of all active items registered in the bucket of the given position or in one of its neighbours.
+     */
+    synchronized List<ActiveItemID> getNear(int x, int y) {
+        int bx = Math.floorDiv(x, bucketSize);
+        int by = Math.floorDiv(y, bucketSize);
+        List<ActiveItemID> result = new ArrayList<>();
+        for (int i = bx - 1; i <= bx + 1; i++) {
+            for (int j = by - 1; j <= by + 1; j++) {
+                List<ActiveItemID> bucket = buckets.get(key(i, j));
+                if (bucket != null) {
+                    result.addAll(bucket);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long key(int bx, int by) {
+        return ((long) bx << 32) | (by & 0xffffffffL);
+    }
+}
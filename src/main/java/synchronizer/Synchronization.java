@@ -77,6 +77,18 @@ public abstract class Synchronization {
         getSynchronizer(id).synchronize(id, setOfCandidates, time);
     }
 
+    /**
+     * Wait, for a limited time, until the active item with name id may start its next phase. This allows a
+     * synchronization mode to keep active items that are not synchronized with each other from drifting apart.
+     * By default, active items may always start their next phase.
+     * @param id The id of the active item that wants to start its next phase.
+     * @param nbActions The number of action phases the active item has completed.
+     * @return Whether the active item may start its next phase.
+     */
+    public boolean awaitTurn(ActiveItemID id, int nbActions) {
+        return true;
+    }
+
     /**
      * Return the synchronizer handling the requests of the agent with name id.
      * @param id The id of the agent issuing a request.
@@ -1,37 +1,52 @@
 package util;
 
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 /**
- * Class needed for Synchronization
+ * Class needed for Synchronization.
+ * The lock may be released by another thread than the one that acquired it, and is
+ * not reentrant. It is built on java.util.concurrent, so that a virtual thread waiting
+ * for the lock does not pin its carrier thread.
  */
 public class Mutex {
 
+    private final ReentrantLock guard;
+    private final Condition released;
     private boolean lockTaken;
 
     private final Logger logger = Logger.getLogger(Mutex.class.getName());
 
     public Mutex() {
+        guard = new ReentrantLock();
+        released = guard.newCondition();
         lockTaken = false;
     }
 
-    public synchronized void acquireLock() {
+    public void acquireLock() {
         this.logger.fine("Requesting lock " + this);
-        while (lockTaken) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+        guard.lock();
+        try {
+            while (lockTaken) {
+                released.awaitUninterruptibly();
             }
+            this.logger.fine("Acquiring lock " + this);
+            lockTaken = true;
+        } finally {
+            guard.unlock();
         }
-        this.logger.fine("Acquiring lock " + this);
-        lockTaken = true;
     }
 
-    public synchronized void releaseLock() {
-        lockTaken = false;
-        this.logger.fine("Releasing lock " + this);
-        notify();
+    public void releaseLock() {
+        guard.lock();
+        try {
+            lockTaken = false;
+            this.logger.fine("Releasing lock " + this);
+            released.signal();
+        } finally {
+            guard.unlock();
+        }
     }
 
 }
@@ -0,0 +1,74 @@
+package util;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A flag on which a thread can suspend itself until another thread requests it to resume.
+ * It is built on java.util.concurrent locks, so that a suspended virtual thread does not
+ * pin its carrier thread. The flag itself is volatile: checking it takes no lock, the lock
+ * is only taken to suspend and to resume.
+ */
+public class Suspender {
+
+    private final ReentrantLock lock;
+    private final Condition resumed;
+    private volatile boolean suspendRequested;
+
+    /**
+     * Creates a new Suspender.
+     *
+     * @param suspendRequested Whether a suspension is requested from the start.
+     */
+    public Suspender(boolean suspendRequested) {
+        this.lock = new ReentrantLock();
+        this.resumed = lock.newCondition();
+        this.suspendRequested = suspendRequested;
+    }
+
+    /**
+     * Request the suspension of the thread checking this Suspender.
+     */
+    public void requestSuspend() {
+        suspendRequested = true;
+    }
+
+    /**
+     * Request to wake up the thread checking this Suspender, if it is suspended.
+     */
+    public void requestResume() {
+        lock.lock();
+        try {
+            suspendRequested = false;
+            resumed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Check whether a suspension is currently requested.
+     */
+    public boolean isSuspendRequested() {
+        return suspendRequested;
+    }
+
+    /**
+     * Suspend the calling thread for as long as a suspension is requested.
+     */
+    public void checkSuspended() {
+        if (!suspendRequested) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (suspendRequested) {
+                resumed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -15,4 +15,5 @@ public class Variables {
     public static final String WORLD_PROPERTIES_FILE = Variables.CONFIG_PATH + "worlds.properties";
     public static final String LAWS_PROPERTIES_FILE = Variables.CONFIG_PATH + "lawsoftheuniverse.properties";
     public static final String PERCEPTION_LAWS_PROPERTIES_FILE = Variables.CONFIG_PATH + "perceptionlaws.properties";
+    public static final String ENGINE_PROPERTIES_FILE = Variables.CONFIG_PATH + "engine.properties";
 }
@@ -0,0 +1,34 @@
+package agent.behavior;
+
+import java.util.Random;
+
+import agent.AgentAction;
+import agent.AgentCommunication;
+import agent.AgentState;
+import environment.CellPerception;
+
+/**
+ * A behavior that steps onto a random free neighbouring cell every turn, or skips if it picks a cell it cannot stand
+ * on. It costs next to nothing, so benchmarks running it measure the engine rather than the reasoning of the agents.
+ */
+public class RandomWalk extends Behavior {
+
+    private final Random random = new Random(1);
+
+    @Override
+    public void communicate(AgentState agentState, AgentCommunication agentCommunication) {
+        // No communication
+    }
+
+    @Override
+    public void act(AgentState agentState, AgentAction agentAction) {
+        int dx = random.nextInt(3) - 1;
+        int dy = random.nextInt(3) - 1;
+        CellPerception cell = agentState.getPerception().getCellPerceptionOnRelPos(dx, dy);
+        if ((dx != 0 || dy != 0) && cell != null && cell.isWalkable()) {
+            agentAction.step(agentState.getX() + dx, agentState.getY() + dy);
+        } else {
+            agentAction.skip();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package environment;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import util.Variables;
+
+/**
+ * The environments and behaviors the benchmarks run on. They are written under target/bench and loaded through the
+ * same paths as the configuration files, relative to the environments and implementations directories.
+ */
+final class BenchFiles {
+
+    private static final String PATH = "target" + File.separator + "bench" + File.separator;
+    private static final String RELATIVE_PATH = ".." + File.separator + ".." + File.separator + PATH;
+
+    private BenchFiles() {}
+
+
+    /**
+     * Write a behavior of a single state with the given behavior class and return its name.
+     */
+    static String writeBehavior(String name, Class<?> behavior) throws IOException {
+        try (PrintWriter out = new PrintWriter(file(name))) {
+            out.printf("description \"Benchmark: %s\"%n", behavior.getSimpleName());
+            out.printf("nbStates 1%n1 %s%nnbArgs 0%nnbChanges 0%n", behavior.getName());
+        }
+        return RELATIVE_PATH + name;
+    }
+
+    /**
+     * Write an environment without walls or energy stations and return its name. Agents, packets and destinations
+     * are given as {x, y} pairs.
+     */
+    static String writeEnvironment(String name, int width, int height, List<int[]> agents, List<int[]> packets,
+                                   String packetColor, List<int[]> destinations, String destinationColor)
+            throws IOException {
+        try (PrintWriter out = new PrintWriter(file(name))) {
+            out.printf("width %d%nheight %d%n%n", width, height);
+            out.printf("nbAgents %d%n", agents.size());
+            for (int i = 0; i < agents.size(); i++) {
+                out.printf("environment.world.agent.Agent%nnbArgs 5%nInteger %d%nInteger %d%nInteger 2%nInteger %d%n"
+                    + "String \"A%d\"%n", agents.get(i)[0], agents.get(i)[1], i + 1, i);
+            }
+            out.printf("%nnbPackets %d%n", packets.size());
+            for (int[] packet : packets) {
+                out.printf("environment.world.packet.Packet%nnbArgs 3%nInteger %d%nInteger %d%nString \"%s\"%n",
+                    packet[0], packet[1], packetColor);
+            }
+            out.printf("%nnbDestinations %d%n", destinations.size());
+            for (int[] destination : destinations) {
+                out.printf("environment.world.destination.Destination%nnbArgs 3%nInteger %d%nInteger %d%n"
+                    + "String \"%s\"%n", destination[0], destination[1], destinationColor);
+            }
+            out.printf("%nnbWalls 0%n%nnbEnergyStations 0%n");
+        }
+        return RELATIVE_PATH + name;
+    }
+
+    /**
+     * Write a square environment with the given number of agents, one and a half as many packets and half as many
+     * destinations, all on distinct cells picked at random, and return its name.
+     */
+    static String writeRandomEnvironment(int side, int nbAgents) throws IOException {
+        List<int[]> cells = new ArrayList<>();
+        for (int x = 0; x < side; x++) {
+            for (int y = 0; y < side; y++) {
+                cells.add(new int[] {x, y});
+            }
+        }
+        Collections.shuffle(cells, new Random(7));
+        return writeEnvironment(String.format("random-%dx%d-%d", side, side, nbAgents), side, side,
+            cells.subList(0, nbAgents), cells.subList(nbAgents, 2 * nbAgents + nbAgents / 2), "blue",
+            cells.subList(2 * nbAgents + nbAgents / 2, 3 * nbAgents), "blue");
+    }
+
+    /**
+     * Build (without starting) an environment with the given behavior for its agents.
+     */
+    static ApplicationRunner load(String behavior, String environment) {
+        ApplicationRunner applicationRunner = new ApplicationRunner();
+        applicationRunner.setImplementation(behavior);
+        applicationRunner.setEnvFile(environment);
+        applicationRunner.make(false);
+        applicationRunner.setSpeed(0);
+        return applicationRunner;
+    }
+
+    /**
+     * Run the given pass a number of times after two warm-up passes and return the time of the fastest, in
+     * nanoseconds.
+     */
+    static long bestOf(int nbPasses, Runnable pass) {
+        long best = Long.MAX_VALUE;
+        for (int i = -2; i < nbPasses; i++) {
+            long start = System.nanoTime();
+            pass.run();
+            long time = System.nanoTime() - start;
+            if (i >= 0) {
+                best = Math.min(best, time);
+            }
+        }
+        return best;
+    }
+
+    private static File file(String name) {
+        File file = new File(Variables.BASE_PATH, PATH + name + ".txt");
+        file.getParentFile().mkdirs();
+        return file;
+    }
+}
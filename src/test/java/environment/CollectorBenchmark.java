@@ -0,0 +1,93 @@
+package environment;
+
+import org.junit.jupiter.api.Test;
+
+import support.PerceptionOutcome;
+
+/**
+ * Outcomes per second the collector takes in with 250, 1000 and 2000 active items that are all in each other's sync
+ * set (central synchronization), so every outcome joins the one sphere of its phase. The outcomes are fed straight
+ * into {@link Collector#processOutcome}, without a collector thread or handlers behind it.
+ *
+ * Run with: mvn -Pbench test -Dtest=CollectorBenchmark
+ */
+public class CollectorBenchmark {
+
+    private static final int[] NB_ACTIVE_ITEMS = {250, 1000, 2000};
+
+
+    @Test
+    public void outcomesPerSecond() {
+        System.out.printf("%-14s %14s%n", "active items", "outcomes/s");
+        for (int nbActiveItems : NB_ACTIVE_ITEMS) {
+            ActiveItemID[] ids = new ActiveItemID[nbActiveItems];
+            for (int i = 0; i < nbActiveItems; i++) {
+                ids[i] = new ActiveItemID(i, ActiveItemID.ActionPriority.AGENT);
+            }
+            ActiveItemID[][] syncSets = new ActiveItemID[nbActiveItems][nbActiveItems - 1];
+            for (int i = 0; i < nbActiveItems; i++) {
+                for (int j = 0, k = 0; j < nbActiveItems; j++) {
+                    if (j != i) {
+                        syncSets[i][k++] = ids[j];
+                    }
+                }
+            }
+
+            // Full spheres are not handled, the benchmark removes them itself
+            EOPHandler eOPHandler = new EOPHandler() {
+                @Override
+                void deposit(EOPSet toBeHandled) {}
+            };
+            PhaseCounter activeItems = new PhaseCounter();
+            Collector collector = new Collector(activeItems, eOPHandler, null, null);
+            int nbPhases = Math.max(4, 20000 / nbActiveItems);
+            long time = BenchFiles.bestOf(3, () -> {
+                for (int phase = 0; phase < nbPhases; phase++) {
+                    activeItems.step++;
+                    for (int i = 0; i < nbActiveItems; i++) {
+                        collector.processOutcome(new PerceptionOutcome(ids[i], true, syncSets[i]));
+                    }
+                    for (Sphere sphere : collector.getSpheres()) {
+                        collector.removeSphere(sphere);
+                    }
+                }
+            });
+            System.out.printf("%-14d %14.0f%n", nbActiveItems, (double) nbActiveItems * nbPhases / time * 1e9);
+        }
+    }
+
+
+    /**
+     * Active items that all move on to the next phase together, when the benchmark says so.
+     */
+    private static class PhaseCounter extends ActiveItemContainer {
+
+        private int step = 0;
+
+        private final ActiveImp activeImp = new ActiveImp(new ActiveItemID(-1, ActiveItemID.ActionPriority.AGENT)) {
+            @Override
+            int getStep() {
+                return step;
+            }
+
+            @Override
+            protected void cleanup() {}
+
+            @Override
+            protected void execCurrentPhase() {}
+
+            @Override
+            protected boolean environmentPermissionNeededForNextPhase() {
+                return false;
+            }
+
+            @Override
+            protected void action() {}
+        };
+
+        @Override
+        protected ActiveImp getActiveImp(ActiveItemID ID) {
+            return activeImp;
+        }
+    }
+}
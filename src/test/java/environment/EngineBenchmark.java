@@ -0,0 +1,140 @@
+package environment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+
+import com.google.common.eventbus.Subscribe;
+
+import org.junit.jupiter.api.Test;
+
+import agent.behavior.RandomWalk;
+import util.event.WorldProcessedEvent;
+
+/**
+ * Cycles per second of the engine with 10, 100 and 1000 agents, with the engine threads started as platform threads
+ * and as virtual threads (cfr. engine.threads). The agents walk around at random (cfr. agent.behavior.RandomWalk) on
+ * an open floor, so the time goes to the engine rather than to the reasoning of the agents.
+ *
+ * Every configuration runs in a JVM of its own, since the kind of threads is decided once per JVM. Virtual threads
+ * need a Java 21+ runtime; pass one with -Dbench.java=/path/to/bin/java, otherwise the virtual configurations fall
+ * back to platform threads. Other engine settings can be passed on as well, e.g. -Dbench.engine.mode=lockstep.
+ *
+ * Run with: mvn -Pbench test -Dtest=EngineBenchmark
+ */
+public class EngineBenchmark {
+
+    private static final int[] NB_AGENTS = {10, 100, 1000};
+    private static final String[] THREAD_MODES = {"platform", "virtual"};
+
+
+    @Test
+    public void cyclesPerSecond() throws IOException, InterruptedException {
+        String java = System.getProperty("bench.java", System.getProperty("java.home") + "/bin/java");
+        List<String> settings = new ArrayList<>();
+        System.getProperties().stringPropertyNames().stream()
+            .filter(key -> key.startsWith("bench.engine.") || key.startsWith("bench.agent."))
+            .forEach(key -> settings.add("-D" + key.substring("bench.".length()) + "=" + System.getProperty(key)));
+
+        System.out.printf("%-10s %8s %14s%n", "threads", "agents", "cycles/s");
+        for (String threads : THREAD_MODES) {
+            for (int nbAgents : NB_AGENTS) {
+                List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                    "-Dengine.threads=" + threads));
+                command.addAll(settings);
+                command.addAll(List.of(EngineBenchmark.class.getName(), String.valueOf(nbAgents)));
+                Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+                String result = "failed";
+                try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    for (String line = output.readLine(); line != null; line = output.readLine()) {
+                        if (line.startsWith("RESULT ")) {
+                            result = line.substring("RESULT ".length());
+                        }
+                    }
+                }
+                process.waitFor();
+                System.out.printf("%-10s %8d %14s%n", threads, nbAgents, result);
+            }
+        }
+    }
+
+
+    /**
+     * Run one configuration: build an environment with the given number of agents, let it run for a number of warm-up
+     * cycles and print the number of cycles per second over the cycles after that.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        LogManager.getLogManager().getLogger("").setLevel(Level.SEVERE);
+
+        int nbAgents = Integer.parseInt(args[0]);
+        int warmUp = Math.max(20, 2000 / nbAgents);
+        int measured = Math.max(50, 20000 / nbAgents);
+        ApplicationRunner applicationRunner = BenchFiles.load(
+            BenchFiles.writeBehavior("random-walk", RandomWalk.class), writeEnvironment(nbAgents));
+
+        CycleCounter counter = new CycleCounter(warmUp, warmUp + measured);
+        applicationRunner.getEventBus().register(counter);
+        applicationRunner.prepareActiveItems();
+        applicationRunner.play();
+        counter.done.await();
+        applicationRunner.stop();
+
+        double seconds = (counter.end - counter.start) / 1e9;
+        boolean virtual = EngineSettings.getThreadMode() == EngineSettings.ThreadMode.VIRTUAL;
+        System.out.printf("RESULT %.0f%s%n", measured / seconds,
+            virtual && Runtime.version().feature() < 21 ? " (Java " + Runtime.version().feature() + ", platform)" : "");
+        System.exit(0);
+    }
+
+    /**
+     * Write an environment with the given number of agents on an open floor, with one packet no agent picks up so
+     * the run never ends by itself, and return its name.
+     */
+    private static String writeEnvironment(int nbAgents) throws IOException {
+        // Every agent on every other cell of every other row, leaving room to move
+        int side = 2 * (int) Math.ceil(Math.sqrt(nbAgents)) + 2;
+        int perRow = (side - 2) / 2;
+        List<int[]> agents = new ArrayList<>();
+        for (int i = 0; i < nbAgents; i++) {
+            agents.add(new int[] {1 + 2 * (i % perRow), 1 + 2 * (i / perRow)});
+        }
+        return BenchFiles.writeEnvironment("open-" + nbAgents, side, side, agents, List.of(new int[] {0, 0}),
+            "blue", List.of(new int[] {side - 1, side - 1}), "red");
+    }
+
+
+    /**
+     * Notes the time at which the warm-up cycles are over and at which the measured cycles are.
+     */
+    private static class CycleCounter {
+
+        private final int warmUp;
+        private final int total;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private int nbCycles = 0;
+        private long start;
+        private long end;
+
+        CycleCounter(int warmUp, int total) {
+            this.warmUp = warmUp;
+            this.total = total;
+        }
+
+        @Subscribe
+        private void handleWorldProcessedEvent(WorldProcessedEvent e) {
+            nbCycles++;
+            if (nbCycles == warmUp) {
+                start = System.nanoTime();
+            } else if (nbCycles == total) {
+                end = System.nanoTime();
+                done.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package environment;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import agent.behavior.RandomWalk;
+import agent.utils.MovementManager;
+import agent.utils.PathFinder;
+import agent.utils.VirtualEnvironment;
+import environment.world.destination.Destination;
+import environment.world.destination.DestinationRep;
+import environment.world.packet.Packet;
+import environment.world.packet.PacketRep;
+import environment.world.wall.SolidWallRep;
+
+/**
+ * Time the searches of shortest paths take on the maze, over virtual states (the original search) and over the grid
+ * of known cells (cfr. agent.pathfinding). The agent is taken to know the whole maze, and searches from every fifth
+ * free cell what the task_coordination behaviors search for: a packet and then a destination of its color (as
+ * Pickup does), and the nearest destination of a color (as Deliver does). The total length of the paths found is
+ * printed along. It may be a little smaller over the grid: the heuristic of the original search overestimates by one
+ * at goals that cannot be stood on (packets), so some of its paths are a move too long.
+ *
+ * Run with: mvn -Pbench test -Dtest=PathFindingBenchmark
+ */
+public class PathFindingBenchmark {
+
+    private static final String[] MODES = {"states", "grid"};
+
+    private int totalLength;
+
+
+    @Test
+    public void searchesOnMaze() throws IOException {
+        ApplicationRunner applicationRunner = BenchFiles.load(
+            BenchFiles.writeBehavior("random-walk", RandomWalk.class), "maze");
+        Environment env = applicationRunner.getEnvironment();
+
+        Set<CellPerception> cells = new HashSet<>();
+        List<CellPerception> packets = new ArrayList<>();
+        List<CellPerception> destinations = new ArrayList<>();
+        List<CellPerception> starts = new ArrayList<>();
+        int nbFree = 0;
+        for (int x = 0; x < env.getWidth(); x++) {
+            for (int y = 0; y < env.getHeight(); y++) {
+                CellPerception cell = new CellPerception(x, y);
+                Packet packet = env.getPacketWorld().getItem(x, y);
+                Destination destination = env.getDestinationWorld().getItem(x, y);
+                if (env.getWallWorld().getItem(x, y) != null) {
+                    cell.addRep(new SolidWallRep(cell.getCoordinates()));
+                } else if (packet != null) {
+                    cell.addRep(new PacketRep(cell.getCoordinates(), packet.getColor()));
+                    packets.add(cell);
+                } else if (destination != null) {
+                    cell.addRep(new DestinationRep(cell.getCoordinates(), destination.getColor()));
+                    destinations.add(cell);
+                } else if (nbFree++ % 5 == 0) {
+                    starts.add(cell);
+                }
+                cells.add(cell);
+            }
+        }
+        VirtualEnvironment virtualEnvironment = new VirtualEnvironment(cells, new MovementManager());
+
+        Set<CellPerception[]> toPacketAndDestination = new HashSet<>();
+        for (CellPerception packet : packets) {
+            for (CellPerception destination : destinations) {
+                if (destination.getRepOfType(DestinationRep.class).getColor()
+                        .equals(packet.getRepOfType(PacketRep.class).getColor())) {
+                    toPacketAndDestination.add(new CellPerception[] {packet, destination});
+                }
+            }
+        }
+        Set<CellPerception[]> toDestination = new HashSet<>();
+        for (CellPerception destination : destinations) {
+            if (destination.getRepOfType(DestinationRep.class).getColor()
+                    .equals(destinations.get(0).getRepOfType(DestinationRep.class).getColor())) {
+                toDestination.add(new CellPerception[] {destination});
+            }
+        }
+
+        System.out.printf("%d searches of each kind, %d packets, %d destinations%n", starts.size(), packets.size(),
+            destinations.size());
+        System.out.printf("%-8s %14s %14s%n", "search", "time (ms)", "path length");
+        String previousMode = System.getProperty("agent.pathfinding");
+        try {
+            for (String mode : MODES) {
+                System.setProperty("agent.pathfinding", mode);
+                long time = BenchFiles.bestOf(3, () -> {
+                    totalLength = 0;
+                    for (CellPerception start : starts) {
+                        totalLength += length(new PathFinder(virtualEnvironment).astar(start, toPacketAndDestination));
+                        totalLength += length(new PathFinder(virtualEnvironment).astar(start, toDestination));
+                    }
+                });
+                System.out.printf("%-8s %14.1f %14d%n", mode, time / 1e6, totalLength);
+            }
+        } finally {
+            if (previousMode == null) {
+                System.clearProperty("agent.pathfinding");
+            } else {
+                System.setProperty("agent.pathfinding", previousMode);
+            }
+        }
+    }
+
+    private static int length(List<List<Coordinate>> paths) {
+        return paths.stream().mapToInt(List::size).sum();
+    }
+}
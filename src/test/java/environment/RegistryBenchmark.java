@@ -0,0 +1,53 @@
+package environment;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import agent.behavior.RandomWalk;
+
+/**
+ * Cost of the lookups of agents, active items and worlds on an 80x80 floor with 500 agents, without running the
+ * environment. One cycle does for every agent what one step looks up: the agent six times (as InfStep does), two
+ * worlds and the active item once. The perceptions by ID of a cycle are measured separately.
+ *
+ * Run with: mvn -Pbench test -Dtest=RegistryBenchmark
+ */
+public class RegistryBenchmark {
+
+    private long sink = 0;
+
+
+    @Test
+    public void lookups() throws IOException {
+        ApplicationRunner applicationRunner = BenchFiles.load(BenchFiles.writeBehavior("random-walk", RandomWalk.class),
+            BenchFiles.writeRandomEnvironment(80, 500));
+        Environment env = applicationRunner.getEnvironment();
+        List<ActiveItemID> ids = new ArrayList<>(env.getAgentIds());
+        int nbCycles = 50;
+
+        long lookups = BenchFiles.bestOf(6, () -> {
+            for (int cycle = 0; cycle < nbCycles; cycle++) {
+                for (ActiveItemID id : ids) {
+                    for (int i = 0; i < 6; i++) {
+                        sink += env.getAgentWorld().getAgent(id).getX();
+                    }
+                    sink += env.getPacketWorld().hashCode() + env.getWallWorld().hashCode();
+                    sink += env.getActiveItem(id).getY();
+                }
+            }
+        });
+        long perceptions = BenchFiles.bestOf(6, () -> {
+            for (int cycle = 0; cycle < nbCycles; cycle++) {
+                for (ActiveItemID id : ids) {
+                    sink += env.getPerception(id).getWidth();
+                }
+            }
+        });
+
+        System.out.printf("%d agents: lookups %.3f ms/cycle, perceptions by ID %.3f ms/cycle%n", ids.size(),
+            lookups / 1e6 / nbCycles, perceptions / 1e6 / nbCycles);
+    }
+}
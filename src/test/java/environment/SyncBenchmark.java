@@ -0,0 +1,115 @@
+package environment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+
+import org.junit.jupiter.api.Test;
+
+import agent.behavior.RandomWalk;
+
+/**
+ * Cycles per second of the engine with 64, 256 and 1024 agents spread thinly over a large floor (12 cells apart),
+ * with central and with proximity synchronization (cfr. engine.sync). The agents walk around at random (cfr.
+ * agent.behavior.RandomWalk), so the time goes to the engine rather than to the reasoning of the agents.
+ *
+ * Every configuration runs in a JVM of its own, since the engine settings are read once per JVM. Other engine
+ * settings can be passed on, e.g. -Dbench.engine.threads=virtual.
+ *
+ * Run with: mvn -Pbench test -Dtest=SyncBenchmark
+ */
+public class SyncBenchmark {
+
+    private static final int[] NB_AGENTS = {64, 256, 1024};
+    private static final String[] SYNC_MODES = {"central", "proximity"};
+    private static final int SPACING = 12;
+
+
+    @Test
+    public void cyclesPerSecond() throws IOException, InterruptedException {
+        String java = System.getProperty("bench.java", System.getProperty("java.home") + "/bin/java");
+        List<String> settings = new ArrayList<>();
+        System.getProperties().stringPropertyNames().stream()
+            .filter(key -> key.startsWith("bench.engine.") || key.startsWith("bench.agent."))
+            .forEach(key -> settings.add("-D" + key.substring("bench.".length()) + "=" + System.getProperty(key)));
+
+        System.out.printf("%-10s %8s %14s%n", "sync", "agents", "cycles/s");
+        for (String sync : SYNC_MODES) {
+            for (int nbAgents : NB_AGENTS) {
+                List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                    "-Dengine.sync=" + sync));
+                command.addAll(settings);
+                command.addAll(List.of(SyncBenchmark.class.getName(), String.valueOf(nbAgents)));
+                Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+                String result = "failed";
+                try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    for (String line = output.readLine(); line != null; line = output.readLine()) {
+                        if (line.startsWith("RESULT ")) {
+                            result = line.substring("RESULT ".length());
+                        }
+                    }
+                }
+                process.waitFor();
+                System.out.printf("%-10s %8d %14s%n", sync, nbAgents, result);
+            }
+        }
+    }
+
+
+    /**
+     * Run one configuration: build a sparse environment with the given number of agents, let it run for a number of
+     * warm-up cycles and print the number of cycles per second over the cycles after that. A cycle is a tick of the
+     * environment clock, i.e. a round in which every agent has acted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        LogManager.getLogManager().getLogger("").setLevel(Level.SEVERE);
+
+        int nbAgents = Integer.parseInt(args[0]);
+        int warmUp = Math.max(20, 2000 / nbAgents);
+        int measured = Math.max(50, 10000 / nbAgents);
+        ApplicationRunner applicationRunner = BenchFiles.load(
+            BenchFiles.writeBehavior("random-walk", RandomWalk.class), writeEnvironment(nbAgents));
+
+        CountDownLatch done = new CountDownLatch(1);
+        long[] start = new long[1];
+        long[] end = new long[1];
+        Environment env = applicationRunner.getEnvironment();
+        env.getClock().addListener(event -> {
+            int time = env.getTime();
+            if (time == warmUp) {
+                start[0] = System.nanoTime();
+            } else if (time == warmUp + measured) {
+                end[0] = System.nanoTime();
+                done.countDown();
+            }
+        });
+        applicationRunner.prepareActiveItems();
+        applicationRunner.play();
+        done.await();
+        applicationRunner.stop();
+
+        System.out.printf("RESULT %.1f%n", measured / ((end[0] - start[0]) / 1e9));
+        System.exit(0);
+    }
+
+    /**
+     * Write a square environment with the given number of agents on a grid of SPACING cells, with one packet no agent
+     * picks up so the run never ends by itself, and return its name.
+     */
+    private static String writeEnvironment(int nbAgents) throws IOException {
+        int perRow = (int) Math.ceil(Math.sqrt(nbAgents));
+        int side = SPACING * perRow;
+        List<int[]> agents = new ArrayList<>();
+        for (int i = 0; i < nbAgents; i++) {
+            agents.add(new int[] {SPACING / 2 + SPACING * (i % perRow), SPACING / 2 + SPACING * (i / perRow)});
+        }
+        return BenchFiles.writeEnvironment("sparse-" + nbAgents, side, side, agents, List.of(new int[] {0, 0}),
+            "blue", List.of(new int[] {side - 1, side - 1}), "red");
+    }
+}
@@ -0,0 +1,69 @@
+package environment;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import agent.behavior.RandomWalk;
+
+/**
+ * Cost of the calls that go through the grids of the worlds: a perception, {@link CollisionMatrix#agentCanStandOn} and
+ * {@link World#getItemsCopied} (what a repaint does per world). Measured on the maze, on a 64x64 floor with 400 agents
+ * and on a 200x200 floor with 2000 agents, without running the environment.
+ *
+ * Run with: mvn -Pbench test -Dtest=WorldBenchmark
+ */
+public class WorldBenchmark {
+
+    private long sink = 0;
+
+
+    @Test
+    public void worldAccess() throws IOException {
+        String behavior = BenchFiles.writeBehavior("random-walk", RandomWalk.class);
+        System.out.printf("%-16s %18s %22s %22s%n", "environment", "perception (us)", "agentCanStandOn (ns)",
+            "getItemsCopied (us)");
+        measure("maze", BenchFiles.load(behavior, "maze"));
+        measure("64x64, 400", BenchFiles.load(behavior, BenchFiles.writeRandomEnvironment(64, 400)));
+        measure("200x200, 2000", BenchFiles.load(behavior, BenchFiles.writeRandomEnvironment(200, 2000)));
+    }
+
+    private void measure(String name, ApplicationRunner applicationRunner) {
+        Environment env = applicationRunner.getEnvironment();
+        List<ActiveItem<?>> activeItems = new ArrayList<>(env.getActiveItems());
+        int width = env.getWidth();
+        int height = env.getHeight();
+        int nbRounds = Math.max(1, 20000 / activeItems.size());
+
+        long perception = BenchFiles.bestOf(6, () -> {
+            for (int round = 0; round < nbRounds; round++) {
+                for (ActiveItem<?> activeItem : activeItems) {
+                    sink += env.pReactor.getPerception(activeItem).getWidth();
+                }
+            }
+        });
+        long standOn = BenchFiles.bestOf(6, () -> {
+            for (int round = 0; round < nbRounds; round++) {
+                for (int x = 0; x < width; x++) {
+                    for (int y = 0; y < height; y++) {
+                        sink += CollisionMatrix.agentCanStandOn(env, x, y) ? 1 : 0;
+                    }
+                }
+            }
+        });
+        long copied = BenchFiles.bestOf(6, () -> {
+            for (int round = 0; round < nbRounds; round++) {
+                for (World<?> world : env.getWorlds()) {
+                    sink += world.getItemsCopied().size();
+                }
+            }
+        });
+
+        System.out.printf("%-16s %18.2f %22.1f %22.1f%n", name,
+            perception / 1e3 / nbRounds / activeItems.size(),
+            (double) standOn / nbRounds / width / height,
+            copied / 1e3 / nbRounds / env.getWorlds().size());
+    }
+}
@@ -0,0 +1,83 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class MutexTest {
+
+    @Test
+    public void concurrentReleasesLetOnlyOneThreadIn() throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            Mutex mutex = new Mutex();
+            mutex.acquireLock();
+
+            // Release the lock from two threads at the same time
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] releasers = new Thread[2];
+            for (int r = 0; r < releasers.length; r++) {
+                releasers[r] = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    mutex.releaseLock();
+                });
+            }
+            for (Thread releaser : releasers) {
+                releaser.start();
+            }
+            start.countDown();
+            for (Thread releaser : releasers) {
+                releaser.join();
+            }
+
+            // The lock can be taken once, after which the next thread has to wait
+            mutex.acquireLock();
+            AtomicBoolean acquired = new AtomicBoolean(false);
+            Thread waiter = new Thread(() -> {
+                mutex.acquireLock();
+                acquired.set(true);
+            });
+            waiter.start();
+            while (!acquired.get() && waiter.getState() != Thread.State.WAITING) {
+                Thread.onSpinWait();
+            }
+            assertFalse(acquired.get(), "A second thread took the lock while it was held");
+            mutex.releaseLock();
+            waiter.join();
+            assertTrue(acquired.get());
+        }
+    }
+
+    @Test
+    public void lockIsMutuallyExclusive() throws InterruptedException {
+        Mutex mutex = new Mutex();
+        AtomicInteger inside = new AtomicInteger(0);
+        AtomicBoolean overlap = new AtomicBoolean(false);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    mutex.acquireLock();
+                    if (inside.incrementAndGet() != 1) {
+                        overlap.set(true);
+                    }
+                    inside.decrementAndGet();
+                    mutex.releaseLock();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(overlap.get());
+    }
+}